@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project01.BatchKernels;
+import project01.Vector3DBatch;
+
+/**
+ * This is the JMH benchmark of the BatchKernels backends: `best` is BatchKernels.best(), the SIMD
+ * backend when the module was built with the simd profile, and `scalar` is BatchKernels.scalar().
+ * Each invocation runs the operation over the whole batch of `size` vectors, so the score is in
+ * batches per second; multiply by size for vectors per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BatchKernelsBenchmark {
+  @Param({"best", "scalar"})
+  private String backend;
+
+  @Param({"1024", "65536"})
+  private int size;
+
+  private BatchKernels kernels;
+  private Vector3DBatch a;
+  private Vector3DBatch b;
+  private Vector3DBatch outBatch;
+  private double[] outValues;
+
+  @Setup
+  public void setUp() {
+    kernels = backend.equals("best") ? BatchKernels.best() : BatchKernels.scalar();
+    Random random = new Random(5004);
+    a = new Vector3DBatch(size);
+    b = new Vector3DBatch(size);
+    for (int i = 0; i < size; i++) {
+      a.set(i, random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+      b.set(i, random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+    }
+    outBatch = new Vector3DBatch(size);
+    outValues = new double[size];
+  }
+
+  @Benchmark
+  public double[] dotProduct() {
+    kernels.dotProduct(a, b, outValues);
+    return outValues;
+  }
+
+  @Benchmark
+  public double[] getMagnitude() {
+    kernels.getMagnitude(a, outValues);
+    return outValues;
+  }
+
+  @Benchmark
+  public Vector3DBatch normalize() {
+    kernels.normalize(a, outBatch);
+    return outBatch;
+  }
+
+  @Benchmark
+  public Vector3DBatch crossProduct() {
+    kernels.crossProduct(a, b, outBatch);
+    return outBatch;
+  }
+
+  @Benchmark
+  public double[] angleBetween() {
+    kernels.angleBetween(a, b, outValues);
+    return outValues;
+  }
+}
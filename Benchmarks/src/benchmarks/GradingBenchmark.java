@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import questions.BatchGrader;
+import questions.Likert;
+import questions.MultipleChoice;
+import questions.MultipleSelect;
+import questions.Question;
+import questions.Submission;
+import questions.TrueFalse;
+
+/**
+ * This is the JMH benchmark of grading 10,000 submissions to 20 questions of the 4 types.
+ * answerOneAtATime calls Question.answer for every answer; batchGrade grades the same
+ * submissions with a single-thread BatchGrader, which remembers the result of each distinct
+ * answer to the TrueFalse, MultipleChoice and MultipleSelect questions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GradingBenchmark {
+  private List<Question> questions;
+  private List<Submission> submissions;
+  private BatchGrader grader;
+
+  @Setup
+  public void setUp() {
+    questions = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      questions.add(new TrueFalse("Statement " + i, "True"));
+      questions.add(new MultipleChoice("Choice " + i, "2", "a", "b", "c", "d"));
+      questions.add(new MultipleSelect("Select " + i, "1 3", "a", "b", "c", "d", "e"));
+      questions.add(new Likert("Opinion " + i));
+    }
+    String[][] choices = {{"True", "False"}, {"1", "2", "3", "4"}, {"1 3", "3 1", "2 4", "1"},
+        {"1", "2", "3", "4", "5"}};
+    Random random = new Random(5004);
+    submissions = new ArrayList<>();
+    for (int s = 0; s < 10_000; s++) {
+      String[] answers = new String[questions.size()];
+      for (int q = 0; q < answers.length; q++) {
+        String[] options = choices[q % 4];
+        answers[q] = options[random.nextInt(options.length)];
+      }
+      submissions.add(new Submission("s" + s, answers));
+    }
+    grader = new BatchGrader(questions, 1, 1024, 4);
+  }
+
+  @TearDown
+  public void tearDown() {
+    grader.close();
+  }
+
+  @Benchmark
+  public long answerOneAtATime() {
+    long score = 0;
+    for (Submission submission : submissions) {
+      for (int q = 0; q < questions.size(); q++) {
+        if (Question.CORRECT.equals(questions.get(q).answer(submission.getAnswer(q)))) {
+          score++;
+        }
+      }
+    }
+    return score;
+  }
+
+  @Benchmark
+  public long batchGrade() {
+    long[] score = {0};
+    grader.grade(submissions.iterator(), grade -> score[0] += grade.getScore());
+    return score[0];
+  }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import polynomial.Polynomial;
+import polynomial.PolynomialImpl;
+
+/**
+ * This is the JMH benchmark of PolynomialImpl. The polynomial has a term for every power from 0
+ * to `degree`, with random non-zero coefficients.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolynomialBenchmark {
+  @Param({"8", "64", "512"})
+  private int degree;
+
+  private Polynomial polynomial;
+  private Polynomial other;
+  private double x;
+
+  @Setup
+  public void setUp() {
+    polynomial = randomPolynomial(new Random(5004), degree);
+    other = randomPolynomial(new Random(4005), degree);
+    x = 0.999;
+  }
+
+  @Benchmark
+  public double evaluate() {
+    return polynomial.evaluate(x);
+  }
+
+  @Benchmark
+  public Polynomial add() {
+    return polynomial.add(other);
+  }
+
+  @Benchmark
+  public int getCoefficient() {
+    return polynomial.getCoefficient(degree / 2);
+  }
+
+  private static Polynomial randomPolynomial(Random random, int degree) {
+    Polynomial p = new PolynomialImpl();
+    for (int power = 0; power <= degree; power++) {
+      p.addTerm(random.nextInt(19) - 9 | 1, power);
+    }
+    return p;
+  }
+}
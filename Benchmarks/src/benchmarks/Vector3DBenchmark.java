@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import project01.Vector3D;
+import project01.Vector3DBatch;
+
+/**
+ * This is the JMH benchmark of the Vector3D hot methods. Each invocation runs the operation over
+ * the whole set of `size` vectors, so the score is in sets per second; multiply by size for
+ * vectors per second. The batch variants run the same math on a Vector3DBatch for comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector3DBenchmark {
+  @Param({"1024", "65536"})
+  private int size;
+
+  private Vector3D[] vectors;
+  private Vector3D[] others;
+  private Vector3DBatch batch;
+  private Vector3DBatch otherBatch;
+  private Vector3DBatch outBatch;
+  private double[] outValues;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(5004);
+    vectors = new Vector3D[size];
+    others = new Vector3D[size];
+    for (int i = 0; i < size; i++) {
+      vectors[i] = new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+      others[i] = new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+    }
+    batch = Vector3DBatch.of(Arrays.asList(vectors));
+    otherBatch = Vector3DBatch.of(Arrays.asList(others));
+    outBatch = new Vector3DBatch(size);
+    outValues = new double[size];
+  }
+
+  @Benchmark
+  public void normalize(Blackhole blackhole) {
+    for (Vector3D v : vectors) {
+      blackhole.consume(v.normalize());
+    }
+  }
+
+  @Benchmark
+  public void getMagnitude(Blackhole blackhole) {
+    for (Vector3D v : vectors) {
+      blackhole.consume(v.getMagnitude());
+    }
+  }
+
+  @Benchmark
+  public void angleBetween(Blackhole blackhole) {
+    for (int i = 0; i < size; i++) {
+      blackhole.consume(vectors[i].angleBetween(others[i]));
+    }
+  }
+
+  @Benchmark
+  public void crossProduct(Blackhole blackhole) {
+    for (int i = 0; i < size; i++) {
+      blackhole.consume(vectors[i].crossProduct(others[i]));
+    }
+  }
+
+  @Benchmark
+  public Vector3DBatch batchNormalize() {
+    batch.normalize(outBatch);
+    return outBatch;
+  }
+
+  @Benchmark
+  public double[] batchAngleBetween() {
+    batch.angleBetween(otherBatch, outValues);
+    return outValues;
+  }
+}
@@ -0,0 +1,165 @@
+package project01;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This is the SIMD BatchKernels backend built on the JDK Vector API (jdk.incubator.vector).
+ * It only uses lane-wise add, sub, mul, div and sqrt, which are IEEE exact like their scalar
+ * versions, and keeps the scalar order of operations (no fused multiply-add), so the results are
+ * identical to Vector3D. acos has no exact SIMD version, so angleBetween computes the cosines with
+ * SIMD and finishes with the scalar clamp and Math.acos.
+ * This file lives in its own source root, src-simd, because it needs --add-modules
+ * jdk.incubator.vector to compile and run; src builds without it. Do not reference it directly:
+ * BatchKernels.best() loads it by name and falls back to ScalarKernels when the module or the
+ * class is missing.
+ */
+class SimdKernels implements BatchKernels {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void dotProduct(Vector3DBatch a, Vector3DBatch b, double[] out) {
+    a.checkSize(b.size());
+    a.checkSize(out.length);
+    int n = a.size();
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      dot(a, b, i).intoArray(out, i);
+    }
+    for (; i < n; i++) {
+      out[i] = a.x[i] * b.x[i] + a.y[i] * b.y[i] + a.z[i] * b.z[i];
+    }
+  }
+
+  @Override
+  public void getMagnitude(Vector3DBatch a, double[] out) {
+    a.checkSize(out.length);
+    int n = a.size();
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      magnitude(a, i).intoArray(out, i);
+    }
+    for (; i < n; i++) {
+      out[i] = Math.sqrt(a.x[i] * a.x[i] + a.y[i] * a.y[i] + a.z[i] * a.z[i]);
+    }
+  }
+
+  @Override
+  public void normalize(Vector3DBatch a, Vector3DBatch out) {
+    a.checkSize(out.size());
+    int n = a.size();
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector magnitude = magnitude(a, i);
+      if (magnitude.compare(VectorOperators.EQ, 0).anyTrue()) {
+        // let the scalar loop write the valid entries and throw at the right index
+        break;
+      }
+      DoubleVector.fromArray(SPECIES, a.x, i).div(magnitude).intoArray(out.x, i);
+      DoubleVector.fromArray(SPECIES, a.y, i).div(magnitude).intoArray(out.y, i);
+      DoubleVector.fromArray(SPECIES, a.z, i).div(magnitude).intoArray(out.z, i);
+    }
+    for (; i < n; i++) {
+      double magnitude = Math.sqrt(a.x[i] * a.x[i] + a.y[i] * a.y[i] + a.z[i] * a.z[i]);
+      if (magnitude == 0) {
+        throw new IllegalStateException("Cannot perform the operation if magnitude is 0 (index "
+                + i + ").");
+      }
+      out.x[i] = a.x[i] / magnitude;
+      out.y[i] = a.y[i] / magnitude;
+      out.z[i] = a.z[i] / magnitude;
+    }
+  }
+
+  @Override
+  public void crossProduct(Vector3DBatch a, Vector3DBatch b, Vector3DBatch out) {
+    a.checkSize(b.size());
+    a.checkSize(out.size());
+    int n = a.size();
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector x1 = DoubleVector.fromArray(SPECIES, a.x, i);
+      DoubleVector y1 = DoubleVector.fromArray(SPECIES, a.y, i);
+      DoubleVector z1 = DoubleVector.fromArray(SPECIES, a.z, i);
+      DoubleVector x2 = DoubleVector.fromArray(SPECIES, b.x, i);
+      DoubleVector y2 = DoubleVector.fromArray(SPECIES, b.y, i);
+      DoubleVector z2 = DoubleVector.fromArray(SPECIES, b.z, i);
+      y1.mul(z2).sub(z1.mul(y2)).intoArray(out.x, i);
+      z1.mul(x2).sub(x1.mul(z2)).intoArray(out.y, i);
+      x1.mul(y2).sub(y1.mul(x2)).intoArray(out.z, i);
+    }
+    for (; i < n; i++) {
+      double x1 = a.x[i];
+      double y1 = a.y[i];
+      double z1 = a.z[i];
+      double x2 = b.x[i];
+      double y2 = b.y[i];
+      double z2 = b.z[i];
+      out.x[i] = y1 * z2 - z1 * y2;
+      out.y[i] = z1 * x2 - x1 * z2;
+      out.z[i] = x1 * y2 - y1 * x2;
+    }
+  }
+
+  @Override
+  public void angleBetween(Vector3DBatch a, Vector3DBatch b, double[] out) {
+    a.checkSize(b.size());
+    a.checkSize(out.length);
+    int n = a.size();
+    int i = 0;
+    // first pass: cosines with SIMD
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector magnitude1 = magnitude(a, i);
+      DoubleVector magnitude2 = magnitude(b, i);
+      VectorMask<Double> zero = magnitude1.compare(VectorOperators.EQ, 0)
+              .or(magnitude2.compare(VectorOperators.EQ, 0));
+      if (zero.anyTrue()) {
+        break;
+      }
+      dot(a, b, i).div(magnitude1.mul(magnitude2)).intoArray(out, i);
+    }
+    int simdEnd = i;
+    for (; i < n; i++) {
+      double magnitude1 = Math.sqrt(a.x[i] * a.x[i] + a.y[i] * a.y[i] + a.z[i] * a.z[i]);
+      double magnitude2 = Math.sqrt(b.x[i] * b.x[i] + b.y[i] * b.y[i] + b.z[i] * b.z[i]);
+      if (magnitude1 == 0 || magnitude2 == 0) {
+        finishAngles(out, simdEnd);
+        throw new IllegalStateException("Cannot perform the operation (index " + i + ").");
+      }
+      double dotProduct = a.x[i] * b.x[i] + a.y[i] * b.y[i] + a.z[i] * b.z[i];
+      out[i] = Math.toDegrees(Math.acos(Math.max(-1.0, Math.min(1.0,
+              dotProduct / (magnitude1 * magnitude2)))));
+    }
+    // second pass: clamp and acos the SIMD cosines
+    finishAngles(out, simdEnd);
+  }
+
+  /**
+   * turn the cosines in out[0, end) into angles in degrees, same as Vector3D.angleBetween()
+   */
+  private static void finishAngles(double[] out, int end) {
+    for (int j = 0; j < end; j++) {
+      out[j] = Math.toDegrees(Math.acos(Math.max(-1.0, Math.min(1.0, out[j]))));
+    }
+  }
+
+  private static DoubleVector dot(Vector3DBatch a, Vector3DBatch b, int i) {
+    return DoubleVector.fromArray(SPECIES, a.x, i).mul(DoubleVector.fromArray(SPECIES, b.x, i))
+            .add(DoubleVector.fromArray(SPECIES, a.y, i).mul(DoubleVector.fromArray(SPECIES, b.y, i)))
+            .add(DoubleVector.fromArray(SPECIES, a.z, i).mul(DoubleVector.fromArray(SPECIES, b.z, i)));
+  }
+
+  private static DoubleVector magnitude(Vector3DBatch a, int i) {
+    DoubleVector x = DoubleVector.fromArray(SPECIES, a.x, i);
+    DoubleVector y = DoubleVector.fromArray(SPECIES, a.y, i);
+    DoubleVector z = DoubleVector.fromArray(SPECIES, a.z, i);
+    return x.mul(x).add(y.mul(y)).add(z.mul(z)).sqrt();
+  }
+
+  @Override
+  public String toString() {
+    return "simd(" + SPECIES + ")";
+  }
+}
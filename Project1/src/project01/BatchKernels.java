@@ -0,0 +1,81 @@
+package project01;
+
+/**
+ * This interface represents an execution backend for bulk operations on a Vector3DBatch. Every
+ * implementation must give the same results as the scalar Vector3D methods, entry by entry.
+ * Use BatchKernels.best() to get the fastest backend available in the running JVM.
+ */
+public interface BatchKernels {
+
+  /**
+   * Dot product of two batches, entry by entry.
+   *
+   * @param a the first batch
+   * @param b the second batch, same size as a
+   * @param out array that receives the dot products, same size as a
+   */
+  void dotProduct(Vector3DBatch a, Vector3DBatch b, double[] out);
+
+  /**
+   * Magnitude of every vector in a batch.
+   *
+   * @param a the batch
+   * @param out array that receives the magnitudes, same size as a
+   */
+  void getMagnitude(Vector3DBatch a, double[] out);
+
+  /**
+   * Normalize every vector in a batch.
+   *
+   * @param a the batch
+   * @param out batch that receives the normalized vectors, same size as a, may be a
+   * @throws IllegalStateException if the magnitude of any vector is 0
+   */
+  void normalize(Vector3DBatch a, Vector3DBatch out);
+
+  /**
+   * Cross product of two batches, entry by entry.
+   *
+   * @param a the first batch
+   * @param b the second batch, same size as a
+   * @param out batch that receives the cross products, same size as a, may be a or b
+   */
+  void crossProduct(Vector3DBatch a, Vector3DBatch b, Vector3DBatch out);
+
+  /**
+   * Angle in degrees between the vectors of two batches, entry by entry.
+   *
+   * @param a the first batch
+   * @param b the second batch, same size as a
+   * @param out array that receives the angles, same size as a
+   * @throws IllegalStateException if the magnitude of either vector of a pair is 0
+   */
+  void angleBetween(Vector3DBatch a, Vector3DBatch b, double[] out);
+
+  /**
+   * Return the SIMD backend when the jdk.incubator.vector module is present in the running JVM
+   * (started with --add-modules jdk.incubator.vector) and SimdKernels was compiled from src-simd,
+   * otherwise the scalar backend.
+   *
+   * @return the fastest available backend
+   */
+  static BatchKernels best() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        // loaded by name: SimdKernels is only on the class path when src-simd was compiled
+        return (BatchKernels) Class.forName("project01.SimdKernels")
+                .getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // fall through to the scalar backend
+      }
+    }
+    return scalar();
+  }
+
+  /**
+   * @return the scalar backend, which delegates to the Vector3DBatch methods
+   */
+  static BatchKernels scalar() {
+    return ScalarKernels.INSTANCE;
+  }
+}
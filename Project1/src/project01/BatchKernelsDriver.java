@@ -0,0 +1,124 @@
+package project01;
+
+import java.util.Random;
+
+/**
+ * This is the driver class of the batch kernels. It checks that the backend returned by
+ * BatchKernels.best() gives exactly the same results as the scalar Vector3D methods, then prints
+ * a throughput comparison (million vectors per second) between the scalar and the best backend.
+ * To get the SIMD backend, compile src-simd as well and run with --add-modules
+ * jdk.incubator.vector, e.g.
+ * javac --add-modules jdk.incubator.vector -d out src/project01/*.java src-simd/project01/*.java
+ */
+public class BatchKernelsDriver {
+  private static final int SIZE = 1 << 20;
+  private static final int ROUNDS = 20;
+
+  public static void main(String[] args) {
+    BatchKernels scalar = BatchKernels.scalar();
+    BatchKernels best = BatchKernels.best();
+    System.out.println("Best backend: " + best);
+
+    Random random = new Random(5004);
+    Vector3DBatch a = randomBatch(random, SIZE);
+    Vector3DBatch b = randomBatch(random, SIZE);
+
+    // correctness against the scalar Vector3D methods
+    int mismatches = check(best, a, b);
+    System.out.println("Mismatches against Vector3D: " + mismatches);
+    if (mismatches != 0) {
+      throw new IllegalStateException(best + " does not match the scalar results");
+    }
+
+    // throughput
+    System.out.printf("%-14s %12s %12s%n", "operation", "scalar", best.toString());
+    for (String op : new String[] {"dotProduct", "getMagnitude", "normalize", "crossProduct",
+        "angleBetween"}) {
+      double scalarRate = throughput(scalar, op, a, b);
+      double bestRate = throughput(best, op, a, b);
+      System.out.printf("%-14s %9.1f M/s %9.1f M/s%n", op, scalarRate, bestRate);
+    }
+  }
+
+  /**
+   * compare every operation of the backend with the Vector3D method on each entry
+   */
+  private static int check(BatchKernels kernels, Vector3DBatch a, Vector3DBatch b) {
+    int n = a.size();
+    double[] values = new double[n];
+    Vector3DBatch vectors = new Vector3DBatch(n);
+    int mismatches = 0;
+
+    kernels.dotProduct(a, b, values);
+    for (int i = 0; i < n; i++) {
+      mismatches += same(a.get(i).dotProduct(b.get(i)), values[i]) ? 0 : 1;
+    }
+    kernels.getMagnitude(a, values);
+    for (int i = 0; i < n; i++) {
+      mismatches += same(a.get(i).getMagnitude(), values[i]) ? 0 : 1;
+    }
+    kernels.angleBetween(a, b, values);
+    for (int i = 0; i < n; i++) {
+      mismatches += same(a.get(i).angleBetween(b.get(i)), values[i]) ? 0 : 1;
+    }
+    kernels.normalize(a, vectors);
+    for (int i = 0; i < n; i++) {
+      mismatches += same(a.get(i).normalize(), vectors, i) ? 0 : 1;
+    }
+    kernels.crossProduct(a, b, vectors);
+    for (int i = 0; i < n; i++) {
+      mismatches += same(a.get(i).crossProduct(b.get(i)), vectors, i) ? 0 : 1;
+    }
+    return mismatches;
+  }
+
+  private static boolean same(double expected, double actual) {
+    return Double.compare(expected, actual) == 0;
+  }
+
+  private static boolean same(Vector3D expected, Vector3DBatch actual, int i) {
+    return same(expected.getX(), actual.getX(i)) && same(expected.getY(), actual.getY(i))
+            && same(expected.getZ(), actual.getZ(i));
+  }
+
+  /**
+   * @return million vectors per second for the given operation, best of ROUNDS runs
+   */
+  private static double throughput(BatchKernels kernels, String op, Vector3DBatch a,
+                                   Vector3DBatch b) {
+    double[] values = new double[a.size()];
+    Vector3DBatch vectors = new Vector3DBatch(a.size());
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      switch (op) {
+        case "dotProduct":
+          kernels.dotProduct(a, b, values);
+          break;
+        case "getMagnitude":
+          kernels.getMagnitude(a, values);
+          break;
+        case "normalize":
+          kernels.normalize(a, vectors);
+          break;
+        case "crossProduct":
+          kernels.crossProduct(a, b, vectors);
+          break;
+        default:
+          kernels.angleBetween(a, b, values);
+          break;
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return a.size() * 1e3 / best;
+  }
+
+  private static Vector3DBatch randomBatch(Random random, int size) {
+    Vector3DBatch batch = new Vector3DBatch(size);
+    for (int i = 0; i < size; i++) {
+      batch.set(i, random.nextGaussian() * 10, random.nextGaussian() * 10,
+              random.nextGaussian() * 10);
+    }
+    return batch;
+  }
+}
@@ -0,0 +1,88 @@
+package project01;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This is the binary vector file format shared by Vector3DFileReader and Vector3DFileWriter,
+ * together with the memory mapping of the vector records.
+ *
+ * Layout, every number little-endian:
+ *   offset 0   int    magic number MAGIC (the bytes "VC3D")
+ *   offset 4   int    format version (VERSION)
+ *   offset 8   long   number of vectors n
+ *   offset 16  n records of 3 doubles: x, y, z (24 bytes per vector)
+ *
+ * A single MappedByteBuffer holds at most 2GB, so the records are mapped in segments of
+ * VECTORS_PER_SEGMENT vectors. The segment size is a multiple of the record size, so a record
+ * never crosses two segments and an index is found with a shift and a mask.
+ */
+class MappedVectors {
+  static final int MAGIC = 0x44334356;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  static final int VECTOR_BYTES = 3 * Double.BYTES;
+  static final int SEGMENT_SHIFT = 26;
+  static final long VECTORS_PER_SEGMENT = 1L << SEGMENT_SHIFT;
+  private static final long SEGMENT_MASK = VECTORS_PER_SEGMENT - 1;
+
+  private final MappedByteBuffer[] segments;
+  private final long size;
+
+  /**
+   * Map the records of a vector file
+   * @param channel the open file channel
+   * @param mode READ_ONLY for the reader, READ_WRITE for the writer
+   * @param size the number of vectors in the file
+   * @throws IOException if a segment cannot be mapped
+   */
+  MappedVectors(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+    this.size = size;
+    int count = (int) ((size + VECTORS_PER_SEGMENT - 1) >>> SEGMENT_SHIFT);
+    this.segments = new MappedByteBuffer[count];
+    for (int s = 0; s < count; s++) {
+      long first = (long) s << SEGMENT_SHIFT;
+      long vectors = Math.min(VECTORS_PER_SEGMENT, size - first);
+      segments[s] = channel.map(mode, HEADER_BYTES + first * VECTOR_BYTES,
+              vectors * VECTOR_BYTES);
+      segments[s].order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  long size() {
+    return this.size;
+  }
+
+  double get(long index, int component) {
+    checkIndex(index);
+    return segments[(int) (index >>> SEGMENT_SHIFT)]
+            .getDouble((int) (index & SEGMENT_MASK) * VECTOR_BYTES + component * Double.BYTES);
+  }
+
+  void set(long index, double x, double y, double z) {
+    checkIndex(index);
+    MappedByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+    int offset = (int) (index & SEGMENT_MASK) * VECTOR_BYTES;
+    segment.putDouble(offset, x);
+    segment.putDouble(offset + Double.BYTES, y);
+    segment.putDouble(offset + 2 * Double.BYTES, z);
+  }
+
+  /**
+   * write every modified segment back to the file
+   */
+  void force() {
+    for (MappedByteBuffer segment : segments) {
+      segment.force();
+    }
+  }
+
+  private void checkIndex(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Vector index " + index + " out of range [0, "
+              + size + ").");
+    }
+  }
+}
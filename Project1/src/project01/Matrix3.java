@@ -0,0 +1,187 @@
+package project01;
+
+/**
+ * This is the Matrix3 class, an immutable 3x3 matrix used to rotate, scale or otherwise linearly
+ * transform vectors. A matrix is built once (e.g. once per frame) and then applied to a single
+ * Vector3D, to a MutableVector3D in place, or to a whole Vector3DBatch with no allocation.
+ * Composition follows the usual convention: a.multiply(b) applies b first, then a.
+ */
+public final class Matrix3 {
+  private static final Matrix3 IDENTITY = new Matrix3(1, 0, 0, 0, 1, 0, 0, 0, 1);
+
+  private final double m00;
+  private final double m01;
+  private final double m02;
+  private final double m10;
+  private final double m11;
+  private final double m12;
+  private final double m20;
+  private final double m21;
+  private final double m22;
+
+  /**
+   * Matrix3 constructor, takes in the 9 entries row by row
+   * @param m00 row 0, column 0
+   * @param m01 row 0, column 1
+   * @param m02 row 0, column 2
+   * @param m10 row 1, column 0
+   * @param m11 row 1, column 1
+   * @param m12 row 1, column 2
+   * @param m20 row 2, column 0
+   * @param m21 row 2, column 1
+   * @param m22 row 2, column 2
+   */
+  public Matrix3(double m00, double m01, double m02,
+                 double m10, double m11, double m12,
+                 double m20, double m21, double m22) {
+    this.m00 = m00;
+    this.m01 = m01;
+    this.m02 = m02;
+    this.m10 = m10;
+    this.m11 = m11;
+    this.m12 = m12;
+    this.m20 = m20;
+    this.m21 = m21;
+    this.m22 = m22;
+  }
+
+  /**
+   * @return the identity matrix
+   */
+  public static Matrix3 identity() {
+    return IDENTITY;
+  }
+
+  /**
+   * @param sx scale factor along x
+   * @param sy scale factor along y
+   * @param sz scale factor along z
+   * @return a matrix that scales each component
+   */
+  public static Matrix3 scale(double sx, double sy, double sz) {
+    return new Matrix3(sx, 0, 0, 0, sy, 0, 0, 0, sz);
+  }
+
+  /**
+   * Rotation around an axis through the origin (right-hand rule)
+   * @param axis the rotation axis, does not need to be normalized
+   * @param degrees the rotation angle in degrees, same unit as Vector3D.angleBetween()
+   * @return the rotation matrix
+   * throw IllegalStateException if the magnitude of the axis is 0
+   */
+  public static Matrix3 rotation(Vector3D axis, double degrees) {
+    return Quaternion.fromAxisAngle(axis, degrees).toMatrix3();
+  }
+
+  /**
+   * @param row row index 0-2
+   * @param col column index 0-2
+   * @return the entry at (row, col)
+   * throw IndexOutOfBoundsException if row or col is not in [0, 2]
+   */
+  public double get(int row, int col) {
+    switch (row * 3 + col) {
+      case 0: return m00;
+      case 1: return m01;
+      case 2: return m02;
+      case 3: return m10;
+      case 4: return m11;
+      case 5: return m12;
+      case 6: return m20;
+      case 7: return m21;
+      case 8: return m22;
+      default:
+        throw new IndexOutOfBoundsException("Matrix index (" + row + ", " + col + ")");
+    }
+  }
+
+  /**
+   * Compose 2 transforms
+   * @param other the transform applied first
+   * @return this * other, which applies other and then this
+   */
+  public Matrix3 multiply(Matrix3 other) {
+    return new Matrix3(
+            m00 * other.m00 + m01 * other.m10 + m02 * other.m20,
+            m00 * other.m01 + m01 * other.m11 + m02 * other.m21,
+            m00 * other.m02 + m01 * other.m12 + m02 * other.m22,
+            m10 * other.m00 + m11 * other.m10 + m12 * other.m20,
+            m10 * other.m01 + m11 * other.m11 + m12 * other.m21,
+            m10 * other.m02 + m11 * other.m12 + m12 * other.m22,
+            m20 * other.m00 + m21 * other.m10 + m22 * other.m20,
+            m20 * other.m01 + m21 * other.m11 + m22 * other.m21,
+            m20 * other.m02 + m21 * other.m12 + m22 * other.m22);
+  }
+
+  /**
+   * @return the transposed matrix, which is the inverse when this is a rotation
+   */
+  public Matrix3 transpose() {
+    return new Matrix3(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+  }
+
+  /**
+   * @return the determinant of the matrix
+   */
+  public double determinant() {
+    return m00 * (m11 * m22 - m12 * m21)
+            - m01 * (m10 * m22 - m12 * m20)
+            + m02 * (m10 * m21 - m11 * m20);
+  }
+
+  /**
+   * @param vector the vector to be transformed
+   * @return a new vector, this * vector
+   */
+  public Vector3D transform(Vector3D vector) {
+    double x = vector.getX();
+    double y = vector.getY();
+    double z = vector.getZ();
+    return new Vector3D(m00 * x + m01 * y + m02 * z,
+            m10 * x + m11 * y + m12 * z,
+            m20 * x + m21 * y + m22 * z);
+  }
+
+  /**
+   * Transform a mutable vector in place
+   * @param vector the vector to be transformed
+   * @return the same vector
+   */
+  public MutableVector3D transformInPlace(MutableVector3D vector) {
+    double x = vector.getX();
+    double y = vector.getY();
+    double z = vector.getZ();
+    return vector.set(m00 * x + m01 * y + m02 * z,
+            m10 * x + m11 * y + m12 * z,
+            m20 * x + m21 * y + m22 * z);
+  }
+
+  /**
+   * Transform every vector of a batch
+   * @param in the vectors to be transformed
+   * @param out batch that receives the results, same size as in, may be in
+   */
+  public void transform(Vector3DBatch in, Vector3DBatch out) {
+    in.checkSize(out.size());
+    double[] xs = in.x;
+    double[] ys = in.y;
+    double[] zs = in.z;
+    for (int i = 0; i < xs.length; i++) {
+      double x = xs[i];
+      double y = ys[i];
+      double z = zs[i];
+      out.x[i] = m00 * x + m01 * y + m02 * z;
+      out.y[i] = m10 * x + m11 * y + m12 * z;
+      out.z[i] = m20 * x + m21 * y + m22 * z;
+    }
+  }
+
+  /**
+   * @return the matrix row by row, e.g. "[[1.00, 0.00, 0.00], [...], [...]]"
+   */
+  @Override
+  public String toString() {
+    return String.format("[[%.2f, %.2f, %.2f], [%.2f, %.2f, %.2f], [%.2f, %.2f, %.2f]]",
+            m00, m01, m02, m10, m11, m12, m20, m21, m22);
+  }
+}
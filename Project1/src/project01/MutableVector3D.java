@@ -0,0 +1,215 @@
+package project01;
+
+/**
+ * This is the MutableVector3D class, a mutable companion of Vector3D meant for accumulation loops
+ * such as summing forces or computing a centroid. The in-place methods update this vector and
+ * return it, so a loop can run without creating a new object per step. The arithmetic is the same
+ * as in Vector3D (e.g. addScaled(v, s) gives the same result as add(v.multiply(s))).
+ * Use toVector3D() to get an immutable copy once the accumulation is done.
+ */
+public class MutableVector3D {
+  private double x;
+  private double y;
+  private double z;
+
+  /**
+   * MutableVector3D class constructor, starts as the zero vector
+   */
+  public MutableVector3D() {
+    this(0, 0, 0);
+  }
+
+  /**
+   * MutableVector3D class constructor, takes in x, y, z components
+   * @param x component x of the vector
+   * @param y component y of the vector
+   * @param z component z of the vector
+   */
+  public MutableVector3D(double x, double y, double z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+  }
+
+  /**
+   * Create a mutable copy of an immutable vector
+   * @param vector the vector to be copied
+   * @return a new MutableVector3D with the same components
+   */
+  public static MutableVector3D from(Vector3D vector) {
+    return new MutableVector3D(vector.getX(), vector.getY(), vector.getZ());
+  }
+
+  /**
+   * @return double type of the this.x value
+   */
+  public double getX() {
+    return this.x;
+  }
+
+  /**
+   * @return double type of the this.y value
+   */
+  public double getY() {
+    return this.y;
+  }
+
+  /**
+   * @return double type of the this.z value
+   */
+  public double getZ() {
+    return this.z;
+  }
+
+  /**
+   * Overwrite all 3 components
+   * @param x component x of the vector
+   * @param y component y of the vector
+   * @param z component z of the vector
+   * @return this vector
+   */
+  public MutableVector3D set(double x, double y, double z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    return this;
+  }
+
+  /**
+   * Overwrite all 3 components with the ones of an immutable vector
+   * @param vector the vector to be copied
+   * @return this vector
+   */
+  public MutableVector3D set(Vector3D vector) {
+    return set(vector.getX(), vector.getY(), vector.getZ());
+  }
+
+  /**
+   * Reset this vector to the zero vector
+   * @return this vector
+   */
+  public MutableVector3D setZero() {
+    return set(0, 0, 0);
+  }
+
+  /**
+   * @return a new immutable Vector3D with the current components
+   */
+  public Vector3D toVector3D() {
+    return new Vector3D(this.x, this.y, this.z);
+  }
+
+  /**
+   * Add the given components to this vector
+   * @param x component x to be added
+   * @param y component y to be added
+   * @param z component z to be added
+   * @return this vector
+   */
+  public MutableVector3D addInPlace(double x, double y, double z) {
+    this.x += x;
+    this.y += y;
+    this.z += z;
+    return this;
+  }
+
+  /**
+   * Add another vector to this vector
+   * @param vector2 the vector to be added
+   * @return this vector
+   */
+  public MutableVector3D addInPlace(Vector3D vector2) {
+    return addInPlace(vector2.getX(), vector2.getY(), vector2.getZ());
+  }
+
+  /**
+   * Add another mutable vector to this vector
+   * @param vector2 the vector to be added
+   * @return this vector
+   */
+  public MutableVector3D addInPlace(MutableVector3D vector2) {
+    return addInPlace(vector2.x, vector2.y, vector2.z);
+  }
+
+  /**
+   * Multiply each component of this vector by a constant
+   * @param number a constant that will be used for multiplication
+   * @return this vector
+   */
+  public MutableVector3D scaleInPlace(double number) {
+    this.x *= number;
+    this.y *= number;
+    this.z *= number;
+    return this;
+  }
+
+  /**
+   * Add another vector multiplied by a constant to this vector (this += vector2 * number)
+   * the product is rounded before the sum, same as add(vector2.multiply(number)) in Vector3D
+   * @param vector2 the vector to be scaled and added
+   * @param number a constant that will be used for multiplication
+   * @return this vector
+   */
+  public MutableVector3D addScaled(Vector3D vector2, double number) {
+    return addInPlace(vector2.getX() * number, vector2.getY() * number, vector2.getZ() * number);
+  }
+
+  /**
+   * Add another mutable vector multiplied by a constant to this vector (this += vector2 * number)
+   * @param vector2 the vector to be scaled and added
+   * @param number a constant that will be used for multiplication
+   * @return this vector
+   */
+  public MutableVector3D addScaled(MutableVector3D vector2, double number) {
+    return addInPlace(vector2.x * number, vector2.y * number, vector2.z * number);
+  }
+
+  /**
+   * @param vector2 another vector used for calculation
+   * @return the dot product of the two vectors
+   */
+  public double dotProduct(Vector3D vector2) {
+    return this.x * vector2.getX() + this.y * vector2.getY() + this.z * vector2.getZ();
+  }
+
+  /**
+   * @return the magnitude of the vector
+   */
+  public double getMagnitude() {
+    return Math.sqrt(this.x * this.x + this.y * this.y + this.z * this.z);
+  }
+
+  /**
+   * Write the cross product of this vector and another vector into out
+   * @param vector2 another vector used for calculation
+   * @param out the vector that receives the result, may be this vector
+   * @return out
+   */
+  public MutableVector3D crossInto(Vector3D vector2, MutableVector3D out) {
+    double newX = this.y * vector2.getZ() - this.z * vector2.getY();
+    double newY = this.z * vector2.getX() - this.x * vector2.getZ();
+    double newZ = this.x * vector2.getY() - this.y * vector2.getX();
+    return out.set(newX, newY, newZ);
+  }
+
+  /**
+   * Write the cross product of this vector and another mutable vector into out
+   * @param vector2 another vector used for calculation, may be the same object as out
+   * @param out the vector that receives the result, may be this vector
+   * @return out
+   */
+  public MutableVector3D crossInto(MutableVector3D vector2, MutableVector3D out) {
+    double newX = this.y * vector2.z - this.z * vector2.y;
+    double newY = this.z * vector2.x - this.x * vector2.z;
+    double newZ = this.x * vector2.y - this.y * vector2.x;
+    return out.set(newX, newY, newZ);
+  }
+
+  /**
+   * @return a string formatted as "(x, y, z)" with 2 decimals, same as Vector3D
+   */
+  @Override
+  public String toString() {
+    return String.format("(%.2f, %.2f, %.2f)", this.x, this.y, this.z);
+  }
+}
@@ -0,0 +1,171 @@
+package project01;
+
+/**
+ * This is the Quaternion class, an immutable quaternion w + xi + yj + zk used to represent
+ * rotations. Quaternions are cheaper to compose than matrices and do not drift away from a
+ * rotation as easily, but a matrix is cheaper to apply, so rotating a batch converts the
+ * quaternion to a Matrix3 once and keeps that matrix cached in the quaternion.
+ * Composition follows the usual convention: a.multiply(b) rotates by b first, then by a.
+ */
+public final class Quaternion {
+  private static final Quaternion IDENTITY = new Quaternion(1, 0, 0, 0);
+
+  private final double w;
+  private final double x;
+  private final double y;
+  private final double z;
+  // lazily computed, immutable, so racing threads at worst compute it twice
+  private Matrix3 matrix;
+
+  /**
+   * Quaternion constructor
+   * @param w the scalar part
+   * @param x the i component
+   * @param y the j component
+   * @param z the k component
+   */
+  public Quaternion(double w, double x, double y, double z) {
+    this.w = w;
+    this.x = x;
+    this.y = y;
+    this.z = z;
+  }
+
+  /**
+   * @return the identity rotation
+   */
+  public static Quaternion identity() {
+    return IDENTITY;
+  }
+
+  /**
+   * Rotation around an axis through the origin (right-hand rule)
+   * @param axis the rotation axis, does not need to be normalized
+   * @param degrees the rotation angle in degrees, same unit as Vector3D.angleBetween()
+   * @return the unit quaternion of the rotation
+   * throw IllegalStateException if the magnitude of the axis is 0
+   */
+  public static Quaternion fromAxisAngle(Vector3D axis, double degrees) {
+    double half = Math.toRadians(degrees) / 2;
+    double s = Math.sin(half) * axis.inverseMagnitude();
+    return new Quaternion(Math.cos(half), axis.getX() * s, axis.getY() * s, axis.getZ() * s);
+  }
+
+  /**
+   * @return the scalar part
+   */
+  public double getW() {
+    return this.w;
+  }
+
+  /**
+   * @return the i component
+   */
+  public double getX() {
+    return this.x;
+  }
+
+  /**
+   * @return the j component
+   */
+  public double getY() {
+    return this.y;
+  }
+
+  /**
+   * @return the k component
+   */
+  public double getZ() {
+    return this.z;
+  }
+
+  /**
+   * Compose 2 rotations (Hamilton product)
+   * @param other the rotation applied first
+   * @return this * other, which rotates by other and then by this
+   */
+  public Quaternion multiply(Quaternion other) {
+    return new Quaternion(
+            w * other.w - x * other.x - y * other.y - z * other.z,
+            w * other.x + x * other.w + y * other.z - z * other.y,
+            w * other.y - x * other.z + y * other.w + z * other.x,
+            w * other.z + x * other.y - y * other.x + z * other.w);
+  }
+
+  /**
+   * @return the conjugate, which is the inverse rotation for a unit quaternion
+   */
+  public Quaternion conjugate() {
+    return new Quaternion(w, -x, -y, -z);
+  }
+
+  /**
+   * @return this quaternion scaled to length 1, use it after many compositions to stop drift
+   * throw IllegalStateException if the length is 0
+   */
+  public Quaternion normalize() {
+    double length = Math.sqrt(w * w + x * x + y * y + z * z);
+    if (length == 0) {
+      throw new IllegalStateException("Cannot perform the operation if magnitude is 0.");
+    }
+    return new Quaternion(w / length, x / length, y / length, z / length);
+  }
+
+  /**
+   * @return the rotation matrix of this (unit) quaternion, computed once and cached
+   */
+  public Matrix3 toMatrix3() {
+    Matrix3 m = this.matrix;
+    if (m == null) {
+      double xx = x * x;
+      double yy = y * y;
+      double zz = z * z;
+      double xy = x * y;
+      double xz = x * z;
+      double yz = y * z;
+      double wx = w * x;
+      double wy = w * y;
+      double wz = w * z;
+      m = new Matrix3(
+              1 - 2 * (yy + zz), 2 * (xy - wz), 2 * (xz + wy),
+              2 * (xy + wz), 1 - 2 * (xx + zz), 2 * (yz - wx),
+              2 * (xz - wy), 2 * (yz + wx), 1 - 2 * (xx + yy));
+      this.matrix = m;
+    }
+    return m;
+  }
+
+  /**
+   * @param vector the vector to be rotated
+   * @return a new rotated vector
+   */
+  public Vector3D rotate(Vector3D vector) {
+    return toMatrix3().transform(vector);
+  }
+
+  /**
+   * Rotate a mutable vector in place
+   * @param vector the vector to be rotated
+   * @return the same vector
+   */
+  public MutableVector3D rotateInPlace(MutableVector3D vector) {
+    return toMatrix3().transformInPlace(vector);
+  }
+
+  /**
+   * Rotate every vector of a batch, using the cached matrix
+   * @param in the vectors to be rotated
+   * @param out batch that receives the results, same size as in, may be in
+   */
+  public void rotate(Vector3DBatch in, Vector3DBatch out) {
+    toMatrix3().transform(in, out);
+  }
+
+  /**
+   * @return the quaternion formatted as "(w, x, y, z)" with 2 decimals
+   */
+  @Override
+  public String toString() {
+    return String.format("(%.2f, %.2f, %.2f, %.2f)", w, x, y, z);
+  }
+}
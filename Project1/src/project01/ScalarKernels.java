@@ -0,0 +1,42 @@
+package project01;
+
+/**
+ * This is the scalar BatchKernels backend, it delegates to the loops in Vector3DBatch and is used
+ * whenever the SIMD backend is not available.
+ */
+class ScalarKernels implements BatchKernels {
+  static final ScalarKernels INSTANCE = new ScalarKernels();
+
+  private ScalarKernels() {
+  }
+
+  @Override
+  public void dotProduct(Vector3DBatch a, Vector3DBatch b, double[] out) {
+    a.dotProduct(b, out);
+  }
+
+  @Override
+  public void getMagnitude(Vector3DBatch a, double[] out) {
+    a.getMagnitude(out);
+  }
+
+  @Override
+  public void normalize(Vector3DBatch a, Vector3DBatch out) {
+    a.normalize(out);
+  }
+
+  @Override
+  public void crossProduct(Vector3DBatch a, Vector3DBatch b, Vector3DBatch out) {
+    a.crossProduct(b, out);
+  }
+
+  @Override
+  public void angleBetween(Vector3DBatch a, Vector3DBatch b, double[] out) {
+    a.angleBetween(b, out);
+  }
+
+  @Override
+  public String toString() {
+    return "scalar";
+  }
+}
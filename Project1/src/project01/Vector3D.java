@@ -11,11 +11,46 @@ import java.lang.Math;
 /**
  * This is the Vector3D class that has 3 components x, y, z and applies a couple of methods such
  * as getX(), getMagnitude(), multiply() etc.
+ *
+ * The methods come in 2 profiles:
+ * - strict: getMagnitude(), normalize(), angleBetween() return the exact values described on
+ *   each method (square root, division, acos in degrees).
+ * - fast-math: magnitudeSquared(), inverseMagnitude(), distanceSquaredTo() and cosineBetween()
+ *   skip the sqrt and/or acos. Use them when only a comparison or a cosine is needed, e.g.
+ *   a.distanceSquaredTo(p) < r * r instead of comparing distances, or
+ *   a.cosineBetween(b) > 0 instead of a.angleBetween(b) < 90.
  */
 public class Vector3D {
-  private double x;
-  private double y;
-  private double z;
+  /**
+   * the zero vector (0, 0, 0)
+   */
+  public static final Vector3D ZERO = new Vector3D(0, 0, 0);
+  /**
+   * the unit vector along x (1, 0, 0)
+   */
+  public static final Vector3D UNIT_X = new Vector3D(1, 0, 0);
+  /**
+   * the unit vector along y (0, 1, 0)
+   */
+  public static final Vector3D UNIT_Y = new Vector3D(0, 1, 0);
+  /**
+   * the unit vector along z (0, 0, 1)
+   */
+  public static final Vector3D UNIT_Z = new Vector3D(0, 0, 1);
+
+  // direct-mapped cache used by of(), a new value simply replaces the one in its slot
+  private static final int CACHE_SIZE = 1 << 12;
+  private static final Vector3D[] CACHE = new Vector3D[CACHE_SIZE];
+
+  static {
+    for (Vector3D v : new Vector3D[] {UNIT_X, UNIT_Y, UNIT_Z, ZERO}) {
+      CACHE[v.hashCode() & (CACHE_SIZE - 1)] = v;
+    }
+  }
+
+  private final double x;
+  private final double y;
+  private final double z;
 
   /**
    * Vector3D class constructor, takes in x, y, z components
@@ -28,6 +63,30 @@ public class Vector3D {
     this.y = y;
     this.z = z;
   }
+
+  /**
+   * Return a canonical vector for the given components, e.g. of(0, 0, 0) == Vector3D.ZERO.
+   * Recently requested values are kept in a small fixed-size cache, so data with many repeated
+   * vectors (unit axes, grid-snapped points) shares one instance per value instead of one per use.
+   * The cache never grows: when 2 values compete for the same slot the newer one replaces the
+   * older, so two equal vectors from of() are usually, but not always, the same object.
+   * @param x component x of the vector
+   * @param y component y of the vector
+   * @param z component z of the vector
+   * @return a vector equal to new Vector3D(x, y, z)
+   */
+  public static Vector3D of(double x, double y, double z) {
+    int slot = hash(x, y, z) & (CACHE_SIZE - 1);
+    // racy but safe: Vector3D only has final fields, so a shared instance is always complete
+    Vector3D cached = CACHE[slot];
+    if (cached != null && cached.sameComponents(x, y, z)) {
+      return cached;
+    }
+    Vector3D vector = new Vector3D(x, y, z);
+    CACHE[slot] = vector;
+    return vector;
+  }
+
   /**
    * Method getX() get the value of component x of the vector
    * @return double type of the this.x value
@@ -61,27 +120,112 @@ public class Vector3D {
     return String.format("(%.2f, %.2f, %.2f)", getX(), getY(), getZ());
   }
 
+  /**
+   * Two vectors are equal if their components are equal as by Double.equals(): NaN equals NaN,
+   * and 0.0 is different from -0.0
+   * @param o the object to be compared
+   * @return true if o is a Vector3D with the same x, y, z components, false otherwise
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Vector3D)) {
+      return false;
+    }
+    Vector3D other = (Vector3D) o;
+    return sameComponents(other.x, other.y, other.z);
+  }
+
+  /**
+   * @return hash code based on the x, y, z components, consistent with equals()
+   */
+  @Override
+  public int hashCode() {
+    return hash(this.x, this.y, this.z);
+  }
+
+  private boolean sameComponents(double x, double y, double z) {
+    return Double.compare(this.x, x) == 0 && Double.compare(this.y, y) == 0
+            && Double.compare(this.z, z) == 0;
+  }
+
+  private static int hash(double x, double y, double z) {
+    int h = Double.hashCode(x);
+    h = 31 * h + Double.hashCode(y);
+    h = 31 * h + Double.hashCode(z);
+    // spread the high bits, the cache slot only uses the low ones
+    return h ^ (h >>> 16);
+  }
+
   /**
    * @return the magnitude of the vector
    * calculated by adding the square of x, y, z and then take the square root of the result
+   * squares are computed as x * x, which is the correctly rounded square (same as Math.pow(x, 2))
    */
   public double getMagnitude() {
-    return Math.sqrt(Math.pow(getX(), 2)+Math.pow(getY(), 2)+Math.pow(getZ(), 2));
+    return magnitude(this.x, this.y, this.z);
+  }
+
+  /**
+   * fast-math: the squared magnitude, no square root
+   * @return x * x + y * y + z * z
+   */
+  public double magnitudeSquared() {
+    return magnitudeSquared(this.x, this.y, this.z);
+  }
+
+  /**
+   * the magnitude formula, shared with Vector3DBatch so both give identical results
+   */
+  static double magnitude(double x, double y, double z) {
+    return Math.sqrt(magnitudeSquared(x, y, z));
+  }
+
+  static double magnitudeSquared(double x, double y, double z) {
+    return x * x + y * y + z * z;
+  }
+
+  /**
+   * fast-math: 1 / magnitude, so callers can multiply instead of dividing 3 times
+   * @return the inverse of the magnitude of the vector
+   * throw IllegalStateException if magnitude is 0
+   */
+  public double inverseMagnitude() {
+    double magnitude = getMagnitude();
+    if (magnitude == 0) {
+      throw new IllegalStateException("Cannot perform the operation if magnitude is 0.");
+    }
+    return 1.0 / magnitude;
+  }
+
+  /**
+   * fast-math: the squared distance between the points of 2 vectors, no square root
+   * @param vector2, another vector with x,y,z components that will be used for calculation
+   * @return (x - x2)^2 + (y - y2)^2 + (z - z2)^2
+   */
+  public double distanceSquaredTo(Vector3D vector2) {
+    double dx = this.x - vector2.x;
+    double dy = this.y - vector2.y;
+    double dz = this.z - vector2.z;
+    return dx * dx + dy * dy + dz * dz;
   }
 
 
   /**
    * @return a new vector with normalized x, y, z components
-   * calculated by dividing each component by the magnitude
+   * calculated by dividing each component by the magnitude, which is computed only once
    * throw IllegalStateException if magnitude is 0
    */
   public Vector3D normalize() {
-    if (getMagnitude() == 0) {
+    double magnitude = getMagnitude();
+    if (magnitude == 0) {
       throw new IllegalStateException("Cannot perform the operation if magnitude is 0.");
     }
-    double normalizedX = getX()/getMagnitude();
-    double normalizedY = getY()/getMagnitude();
-    double normalizedZ = getZ()/getMagnitude();
+    double normalizedX = this.x / magnitude;
+    double normalizedY = this.y / magnitude;
+    double normalizedZ = this.z / magnitude;
     return new Vector3D(normalizedX, normalizedY, normalizedZ);
   }
 
@@ -139,6 +283,22 @@ public class Vector3D {
     return Math.toDegrees(angleInRadians);
   }
 
+  /**
+   * fast-math: the cosine of the angle between 2 vectors, no acos
+   * @param vector2, another vector with x,y,z components that will be used for calculation
+   * @return the cosine of the angle, clamped to [-1, 1], same value angleBetween() passes to acos
+   * throw error if magnitude of either vector is 0
+   */
+  public double cosineBetween(Vector3D vector2) {
+    double magnitude1 = getMagnitude();
+    double magnitude2 = vector2.getMagnitude();
+    if (magnitude1 == 0 || magnitude2 == 0) {
+      throw new IllegalStateException("Cannot perform the operation.");
+    }
+    double value = dotProduct(vector2) / (magnitude1 * magnitude2);
+    return Math.max(-1.0, Math.min(1.0, value));
+  }
+
   /**
    * Asked ChatGPT to write a Java method that returns the cross product of 2 vectors
    * @param vector2, another vector with x,y,z components that will be used for calculation
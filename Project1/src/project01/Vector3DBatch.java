@@ -0,0 +1,241 @@
+package project01;
+
+import java.util.List;
+
+/**
+ * This is the Vector3DBatch class, which stores a fixed number of vectors as three parallel
+ * columns of x, y and z components (struct-of-arrays) instead of one Vector3D object per vector.
+ * The bulk methods mirror the ones in Vector3D (add, multiply, dotProduct, crossProduct, normalize,
+ * angleBetween) and use the same arithmetic, so each entry matches the scalar result exactly.
+ * Results are written into caller-provided output batches or arrays, so no objects are allocated
+ * inside the loops. An output batch may be the same batch as one of the inputs.
+ */
+public class Vector3DBatch {
+  final double[] x;
+  final double[] y;
+  final double[] z;
+
+  /**
+   * Vector3DBatch class constructor, creates a batch of size zero vectors
+   * @param size number of vectors the batch holds
+   * throw IllegalArgumentException if size is negative
+   */
+  public Vector3DBatch(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Batch size cannot be negative.");
+    }
+    this.x = new double[size];
+    this.y = new double[size];
+    this.z = new double[size];
+  }
+
+  /**
+   * Vector3DBatch class constructor that wraps existing component columns without copying them
+   * @param x column of x components
+   * @param y column of y components
+   * @param z column of z components
+   * throw IllegalArgumentException if the columns have different lengths
+   */
+  public Vector3DBatch(double[] x, double[] y, double[] z) {
+    if (x.length != y.length || x.length != z.length) {
+      throw new IllegalArgumentException("Component columns must have the same length.");
+    }
+    this.x = x;
+    this.y = y;
+    this.z = z;
+  }
+
+  /**
+   * Build a batch by copying the components of the given vectors
+   * @param vectors the vectors to be copied, in order
+   * @return a new batch holding the components of the vectors
+   */
+  public static Vector3DBatch of(List<Vector3D> vectors) {
+    Vector3DBatch batch = new Vector3DBatch(vectors.size());
+    for (int i = 0; i < vectors.size(); i++) {
+      Vector3D v = vectors.get(i);
+      batch.set(i, v.getX(), v.getY(), v.getZ());
+    }
+    return batch;
+  }
+
+  /**
+   * @return the number of vectors in the batch
+   */
+  public int size() {
+    return this.x.length;
+  }
+
+  /**
+   * @param i index of the vector
+   * @return component x of the vector at index i
+   */
+  public double getX(int i) {
+    return this.x[i];
+  }
+
+  /**
+   * @param i index of the vector
+   * @return component y of the vector at index i
+   */
+  public double getY(int i) {
+    return this.y[i];
+  }
+
+  /**
+   * @param i index of the vector
+   * @return component z of the vector at index i
+   */
+  public double getZ(int i) {
+    return this.z[i];
+  }
+
+  /**
+   * Overwrite the vector at index i
+   * @param i index of the vector
+   * @param x component x of the vector
+   * @param y component y of the vector
+   * @param z component z of the vector
+   */
+  public void set(int i, double x, double y, double z) {
+    this.x[i] = x;
+    this.y[i] = y;
+    this.z[i] = z;
+  }
+
+  /**
+   * @param i index of the vector
+   * @return a new Vector3D with the components at index i
+   */
+  public Vector3D get(int i) {
+    return new Vector3D(this.x[i], this.y[i], this.z[i]);
+  }
+
+  /**
+   * Add the vectors of another batch to this batch, entry by entry
+   * @param other batch whose vectors are added, must have the same size
+   * @param out batch that receives the sums, must have the same size
+   */
+  public void add(Vector3DBatch other, Vector3DBatch out) {
+    checkSize(other.size());
+    checkSize(out.size());
+    for (int i = 0; i < x.length; i++) {
+      out.x[i] = x[i] + other.x[i];
+      out.y[i] = y[i] + other.y[i];
+      out.z[i] = z[i] + other.z[i];
+    }
+  }
+
+  /**
+   * Multiply every vector of this batch by a constant
+   * @param number a constant that will be used for multiplication
+   * @param out batch that receives the scaled vectors, must have the same size
+   */
+  public void multiply(double number, Vector3DBatch out) {
+    checkSize(out.size());
+    for (int i = 0; i < x.length; i++) {
+      out.x[i] = x[i] * number;
+      out.y[i] = y[i] * number;
+      out.z[i] = z[i] * number;
+    }
+  }
+
+  /**
+   * Dot product of this batch and another batch, entry by entry
+   * @param other batch used for calculation, must have the same size
+   * @param out array that receives the dot products, must have the same size
+   */
+  public void dotProduct(Vector3DBatch other, double[] out) {
+    checkSize(other.size());
+    checkSize(out.length);
+    for (int i = 0; i < x.length; i++) {
+      out[i] = x[i] * other.x[i] + y[i] * other.y[i] + z[i] * other.z[i];
+    }
+  }
+
+  /**
+   * Magnitude of every vector in the batch
+   * @param out array that receives the magnitudes, must have the same size
+   */
+  public void getMagnitude(double[] out) {
+    checkSize(out.length);
+    for (int i = 0; i < x.length; i++) {
+      out[i] = Vector3D.magnitude(x[i], y[i], z[i]);
+    }
+  }
+
+  /**
+   * Cross product of this batch and another batch, entry by entry
+   * @param other batch used for calculation, must have the same size
+   * @param out batch that receives the cross products, must have the same size
+   */
+  public void crossProduct(Vector3DBatch other, Vector3DBatch out) {
+    checkSize(other.size());
+    checkSize(out.size());
+    for (int i = 0; i < x.length; i++) {
+      // read everything first so out may alias this or other
+      double x1 = x[i];
+      double y1 = y[i];
+      double z1 = z[i];
+      double x2 = other.x[i];
+      double y2 = other.y[i];
+      double z2 = other.z[i];
+      out.x[i] = y1 * z2 - z1 * y2;
+      out.y[i] = z1 * x2 - x1 * z2;
+      out.z[i] = x1 * y2 - y1 * x2;
+    }
+  }
+
+  /**
+   * Normalize every vector in the batch
+   * @param out batch that receives the normalized vectors, must have the same size
+   * throw IllegalStateException if the magnitude of any vector is 0, entries before that vector
+   * have already been written to out
+   */
+  public void normalize(Vector3DBatch out) {
+    checkSize(out.size());
+    for (int i = 0; i < x.length; i++) {
+      double magnitude = Vector3D.magnitude(x[i], y[i], z[i]);
+      if (magnitude == 0) {
+        throw new IllegalStateException("Cannot perform the operation if magnitude is 0 (index "
+                + i + ").");
+      }
+      out.x[i] = x[i] / magnitude;
+      out.y[i] = y[i] / magnitude;
+      out.z[i] = z[i] / magnitude;
+    }
+  }
+
+  /**
+   * Angle between the vectors of this batch and another batch, entry by entry
+   * @param other batch used for calculation, must have the same size
+   * @param out array that receives the angles in degrees, must have the same size
+   * throw IllegalStateException if the magnitude of either vector of a pair is 0, entries before
+   * that pair have already been written to out
+   */
+  public void angleBetween(Vector3DBatch other, double[] out) {
+    checkSize(other.size());
+    checkSize(out.length);
+    for (int i = 0; i < x.length; i++) {
+      double dotProduct = x[i] * other.x[i] + y[i] * other.y[i] + z[i] * other.z[i];
+      double magnitude1 = Vector3D.magnitude(x[i], y[i], z[i]);
+      double magnitude2 = Vector3D.magnitude(other.x[i], other.y[i], other.z[i]);
+      if (magnitude1 == 0 || magnitude2 == 0) {
+        throw new IllegalStateException("Cannot perform the operation (index " + i + ").");
+      }
+      double value = dotProduct / (magnitude1 * magnitude2);
+      value = Math.max(-1.0, Math.min(1.0, value));
+      out[i] = Math.toDegrees(Math.acos(value));
+    }
+  }
+
+  /**
+   * throw IllegalArgumentException if the given size differs from the size of this batch
+   */
+  void checkSize(int size) {
+    if (size != x.length) {
+      throw new IllegalArgumentException("Batch sizes do not match: " + x.length + " and "
+              + size + ".");
+    }
+  }
+}
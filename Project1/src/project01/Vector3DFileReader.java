@@ -0,0 +1,163 @@
+package project01;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This is the Vector3DFileReader class, which opens a binary vector file (format described in
+ * MappedVectors) by memory-mapping it read-only. Opening only reads the 16-byte header, the
+ * components are read straight from the mapped file on each getX(i)/getY(i)/getZ(i) call, so a
+ * multi-GB file opens instantly and no Vector3D is created unless get(i) or the iterator is used.
+ * The mapping stays valid until the reader is garbage collected, even after close().
+ */
+public class Vector3DFileReader implements Iterable<Vector3D>, AutoCloseable {
+  private final FileChannel channel;
+  private final MappedVectors vectors;
+
+  /**
+   * This is the callback used by forEach() to visit vectors without creating Vector3D objects
+   */
+  public interface Visitor {
+    /**
+     * @param index index of the vector in the file
+     * @param x component x of the vector
+     * @param y component y of the vector
+     * @param z component z of the vector
+     */
+    void accept(long index, double x, double y, double z);
+  }
+
+  /**
+   * Vector3DFileReader constructor, opens and maps the given file
+   * @param path path of the vector file
+   * @throws IOException if the file cannot be read
+   * throw IllegalArgumentException if the file is not a vector file or is truncated
+   */
+  public Vector3DFileReader(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(MappedVectors.HEADER_BYTES)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // keep reading until the header is complete or the file ends
+      }
+      if (header.hasRemaining() || header.getInt(0) != MappedVectors.MAGIC) {
+        throw new IllegalArgumentException("Not a vector file: " + path);
+      }
+      if (header.getInt(4) != MappedVectors.VERSION) {
+        throw new IllegalArgumentException("Unsupported vector file version "
+                + header.getInt(4) + ": " + path);
+      }
+      long size = header.getLong(8);
+      // divide rather than multiply, a corrupt count would overflow size * VECTOR_BYTES
+      if (size < 0 || size > (channel.size() - MappedVectors.HEADER_BYTES)
+              / MappedVectors.VECTOR_BYTES) {
+        throw new IllegalArgumentException("Vector file is truncated: " + path);
+      }
+      this.vectors = new MappedVectors(channel, FileChannel.MapMode.READ_ONLY, size);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of vectors in the file
+   */
+  public long size() {
+    return vectors.size();
+  }
+
+  /**
+   * @param i index of the vector
+   * @return component x of the vector at index i
+   */
+  public double getX(long i) {
+    return vectors.get(i, 0);
+  }
+
+  /**
+   * @param i index of the vector
+   * @return component y of the vector at index i
+   */
+  public double getY(long i) {
+    return vectors.get(i, 1);
+  }
+
+  /**
+   * @param i index of the vector
+   * @return component z of the vector at index i
+   */
+  public double getZ(long i) {
+    return vectors.get(i, 2);
+  }
+
+  /**
+   * @param i index of the vector
+   * @return a new Vector3D with the components at index i
+   */
+  public Vector3D get(long i) {
+    return new Vector3D(getX(i), getY(i), getZ(i));
+  }
+
+  /**
+   * Copy a range of vectors into a batch, e.g. to run the bulk methods on one chunk at a time
+   * @param from index of the first vector to copy
+   * @param out batch that receives out.size() vectors starting at from
+   */
+  public void read(long from, Vector3DBatch out) {
+    for (int i = 0; i < out.size(); i++) {
+      out.set(i, getX(from + i), getY(from + i), getZ(from + i));
+    }
+  }
+
+  /**
+   * Visit the vectors in [from, to) in order, without creating any object per vector
+   * @param from index of the first vector
+   * @param to index after the last vector
+   * @param visitor callback that receives each vector
+   */
+  public void forEach(long from, long to, Visitor visitor) {
+    for (long i = from; i < to; i++) {
+      visitor.accept(i, getX(i), getY(i), getZ(i));
+    }
+  }
+
+  /**
+   * @return an iterator that creates each Vector3D only when it is reached
+   */
+  @Override
+  public Iterator<Vector3D> iterator() {
+    return new Iterator<>() {
+      private long next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size();
+      }
+
+      @Override
+      public Vector3D next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * close the file channel
+   * @throws IOException if the channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
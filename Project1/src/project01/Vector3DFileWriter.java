@@ -0,0 +1,113 @@
+package project01;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This is the Vector3DFileWriter class, which creates a binary vector file (format described in
+ * MappedVectors) for a known number of vectors and memory-maps it read-write. Vectors can be
+ * written in any order with set(i, ...); entries that are never set stay (0, 0, 0).
+ * close() flushes the mapped records to disk.
+ */
+public class Vector3DFileWriter implements AutoCloseable {
+  private final FileChannel channel;
+  private final MappedVectors vectors;
+
+  /**
+   * Vector3DFileWriter constructor, creates (or replaces) the file and writes its header
+   * @param path path of the vector file
+   * @param size the number of vectors the file holds
+   * @throws IOException if the file cannot be created
+   * throw IllegalArgumentException if size is negative
+   */
+  public Vector3DFileWriter(Path path, long size) throws IOException {
+    if (size < 0) {
+      throw new IllegalArgumentException("Number of vectors cannot be negative.");
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(MappedVectors.HEADER_BYTES)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .putInt(MappedVectors.MAGIC)
+              .putInt(MappedVectors.VERSION)
+              .putLong(size)
+              .flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      this.vectors = new MappedVectors(channel, FileChannel.MapMode.READ_WRITE, size);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Write a whole batch to a new file
+   * @param path path of the vector file
+   * @param batch the vectors to be written
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path, Vector3DBatch batch) throws IOException {
+    try (Vector3DFileWriter writer = new Vector3DFileWriter(path, batch.size())) {
+      writer.write(0, batch);
+    }
+  }
+
+  /**
+   * @return the number of vectors in the file
+   */
+  public long size() {
+    return vectors.size();
+  }
+
+  /**
+   * Overwrite the vector at index i
+   * @param i index of the vector
+   * @param x component x of the vector
+   * @param y component y of the vector
+   * @param z component z of the vector
+   */
+  public void set(long i, double x, double y, double z) {
+    vectors.set(i, x, y, z);
+  }
+
+  /**
+   * Overwrite the vector at index i
+   * @param i index of the vector
+   * @param vector the vector to be written
+   */
+  public void set(long i, Vector3D vector) {
+    vectors.set(i, vector.getX(), vector.getY(), vector.getZ());
+  }
+
+  /**
+   * Write every vector of a batch, starting at index from
+   * @param from index of the first vector to overwrite
+   * @param batch the vectors to be written
+   */
+  public void write(long from, Vector3DBatch batch) {
+    for (int i = 0; i < batch.size(); i++) {
+      vectors.set(from + i, batch.getX(i), batch.getY(i), batch.getZ(i));
+    }
+  }
+
+  /**
+   * flush the mapped records to disk and close the file channel
+   * @throws IOException if the channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      vectors.force();
+    } finally {
+      channel.close();
+    }
+  }
+}
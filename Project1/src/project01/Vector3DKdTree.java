@@ -0,0 +1,340 @@
+package project01;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * This is the Vector3DKdTree class, a spatial index for nearest-neighbour and radius queries over
+ * a set of vectors (treated as points). The tree is implicit: the points are reordered so that
+ * for every range [lo, hi) the splitting point sits at mid = (lo + hi) / 2, smaller coordinates on
+ * its left and larger ones on its right. Nodes are therefore plain array slots (coordinates in 3
+ * double[] columns, split axis in a byte[]), not objects.
+ * Queries return the index of each point in the collection the tree was built from. Queries do
+ * not modify the tree, so several threads may query the same tree as long as none rebuilds it.
+ */
+public class Vector3DKdTree {
+  private double[] xs = new double[0];
+  private double[] ys = new double[0];
+  private double[] zs = new double[0];
+  private int[] ids = new int[0];
+  private byte[] axes = new byte[0];
+  private int size;
+
+  /**
+   * Vector3DKdTree constructor, builds the tree from a list of vectors
+   * @param vectors the points to be indexed
+   */
+  public Vector3DKdTree(List<Vector3D> vectors) {
+    rebuild(vectors);
+  }
+
+  /**
+   * Vector3DKdTree constructor, builds the tree from a batch of vectors
+   * @param batch the points to be indexed
+   */
+  public Vector3DKdTree(Vector3DBatch batch) {
+    rebuild(batch);
+  }
+
+  /**
+   * Replace every point of the tree and rebuild it, reusing the arrays when they are big enough
+   * @param vectors the new points to be indexed
+   */
+  public void rebuild(List<Vector3D> vectors) {
+    ensureCapacity(vectors.size());
+    for (int i = 0; i < size; i++) {
+      Vector3D v = vectors.get(i);
+      setPoint(i, v.getX(), v.getY(), v.getZ());
+    }
+    build(0, size);
+  }
+
+  /**
+   * Replace every point of the tree and rebuild it, reusing the arrays when they are big enough
+   * @param batch the new points to be indexed
+   */
+  public void rebuild(Vector3DBatch batch) {
+    ensureCapacity(batch.size());
+    for (int i = 0; i < size; i++) {
+      setPoint(i, batch.getX(i), batch.getY(i), batch.getZ(i));
+    }
+    build(0, size);
+  }
+
+  /**
+   * @return the number of points in the tree
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @param point the query point
+   * @return the index of the closest point, -1 if the tree is empty
+   */
+  public int nearest(Vector3D point) {
+    int[] index = new int[1];
+    double[] distance = new double[1];
+    return nearest(point.getX(), point.getY(), point.getZ(), 1, index, distance) == 0
+            ? -1 : index[0];
+  }
+
+  /**
+   * Find the k closest points, closest first. Nothing is allocated, the output arrays are used as
+   * the working heap.
+   * @param x component x of the query point
+   * @param y component y of the query point
+   * @param z component z of the query point
+   * @param k the number of neighbours wanted
+   * @param outIndex receives the indices of the neighbours, length at least k
+   * @param outDistanceSquared receives the squared distances of the neighbours, length at least k
+   * @return the number of neighbours found, min(k, size())
+   * throw IllegalArgumentException if k is negative or an output array is shorter than k
+   */
+  public int nearest(double x, double y, double z, int k, int[] outIndex,
+                     double[] outDistanceSquared) {
+    if (k < 0 || outIndex.length < k || outDistanceSquared.length < k) {
+      throw new IllegalArgumentException("k must be non-negative and fit in the output arrays.");
+    }
+    if (k == 0) {
+      return 0;
+    }
+    int count = nearest(0, size, x, y, z, k, outIndex, outDistanceSquared, 0);
+    // heap sort: turn the max-heap into ascending order
+    for (int end = count - 1; end > 0; end--) {
+      swap(outIndex, outDistanceSquared, 0, end);
+      siftDown(outIndex, outDistanceSquared, 0, end);
+    }
+    for (int i = 0; i < count; i++) {
+      outIndex[i] = ids[outIndex[i]];
+    }
+    return count;
+  }
+
+  /**
+   * Visit every point within a radius (inclusive) of the query point, in no particular order
+   * @param x component x of the query point
+   * @param y component y of the query point
+   * @param z component z of the query point
+   * @param radius the search radius
+   * @param consumer receives the index of each point found
+   * @return the number of points found
+   */
+  public int withinRadius(double x, double y, double z, double radius, IntConsumer consumer) {
+    return withinRadius(0, size, x, y, z, radius * radius, consumer);
+  }
+
+  /**
+   * @param point the query point
+   * @param radius the search radius
+   * @param consumer receives the index of each point within the radius (inclusive)
+   * @return the number of points found
+   */
+  public int withinRadius(Vector3D point, double radius, IntConsumer consumer) {
+    return withinRadius(point.getX(), point.getY(), point.getZ(), radius, consumer);
+  }
+
+  private int nearest(int lo, int hi, double x, double y, double z, int k, int[] heapIndex,
+                      double[] heapDistance, int count) {
+    if (lo >= hi) {
+      return count;
+    }
+    int mid = (lo + hi) >>> 1;
+    double dx = xs[mid] - x;
+    double dy = ys[mid] - y;
+    double dz = zs[mid] - z;
+    double distance = dx * dx + dy * dy + dz * dz;
+    if (count < k) {
+      // heap not full: append and sift up
+      int child = count++;
+      heapIndex[child] = mid;
+      heapDistance[child] = distance;
+      while (child > 0 && heapDistance[(child - 1) >>> 1] < heapDistance[child]) {
+        swap(heapIndex, heapDistance, child, (child - 1) >>> 1);
+        child = (child - 1) >>> 1;
+      }
+    } else if (distance < heapDistance[0]) {
+      heapIndex[0] = mid;
+      heapDistance[0] = distance;
+      siftDown(heapIndex, heapDistance, 0, count);
+    }
+
+    double diff = axes[mid] == 0 ? x - xs[mid] : axes[mid] == 1 ? y - ys[mid] : z - zs[mid];
+    boolean leftFirst = diff < 0;
+    count = leftFirst
+            ? nearest(lo, mid, x, y, z, k, heapIndex, heapDistance, count)
+            : nearest(mid + 1, hi, x, y, z, k, heapIndex, heapDistance, count);
+    if (count < k || diff * diff < heapDistance[0]) {
+      count = leftFirst
+              ? nearest(mid + 1, hi, x, y, z, k, heapIndex, heapDistance, count)
+              : nearest(lo, mid, x, y, z, k, heapIndex, heapDistance, count);
+    }
+    return count;
+  }
+
+  private int withinRadius(int lo, int hi, double x, double y, double z, double radiusSquared,
+                           IntConsumer consumer) {
+    if (lo >= hi) {
+      return 0;
+    }
+    int mid = (lo + hi) >>> 1;
+    int found = 0;
+    double dx = xs[mid] - x;
+    double dy = ys[mid] - y;
+    double dz = zs[mid] - z;
+    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+      consumer.accept(ids[mid]);
+      found++;
+    }
+    double diff = axes[mid] == 0 ? x - xs[mid] : axes[mid] == 1 ? y - ys[mid] : z - zs[mid];
+    if (diff <= 0 || diff * diff <= radiusSquared) {
+      found += withinRadius(lo, mid, x, y, z, radiusSquared, consumer);
+    }
+    if (diff >= 0 || diff * diff <= radiusSquared) {
+      found += withinRadius(mid + 1, hi, x, y, z, radiusSquared, consumer);
+    }
+    return found;
+  }
+
+  /**
+   * split [lo, hi) on the axis with the largest extent, median at mid
+   */
+  private void build(int lo, int hi) {
+    if (hi - lo <= 1) {
+      if (hi - lo == 1) {
+        axes[lo] = 0;
+      }
+      return;
+    }
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double minZ = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    double maxZ = Double.NEGATIVE_INFINITY;
+    for (int i = lo; i < hi; i++) {
+      minX = Math.min(minX, xs[i]);
+      maxX = Math.max(maxX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxY = Math.max(maxY, ys[i]);
+      minZ = Math.min(minZ, zs[i]);
+      maxZ = Math.max(maxZ, zs[i]);
+    }
+    double extentX = maxX - minX;
+    double extentY = maxY - minY;
+    double extentZ = maxZ - minZ;
+    int axis = extentX >= extentY && extentX >= extentZ ? 0 : extentY >= extentZ ? 1 : 2;
+    int mid = (lo + hi) >>> 1;
+    select(lo, hi - 1, mid, axis);
+    axes[mid] = (byte) axis;
+    build(lo, mid);
+    build(mid + 1, hi);
+  }
+
+  /**
+   * quickselect: reorder [left, right] so the point at k has its final sorted position on axis
+   */
+  private void select(int left, int right, int k, int axis) {
+    while (right > left) {
+      // median of three pivot keeps sorted input from degrading
+      int middle = (left + right) >>> 1;
+      if (coordinate(middle, axis) < coordinate(left, axis)) {
+        swapPoints(middle, left);
+      }
+      if (coordinate(right, axis) < coordinate(left, axis)) {
+        swapPoints(right, left);
+      }
+      if (coordinate(right, axis) < coordinate(middle, axis)) {
+        swapPoints(right, middle);
+      }
+      double pivot = coordinate(middle, axis);
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (coordinate(i, axis) < pivot) {
+          i++;
+        }
+        while (coordinate(j, axis) > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swapPoints(i, j);
+          i++;
+          j--;
+        }
+      }
+      if (k <= j) {
+        right = j;
+      } else if (k >= i) {
+        left = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private double coordinate(int i, int axis) {
+    return axis == 0 ? xs[i] : axis == 1 ? ys[i] : zs[i];
+  }
+
+  private void swapPoints(int i, int j) {
+    double t = xs[i];
+    xs[i] = xs[j];
+    xs[j] = t;
+    t = ys[i];
+    ys[i] = ys[j];
+    ys[j] = t;
+    t = zs[i];
+    zs[i] = zs[j];
+    zs[j] = t;
+    int id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+  }
+
+  private void setPoint(int i, double x, double y, double z) {
+    xs[i] = x;
+    ys[i] = y;
+    zs[i] = z;
+    ids[i] = i;
+  }
+
+  private void ensureCapacity(int n) {
+    if (xs.length < n) {
+      xs = new double[n];
+      ys = new double[n];
+      zs = new double[n];
+      ids = new int[n];
+      axes = new byte[n];
+    }
+    size = n;
+  }
+
+  private static void siftDown(int[] heapIndex, double[] heapDistance, int parent, int count) {
+    while (true) {
+      int largest = parent;
+      int left = 2 * parent + 1;
+      int right = left + 1;
+      if (left < count && heapDistance[left] > heapDistance[largest]) {
+        largest = left;
+      }
+      if (right < count && heapDistance[right] > heapDistance[largest]) {
+        largest = right;
+      }
+      if (largest == parent) {
+        return;
+      }
+      swap(heapIndex, heapDistance, parent, largest);
+      parent = largest;
+    }
+  }
+
+  private static void swap(int[] heapIndex, double[] heapDistance, int i, int j) {
+    int index = heapIndex[i];
+    heapIndex[i] = heapIndex[j];
+    heapIndex[j] = index;
+    double distance = heapDistance[i];
+    heapDistance[i] = heapDistance[j];
+    heapDistance[j] = distance;
+  }
+}
@@ -0,0 +1,271 @@
+package project01;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is the Vector3DReductions class, which computes the sum, centroid, bounding box and mean
+ * angle to a reference vector over a large list of vectors on a fork-join pool.
+ * The list is split in halves until a range has at most `threshold` vectors, so the shape of the
+ * split tree only depends on the list size and the threshold, never on the number of threads or
+ * on scheduling. Sums use compensated (Kahan-Babuska) summation inside each range and when
+ * merging two ranges, so the result is the same on every run and close to the exact sum.
+ * Lists with at most `threshold` vectors are reduced sequentially on the calling thread.
+ * The list should support fast random access (e.g. ArrayList).
+ */
+public class Vector3DReductions {
+  /**
+   * default number of vectors below which a range is no longer split
+   */
+  public static final int DEFAULT_THRESHOLD = 1 << 15;
+
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  /**
+   * Vector3DReductions constructor that uses the common fork-join pool and DEFAULT_THRESHOLD
+   */
+  public Vector3DReductions() {
+    this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Vector3DReductions constructor
+   * @param pool the fork-join pool that runs the reductions
+   * @param threshold the maximum number of vectors reduced sequentially in one task
+   * throw IllegalArgumentException if threshold is smaller than 1
+   */
+  public Vector3DReductions(ForkJoinPool pool, int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Split threshold must be at least 1.");
+    }
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  /**
+   * @param vectors the vectors to be added
+   * @return the sum of all vectors, the zero vector if the list is empty
+   */
+  public Vector3D sum(List<Vector3D> vectors) {
+    Partial partial = reduce(vectors, Operation.SUM, null);
+    return new Vector3D(partial.x.value(), partial.y.value(), partial.z.value());
+  }
+
+  /**
+   * @param vectors the vectors whose centroid is computed
+   * @return the mean of all vectors
+   * throw IllegalArgumentException if the list is empty
+   */
+  public Vector3D centroid(List<Vector3D> vectors) {
+    checkNotEmpty(vectors);
+    Partial partial = reduce(vectors, Operation.SUM, null);
+    int n = vectors.size();
+    return new Vector3D(partial.x.value() / n, partial.y.value() / n, partial.z.value() / n);
+  }
+
+  /**
+   * @param vectors the vectors to be enclosed
+   * @return the smallest axis-aligned box containing all vectors
+   * throw IllegalArgumentException if the list is empty
+   */
+  public BoundingBox boundingBox(List<Vector3D> vectors) {
+    checkNotEmpty(vectors);
+    Partial partial = reduce(vectors, Operation.BOUNDS, null);
+    return new BoundingBox(new Vector3D(partial.minX, partial.minY, partial.minZ),
+            new Vector3D(partial.maxX, partial.maxY, partial.maxZ));
+  }
+
+  /**
+   * @param vectors the vectors whose angles are averaged
+   * @param reference the vector every angle is measured to
+   * @return the mean of vector.angleBetween(reference) in degrees
+   * throw IllegalArgumentException if the list is empty
+   * throw IllegalStateException if the magnitude of the reference or any vector is 0
+   */
+  public double meanAngle(List<Vector3D> vectors, Vector3D reference) {
+    checkNotEmpty(vectors);
+    if (reference.magnitudeSquared() == 0) {
+      throw new IllegalStateException("Cannot perform the operation.");
+    }
+    Partial partial = reduce(vectors, Operation.ANGLE, reference);
+    return partial.x.value() / vectors.size();
+  }
+
+  private Partial reduce(List<Vector3D> vectors, Operation operation, Vector3D reference) {
+    ReductionTask task = new ReductionTask(vectors, 0, vectors.size(), operation, reference,
+            threshold);
+    if (vectors.size() <= threshold) {
+      return task.compute();
+    }
+    return pool.invoke(task);
+  }
+
+  private static void checkNotEmpty(List<Vector3D> vectors) {
+    if (vectors.isEmpty()) {
+      throw new IllegalArgumentException("Cannot reduce an empty list of vectors.");
+    }
+  }
+
+  /**
+   * This is the BoundingBox class, an axis-aligned box given by its min and max corners
+   */
+  public static final class BoundingBox {
+    private final Vector3D min;
+    private final Vector3D max;
+
+    private BoundingBox(Vector3D min, Vector3D max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    /**
+     * @return the corner with the smallest x, y, z components
+     */
+    public Vector3D getMin() {
+      return this.min;
+    }
+
+    /**
+     * @return the corner with the largest x, y, z components
+     */
+    public Vector3D getMax() {
+      return this.max;
+    }
+
+    @Override
+    public String toString() {
+      return "[" + min + ", " + max + "]";
+    }
+  }
+
+  private enum Operation {
+    SUM, BOUNDS, ANGLE
+  }
+
+  /**
+   * This is the fork-join task, it splits [from, to) in halves until the range is small enough
+   * and always merges the left result with the right one, in that order
+   */
+  private static final class ReductionTask extends RecursiveTask<Partial> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Vector3D> vectors;
+    private final int from;
+    private final int to;
+    private final Operation operation;
+    private final Vector3D reference;
+    private final int threshold;
+
+    private ReductionTask(List<Vector3D> vectors, int from, int to, Operation operation,
+                          Vector3D reference, int threshold) {
+      this.vectors = vectors;
+      this.from = from;
+      this.to = to;
+      this.operation = operation;
+      this.reference = reference;
+      this.threshold = threshold;
+    }
+
+    @Override
+    protected Partial compute() {
+      if (to - from <= threshold) {
+        return leaf();
+      }
+      int mid = (from + to) >>> 1;
+      ReductionTask left = new ReductionTask(vectors, from, mid, operation, reference, threshold);
+      ReductionTask right = new ReductionTask(vectors, mid, to, operation, reference, threshold);
+      left.fork();
+      Partial rightResult = right.compute();
+      return left.join().merge(rightResult);
+    }
+
+    private Partial leaf() {
+      Partial partial = new Partial();
+      for (int i = from; i < to; i++) {
+        Vector3D v = vectors.get(i);
+        switch (operation) {
+          case SUM:
+            partial.x.add(v.getX());
+            partial.y.add(v.getY());
+            partial.z.add(v.getZ());
+            break;
+          case BOUNDS:
+            partial.include(v);
+            break;
+          default:
+            partial.x.add(v.angleBetween(reference));
+            break;
+        }
+      }
+      return partial;
+    }
+  }
+
+  /**
+   * This is the partial result of one range: 3 compensated sums (the angle reduction only uses
+   * x) and the min/max corners
+   */
+  private static final class Partial {
+    private final CompensatedSum x = new CompensatedSum();
+    private final CompensatedSum y = new CompensatedSum();
+    private final CompensatedSum z = new CompensatedSum();
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double minZ = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+    private double maxZ = Double.NEGATIVE_INFINITY;
+
+    private void include(Vector3D v) {
+      minX = Math.min(minX, v.getX());
+      minY = Math.min(minY, v.getY());
+      minZ = Math.min(minZ, v.getZ());
+      maxX = Math.max(maxX, v.getX());
+      maxY = Math.max(maxY, v.getY());
+      maxZ = Math.max(maxZ, v.getZ());
+    }
+
+    private Partial merge(Partial right) {
+      x.add(right.x);
+      y.add(right.y);
+      z.add(right.z);
+      minX = Math.min(minX, right.minX);
+      minY = Math.min(minY, right.minY);
+      minZ = Math.min(minZ, right.minZ);
+      maxX = Math.max(maxX, right.maxX);
+      maxY = Math.max(maxY, right.maxY);
+      maxZ = Math.max(maxZ, right.maxZ);
+      return this;
+    }
+  }
+
+  /**
+   * This is a Kahan-Babuska (Neumaier) running sum: `sum` holds the rounded total and
+   * `compensation` the low-order bits lost by each addition
+   */
+  private static final class CompensatedSum {
+    private double sum;
+    private double compensation;
+
+    private void add(double value) {
+      double t = sum + value;
+      if (Math.abs(sum) >= Math.abs(value)) {
+        compensation += (sum - t) + value;
+      } else {
+        compensation += (value - t) + sum;
+      }
+      sum = t;
+    }
+
+    private void add(CompensatedSum other) {
+      add(other.sum);
+      compensation += other.compensation;
+    }
+
+    private double value() {
+      return sum + compensation;
+    }
+  }
+}
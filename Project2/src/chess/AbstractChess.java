@@ -52,6 +52,16 @@ public abstract class AbstractChess implements ChessPiece {
     return this.color;
   }
 
+  /**
+   * move the piece without any check, used by PieceBoard to play and take back moves
+   * @param row the new row index
+   * @param col the new col index
+   */
+  void setPosition(int row, int col) {
+    this.currentRow = row;
+    this.currentCol = col;
+  }
+
   /**
    * determine whether the chess piece is in boundary of the chess board
    * @param row the row where the piece might be moved to.
@@ -65,6 +75,24 @@ public abstract class AbstractChess implements ChessPiece {
     return !isSame && (row >= 0 && row <= 7 && col >= 0 && col <= 7);
   }
 
+  /**
+   * shared check of the occupancy-aware canMove(row, col, board) of the sliding pieces
+   * @param row the row where the piece might be moved to.
+   * @param col the column where the piece might be moved to.
+   * @param board the board whose pieces may block the way
+   * @param attacks the blocker-aware attack set of this piece, from SlidingAttacks
+   * @return true if the destination is in boundary, reachable without jumping over a piece, and
+   * either empty or holding a piece of the other color
+   */
+  protected boolean canReach(int row, int col, Board board, long attacks) {
+    if (!inBoundary(row, col)
+            || (attacks & Bitboards.bit(Bitboards.square(row, col))) == 0) {
+      return false;
+    }
+    Color target = board.colorAt(row, col);
+    return target == null || target != this.color;
+  }
+
   /**
    * determine whether the current chess piece can kill another chess piece
    * @param piece the piece that might be killed.
@@ -0,0 +1,263 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * This is the AttackMap class, which answers "which pieces attack this square" for every square
+ * of a position at once, with the real chess rules (sliding pieces are blocked, pawns attack
+ * diagonally forward). It replaces asking canKill for every pair of pieces.
+ * The map is built in one pass over the pieces: the attack set of each piece is computed once
+ * and each attacked square records the attacker, so attackers(square) is an array read. It also
+ * reports checks, pinned pieces and hanging pieces (attacked and not defended).
+ * Moves applied through makeMove and unmakeMove update the map incrementally: only the pieces on
+ * the squares the move touches and the sliding pieces whose rays reach those squares are
+ * recomputed. The board must not be changed other than through the map while the map is used.
+ */
+public class AttackMap {
+  private final Board board;
+  // attack set of the piece on each square, 0 for an empty square
+  private final long[] attacksFrom = new long[64];
+  // squares of the pieces (both colors) attacking each square
+  private final long[] attackersTo = new long[64];
+
+  /**
+   * AttackMap constructor, builds the map of the current position
+   * @param board the position, changed by makeMove and unmakeMove
+   */
+  public AttackMap(Board board) {
+    this.board = board;
+    rebuild();
+  }
+
+  /**
+   * @return the board of the map
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * Rebuild the whole map, needed only if the board was changed without going through the map
+   */
+  public void rebuild() {
+    Arrays.fill(attackersTo, 0);
+    long occupied = board.occupancy();
+    for (int sq = 0; sq < 64; sq++) {
+      int code = board.codeAt(sq);
+      attacksFrom[sq] = code == Board.EMPTY ? 0 : attacksOf(code, sq, occupied);
+      for (long targets = attacksFrom[sq]; targets != 0; targets &= targets - 1) {
+        attackersTo[Long.numberOfTrailingZeros(targets)] |= Bitboards.bit(sq);
+      }
+    }
+  }
+
+  /**
+   * Apply a move of the side to move to the board and update the map
+   * @param move the packed move, from MoveGenerator for this position
+   */
+  public void makeMove(int move) {
+    update(move, board.side(), true);
+  }
+
+  /**
+   * Take back the last move on the board and update the map
+   * @param move the same packed move that was given to makeMove
+   */
+  public void unmakeMove(int move) {
+    update(move, 1 - board.side(), false);
+  }
+
+  /**
+   * @param square square index, row * 8 + col
+   * @return bitboard of the squares attacked by the piece on the square, 0 if empty
+   */
+  public long attacksFrom(int square) {
+    return attacksFrom[square];
+  }
+
+  /**
+   * @param square square index, row * 8 + col
+   * @return bitboard of the pieces of both colors attacking the square
+   */
+  public long attackers(int square) {
+    return attackersTo[square];
+  }
+
+  /**
+   * @param square square index, row * 8 + col
+   * @param by color of the attacking pieces
+   * @return bitboard of the pieces of that color attacking the square
+   */
+  public long attackers(int square, Color by) {
+    return attackersTo[square] & board.occupancy(by);
+  }
+
+  /**
+   * @param square square index, row * 8 + col
+   * @return bitboard of the pieces defending the piece on the square (attacking it from its own
+   * side), 0 if the square is empty
+   */
+  public long defenders(int square) {
+    int code = board.codeAt(square);
+    return code == Board.EMPTY ? 0 : attackersTo[square] & board.colorOccupancy(code / 6);
+  }
+
+  /**
+   * @param by a color
+   * @return bitboard of every square attacked by that color
+   */
+  public long attackedSquares(Color by) {
+    long attacked = 0;
+    for (long pieces = board.occupancy(by); pieces != 0; pieces &= pieces - 1) {
+      attacked |= attacksFrom[Long.numberOfTrailingZeros(pieces)];
+    }
+    return attacked;
+  }
+
+  /**
+   * @param color color of the king
+   * @return bitboard of the enemy pieces giving check to the king of that color, 0 if the color
+   * has no king
+   */
+  public long checkers(Color color) {
+    long king = board.bitboard(color.ordinal() * 6 + PieceType.KING.ordinal());
+    return king == 0 ? 0 : attackers(Long.numberOfTrailingZeros(king), opposite(color));
+  }
+
+  /**
+   * @param color color of the king
+   * @return true if the king of that color is attacked
+   */
+  public boolean inCheck(Color color) {
+    return checkers(color) != 0;
+  }
+
+  /**
+   * @param color a color
+   * @return bitboard of the pieces of that color that stand alone between their king and an
+   * enemy rook, bishop or queen, so moving them off the line would expose the king
+   */
+  public long pinned(Color color) {
+    int us = color.ordinal();
+    long king = board.bitboard(us * 6 + PieceType.KING.ordinal());
+    if (king == 0) {
+      return 0;
+    }
+    int kingSquare = Long.numberOfTrailingZeros(king);
+    int them = (1 - us) * 6;
+    long own = board.colorOccupancy(us);
+    long occupied = board.occupancy();
+    long queens = board.bitboard(them + PieceType.QUEEN.ordinal());
+    long straight = board.bitboard(them + PieceType.ROOK.ordinal()) | queens;
+    long diagonal = board.bitboard(them + PieceType.BISHOP.ordinal()) | queens;
+    long pinned = 0;
+
+    // x-ray from the king through its own first blockers: enemy sliders seen then are pinners
+    long rookHits = SlidingAttacks.rookAttacks(kingSquare, occupied);
+    long rookXray = rookHits
+            ^ SlidingAttacks.rookAttacks(kingSquare, occupied ^ (rookHits & own));
+    for (long pinners = rookXray & straight; pinners != 0; pinners &= pinners - 1) {
+      int pinner = Long.numberOfTrailingZeros(pinners);
+      pinned |= SlidingAttacks.rookAttacks(kingSquare, Bitboards.bit(pinner))
+              & SlidingAttacks.rookAttacks(pinner, king) & own;
+    }
+    long bishopHits = SlidingAttacks.bishopAttacks(kingSquare, occupied);
+    long bishopXray = bishopHits
+            ^ SlidingAttacks.bishopAttacks(kingSquare, occupied ^ (bishopHits & own));
+    for (long pinners = bishopXray & diagonal; pinners != 0; pinners &= pinners - 1) {
+      int pinner = Long.numberOfTrailingZeros(pinners);
+      pinned |= SlidingAttacks.bishopAttacks(kingSquare, Bitboards.bit(pinner))
+              & SlidingAttacks.bishopAttacks(pinner, king) & own;
+    }
+    return pinned;
+  }
+
+  /**
+   * @param color a color
+   * @return bitboard of the pieces of that color, other than the king, that are attacked by the
+   * other color and not defended
+   */
+  public long hanging(Color color) {
+    int us = color.ordinal();
+    long hanging = 0;
+    long pieces = board.colorOccupancy(us) & ~board.bitboard(us * 6 + PieceType.KING.ordinal());
+    long own = board.colorOccupancy(us);
+    long enemy = board.colorOccupancy(1 - us);
+    for (; pieces != 0; pieces &= pieces - 1) {
+      int sq = Long.numberOfTrailingZeros(pieces);
+      if ((attackersTo[sq] & enemy) != 0 && (attackersTo[sq] & own) == 0) {
+        hanging |= Bitboards.bit(sq);
+      }
+    }
+    return hanging;
+  }
+
+  /**
+   * recompute the pieces a move can change, around the make or unmake of the move on the board
+   */
+  private void update(int move, int mover, boolean make) {
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int flags = Move.flags(move);
+    long changed = Bitboards.bit(from) | Bitboards.bit(to);
+    if (flags == Move.EN_PASSANT) {
+      changed |= Bitboards.bit(mover == Board.WHITE ? to - 8 : to + 8);
+    } else if (flags == Move.KING_CASTLE) {
+      changed |= Bitboards.bit(to + 1) | Bitboards.bit(to - 1);
+    } else if (flags == Move.QUEEN_CASTLE) {
+      changed |= Bitboards.bit(to - 2) | Bitboards.bit(to + 1);
+    }
+    // a ray that is opened or closed by the move reached the changed square before the move
+    long affected = changed;
+    for (long squares = changed; squares != 0; squares &= squares - 1) {
+      affected |= attackersTo[Long.numberOfTrailingZeros(squares)];
+    }
+    for (long squares = affected; squares != 0; squares &= squares - 1) {
+      int sq = Long.numberOfTrailingZeros(squares);
+      long bit = Bitboards.bit(sq);
+      for (long targets = attacksFrom[sq]; targets != 0; targets &= targets - 1) {
+        attackersTo[Long.numberOfTrailingZeros(targets)] &= ~bit;
+      }
+    }
+    if (make) {
+      board.makeMove(move);
+    } else {
+      board.unmakeMove(move);
+    }
+    long occupied = board.occupancy();
+    for (long squares = affected; squares != 0; squares &= squares - 1) {
+      int sq = Long.numberOfTrailingZeros(squares);
+      int code = board.codeAt(sq);
+      long attacks = code == Board.EMPTY ? 0 : attacksOf(code, sq, occupied);
+      attacksFrom[sq] = attacks;
+      long bit = Bitboards.bit(sq);
+      for (; attacks != 0; attacks &= attacks - 1) {
+        attackersTo[Long.numberOfTrailingZeros(attacks)] |= bit;
+      }
+    }
+  }
+
+  /**
+   * attack set of a piece code standing on a square, with blocking
+   */
+  private static long attacksOf(int code, int sq, long occupied) {
+    switch (code % 6) {
+      case 0:
+        return AttackTables.pawnAttacks(code / 6, sq);
+      case 1:
+        return AttackTables.knightAttacks(sq);
+      case 2:
+        return SlidingAttacks.bishopAttacks(sq, occupied);
+      case 3:
+        return SlidingAttacks.rookAttacks(sq, occupied);
+      case 4:
+        return SlidingAttacks.queenAttacks(sq, occupied);
+      default:
+        return AttackTables.kingAttacks(sq);
+    }
+  }
+
+  private static Color opposite(Color color) {
+    return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+  }
+}
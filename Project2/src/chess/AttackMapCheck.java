@@ -0,0 +1,120 @@
+package chess;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is the driver class that checks AttackMap. It plays random games through the map, and
+ * after every move and every take-back compares the incrementally updated map with a map built
+ * from scratch, the attackers of every square with Board.isAttacked-style attack detection, and
+ * the pinned pieces with a brute-force test (remove the piece and see if the king is attacked by
+ * one more slider). It then compares the time to find the attackers of every piece with the map
+ * and with pairwise canKill calls on the piece objects.
+ */
+public class AttackMapCheck {
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    Random random = new Random(5004);
+    MoveList moves = new MoveList();
+    long checked = 0;
+    for (int game = 0; game < games; game++) {
+      Board board = Board.startingPosition();
+      AttackMap map = new AttackMap(board);
+      int[] played = new int[200];
+      int length = 0;
+      while (length < played.length) {
+        MoveGenerator.generate(board, moves);
+        if (moves.size() == 0) {
+          break;
+        }
+        played[length] = moves.get(random.nextInt(moves.size()));
+        map.makeMove(played[length++]);
+        check(map);
+        checked++;
+        // take back one move in 4 and play on, so unmakeMove is checked mid-game too
+        if (random.nextInt(4) == 0) {
+          map.unmakeMove(played[--length]);
+          check(map);
+          checked++;
+        }
+      }
+      while (length > 0) {
+        map.unmakeMove(played[--length]);
+      }
+      check(map);
+    }
+    System.out.println("Checked " + checked + " incremental updates in " + games + " games");
+
+    PieceBoard pieces = PieceBoard.fromFen(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+    List<ChessPiece> list = pieces.pieces();
+    AttackMap map = new AttackMap(pieces.getBoard());
+    for (int round = 0; round < 3; round++) {
+      int rounds = 200_000;
+      long sum = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        for (ChessPiece target : list) {
+          for (ChessPiece attacker : list) {
+            if (attacker != target && attacker.canKill(target)) {
+              sum++;
+            }
+          }
+        }
+      }
+      long pairwise = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        map.rebuild();
+        for (ChessPiece target : list) {
+          sum += Long.bitCount(map.attackers(Bitboards.square(target.getRow(),
+                  target.getColumn())));
+        }
+      }
+      long single = System.nanoTime() - start;
+      System.out.printf("%d pieces, attackers of every piece: pairwise canKill %.0f ns,"
+                      + " AttackMap %.0f ns (checksum %d)%n", list.size(),
+              (double) pairwise / rounds, (double) single / rounds, sum);
+    }
+  }
+
+  private static void check(AttackMap map) {
+    Board board = map.getBoard();
+    AttackMap fresh = new AttackMap(board);
+    for (int sq = 0; sq < 64; sq++) {
+      for (Color color : Color.values()) {
+        long expected = board.attackersTo(sq, color.ordinal(), board.occupancy());
+        if (map.attackers(sq, color) != expected || fresh.attackers(sq, color) != expected) {
+          throw new IllegalStateException("Wrong attackers of square " + sq + " in "
+                  + board.toFen());
+        }
+      }
+      if (map.attacksFrom(sq) != fresh.attacksFrom(sq)) {
+        throw new IllegalStateException("Wrong attacks from square " + sq + " in "
+                + board.toFen());
+      }
+    }
+    for (Color color : Color.values()) {
+      if (map.pinned(color) != bruteForcePinned(board, color)) {
+        throw new IllegalStateException("Wrong pinned pieces in " + board.toFen());
+      }
+    }
+  }
+
+  private static long bruteForcePinned(Board board, Color color) {
+    int us = color.ordinal();
+    long king = board.bitboard(us * 6 + PieceType.KING.ordinal());
+    int kingSquare = Long.numberOfTrailingZeros(king);
+    long pinned = 0;
+    long before = board.attackersTo(kingSquare, 1 - us, board.occupancy());
+    for (long own = board.colorOccupancy(us) & ~king; own != 0; own &= own - 1) {
+      int sq = Long.numberOfTrailingZeros(own);
+      long after = board.attackersTo(kingSquare, 1 - us,
+              board.occupancy() & ~Bitboards.bit(sq));
+      if ((after & ~before) != 0) {
+        pinned |= Bitboards.bit(sq);
+      }
+    }
+    return pinned;
+  }
+}
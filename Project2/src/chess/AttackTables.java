@@ -0,0 +1,93 @@
+package chess;
+
+/**
+ * This is the class of precomputed attack masks for the leaper pieces: king, knight and the
+ * pawn captures of each color. Each table has one 64-bit mask per square (index row * 8 + col)
+ * with a bit set for every destination square, so the whole destination set of a square is a
+ * single array lookup. The masks are built once, with the same rules as King.canMove,
+ * Knight.canMove and Pawn.canKill, which now answer by looking them up.
+ */
+public final class AttackTables {
+  private static final long[] KING = new long[64];
+  private static final long[] KNIGHT = new long[64];
+  // [color.ordinal()][square]
+  private static final long[][] PAWN = new long[2][64];
+
+  static {
+    int[][] kingSteps = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    int[][] knightSteps = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    for (int sq = 0; sq < 64; sq++) {
+      int row = Bitboards.row(sq);
+      int col = Bitboards.col(sq);
+      KING[sq] = steps(row, col, kingSteps);
+      KNIGHT[sq] = steps(row, col, knightSteps);
+      // white moves up (row +), black moves down (row -)
+      PAWN[Color.WHITE.ordinal()][sq] = steps(row, col, new int[][] {{1, -1}, {1, 1}});
+      PAWN[Color.BLACK.ordinal()][sq] = steps(row, col, new int[][] {{-1, -1}, {-1, 1}});
+    }
+  }
+
+  private AttackTables() {
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return the square index row * 8 + col used by the tables
+   * throw IllegalArgumentException if the position is out of the board boundary
+   */
+  public static int square(int row, int col) {
+    if (!Bitboards.onBoard(row, col)) {
+      throw new IllegalArgumentException("The position (" + row + ", " + col
+              + ") is out of board boundary");
+    }
+    return Bitboards.square(row, col);
+  }
+
+  /**
+   * @param square square index of the king, 0-63
+   * @return bitboard of the squares a king on that square can move to
+   */
+  public static long kingAttacks(int square) {
+    return KING[square];
+  }
+
+  /**
+   * @param square square index of the knight, 0-63
+   * @return bitboard of the squares a knight on that square can move to
+   */
+  public static long knightAttacks(int square) {
+    return KNIGHT[square];
+  }
+
+  /**
+   * @param color color of the pawn
+   * @param square square index of the pawn, 0-63
+   * @return bitboard of the squares a pawn of that color on that square can kill on
+   */
+  public static long pawnAttacks(Color color, int square) {
+    return PAWN[color.ordinal()][square];
+  }
+
+  /**
+   * same as pawnAttacks(Color, int) with the color given by its ordinal
+   */
+  static long pawnAttacks(int color, int square) {
+    return PAWN[color][square];
+  }
+
+  /**
+   * @return mask of the (row + dRow, col + dCol) squares that are on the board
+   */
+  private static long steps(int row, int col, int[][] steps) {
+    long mask = 0;
+    for (int[] step : steps) {
+      int r = row + step[0];
+      int c = col + step[1];
+      if (Bitboards.onBoard(r, c)) {
+        mask |= Bitboards.bit(Bitboards.square(r, c));
+      }
+    }
+    return mask;
+  }
+}
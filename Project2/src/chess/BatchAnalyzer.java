@@ -0,0 +1,295 @@
+package chess;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * This is the BatchAnalyzer class, which analyses a stream of independent positions (FEN lines)
+ * in parallel: legal moves, captures, checking moves, check, mate, stalemate and the enemy pieces
+ * left hanging, the facts a puzzle miner filters on.
+ * Lines are read from an iterator and submitted to an executor, but never more than `window` at
+ * a time: when the window is full the reader waits for the oldest line, so a slow consumer or a
+ * huge input cannot fill the memory (back-pressure). Results are given to the consumer in input
+ * order (see OrderedExecutor). The executor is a fixed pool of platform threads, or one virtual
+ * thread per position when threads is 0 and the JVM has virtual threads (Java 21 and later; found
+ * by reflection so the class also runs on Java 17, where it falls back to the fixed pool). The
+ * analysis is CPU bound, so virtual threads do not make it faster, they only make blocking
+ * consumers cheaper.
+ * analyze returns the throughput and the latency percentiles (submission to completion), kept in
+ * a fixed-size LatencyHistogram so the memory does not grow with the input either.
+ */
+public class BatchAnalyzer implements AutoCloseable {
+  private final OrderedExecutor<Result> executor;
+  private final boolean virtual;
+
+  /**
+   * BatchAnalyzer constructor
+   * @param threads number of worker threads, 0 for virtual threads when available (the number
+   *                of processors otherwise)
+   * @param window the largest number of positions in flight
+   * throw IllegalArgumentException if threads is negative or window is less than 1
+   */
+  public BatchAnalyzer(int threads, int window) {
+    if (threads < 0 || window < 1) {
+      throw new IllegalArgumentException("threads must be at least 0 and window at least 1");
+    }
+    ExecutorService virtualExecutor = threads == 0 ? newVirtualExecutor() : null;
+    this.virtual = virtualExecutor != null;
+    this.executor = new OrderedExecutor<>(virtual ? virtualExecutor : OrderedExecutor.fixedPool(
+            threads == 0 ? Runtime.getRuntime().availableProcessors() : threads,
+            "batch-analyzer"), window);
+  }
+
+  /**
+   * @return true if the positions are analysed on virtual threads
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Analyse every line, in parallel, and hand the results over in input order
+   * @param lines FEN lines, read one window ahead of the consumer
+   * @param consumer receives one result per line, on the calling thread
+   * @return the counts, throughput and latencies of the batch
+   */
+  public Stats analyze(Iterator<String> lines, Consumer<Result> consumer) {
+    LatencyHistogram latencies = new LatencyHistogram();
+    int[] errors = {0};
+    long start = System.nanoTime();
+    executor.run(() -> {
+      if (!lines.hasNext()) {
+        return null;
+      }
+      String fen = lines.next();
+      long submitted = System.nanoTime();
+      return () -> analyze(fen, submitted);
+    }, result -> {
+      latencies.record(result.latencyNanos);
+      errors[0] += result.error == null ? 0 : 1;
+      consumer.accept(result);
+    });
+    return new Stats((int) latencies.count(), errors[0], System.nanoTime() - start, latencies);
+  }
+
+  /**
+   * Analyse one position on the calling thread
+   * @param fen the position
+   * @return the result, with the error message if the FEN is malformed
+   */
+  public static Result analyze(String fen) {
+    return analyze(fen, System.nanoTime());
+  }
+
+  /**
+   * stop the worker threads
+   */
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  private static Result analyze(String fen, long submitted) {
+    Board board;
+    try {
+      board = Board.fromFen(fen);
+    } catch (IllegalArgumentException e) {
+      return new Result(fen, e.getMessage(), 0, 0, 0, false, 0, System.nanoTime() - submitted);
+    }
+    MoveList moves = new MoveList();
+    MoveGenerator.generate(board, moves);
+    int captures = 0;
+    int checks = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      captures += Move.isCapture(move) ? 1 : 0;
+      board.makeMove(move);
+      checks += board.inCheck() ? 1 : 0;
+      board.unmakeMove(move);
+    }
+    Color them = board.getSideToMove() == Color.WHITE ? Color.BLACK : Color.WHITE;
+    int hanging = Long.bitCount(new AttackMap(board).hanging(them));
+    return new Result(fen, null, moves.size(), captures, checks, board.inCheck(), hanging,
+            System.nanoTime() - submitted);
+  }
+
+  private static ExecutorService newVirtualExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * This is the analysis of one position
+   */
+  public static final class Result {
+    private final String fen;
+    private final String error;
+    private final int moves;
+    private final int captures;
+    private final int checks;
+    private final boolean inCheck;
+    private final int hangingEnemies;
+    private final long latencyNanos;
+
+    private Result(String fen, String error, int moves, int captures, int checks,
+                   boolean inCheck, int hangingEnemies, long latencyNanos) {
+      this.fen = fen;
+      this.error = error;
+      this.moves = moves;
+      this.captures = captures;
+      this.checks = checks;
+      this.inCheck = inCheck;
+      this.hangingEnemies = hangingEnemies;
+      this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * @return the analysed line
+     */
+    public String getFen() {
+      return fen;
+    }
+
+    /**
+     * @return why the line is not a valid FEN, null if it is
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * @return the number of legal moves of the side to move
+     */
+    public int getMoves() {
+      return moves;
+    }
+
+    /**
+     * @return the number of legal captures, including en passant
+     */
+    public int getCaptures() {
+      return captures;
+    }
+
+    /**
+     * @return the number of legal moves that give check
+     */
+    public int getChecks() {
+      return checks;
+    }
+
+    /**
+     * @return true if the side to move is in check
+     */
+    public boolean isInCheck() {
+      return inCheck;
+    }
+
+    /**
+     * @return true if the side to move is checkmated
+     */
+    public boolean isCheckmate() {
+      return error == null && inCheck && moves == 0;
+    }
+
+    /**
+     * @return true if the side to move has no legal move and is not in check
+     */
+    public boolean isStalemate() {
+      return error == null && !inCheck && moves == 0;
+    }
+
+    /**
+     * @return the number of enemy pieces attacked by the side to move and not defended
+     */
+    public int getHangingEnemies() {
+      return hangingEnemies;
+    }
+
+    /**
+     * @return the time from submission to the end of the analysis, in nanoseconds
+     */
+    public long getLatencyNanos() {
+      return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+      if (error != null) {
+        return fen + ": " + error;
+      }
+      return String.format("%s: %d moves, %d captures, %d checks%s, %d hanging", fen, moves,
+              captures, checks, isCheckmate() ? ", checkmate" : isStalemate() ? ", stalemate"
+                      : inCheck ? ", in check" : "", hangingEnemies);
+    }
+  }
+
+  /**
+   * This is the summary of a batch: counts, throughput and latency percentiles
+   */
+  public static final class Stats {
+    private final int positions;
+    private final int errors;
+    private final long nanos;
+    private final LatencyHistogram latencies;
+
+    private Stats(int positions, int errors, long nanos, LatencyHistogram latencies) {
+      this.positions = positions;
+      this.errors = errors;
+      this.nanos = nanos;
+      this.latencies = latencies;
+    }
+
+    /**
+     * @return the number of lines analysed
+     */
+    public int getPositions() {
+      return positions;
+    }
+
+    /**
+     * @return the number of malformed lines
+     */
+    public int getErrors() {
+      return errors;
+    }
+
+    /**
+     * @return lines analysed per second
+     */
+    public double getThroughput() {
+      return positions * 1e9 / Math.max(1, nanos);
+    }
+
+    /**
+     * @param percent the percentile, 0-100
+     * @return the latency below which that percentage of the lines finished, in microseconds,
+     *         within 12.5% (the maximum is exact)
+     * throw IllegalArgumentException if percent is out of range
+     */
+    public double getLatencyMicros(double percent) {
+      if (percent < 0 || percent > 100) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 100");
+      }
+      return latencies.percentile(percent) / 1e3;
+    }
+
+    /**
+     * @return e.g. "10000 positions (3 errors), 95000 positions/s, latency us p50 ... max ..."
+     */
+    @Override
+    public String toString() {
+      return String.format("%d positions (%d errors) in %.0f ms, %.0f positions/s,"
+                      + " latency us p50 %.0f, p90 %.0f, p99 %.0f, max %.0f", positions, errors,
+              nanos / 1e6, getThroughput(), getLatencyMicros(50), getLatencyMicros(90),
+              getLatencyMicros(99), getLatencyMicros(100));
+    }
+  }
+}
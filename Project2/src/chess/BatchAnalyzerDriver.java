@@ -0,0 +1,63 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is the driver class of BatchAnalyzer. It builds a batch of positions from random games
+ * with a few malformed lines mixed in, analyses it sequentially and then with 1, 2, 4 ... threads
+ * and with virtual threads, checks that every run returns the same results in input order, and
+ * prints the throughput and latency percentiles of each run.
+ * Arguments: the number of positions (default 200,000) and the window (default 1024).
+ */
+public class BatchAnalyzerDriver {
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int window = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+    List<String> fens = new ArrayList<>(count);
+    Random random = new Random(5004);
+    Board board = Board.startingPosition();
+    MoveList moves = new MoveList();
+    while (fens.size() < count) {
+      MoveGenerator.generate(board, moves);
+      if (moves.size() == 0 || board.getHalfmoveClock() >= 100) {
+        board = Board.startingPosition();
+        continue;
+      }
+      board.makeMove(moves.get(random.nextInt(moves.size())));
+      fens.add(fens.size() % 10_000 == 9_999 ? "8/8/8 w - -" : board.toFen());
+    }
+
+    List<String> expected = new ArrayList<>(count);
+    long start = System.nanoTime();
+    for (String fen : fens) {
+      expected.add(BatchAnalyzer.analyze(fen).toString());
+    }
+    System.out.printf("sequential: %.0f positions/s%n", count * 1e9 / (System.nanoTime() - start));
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    List<Integer> runs = new ArrayList<>();
+    for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+      runs.add(threads);
+    }
+    runs.add(0);
+    for (int threads : runs) {
+      try (BatchAnalyzer analyzer = new BatchAnalyzer(threads, window)) {
+        int[] index = {0};
+        int[] mismatches = {0};
+        BatchAnalyzer.Stats stats = analyzer.analyze(fens.iterator(), result -> {
+          if (!result.toString().equals(expected.get(index[0]++))) {
+            mismatches[0]++;
+          }
+        });
+        String name = threads > 0 ? threads + " threads"
+                : analyzer.isVirtual() ? "virtual" : cores + " threads (no virtual threads)";
+        System.out.println(name + ": " + stats);
+        if (mismatches[0] != 0 || index[0] != count) {
+          throw new IllegalStateException(mismatches[0] + " results out of order or wrong");
+        }
+      }
+    }
+  }
+}
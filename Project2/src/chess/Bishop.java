@@ -28,4 +28,18 @@ public class Bishop extends AbstractChess {
     int colDiff = Math.abs(col - this.currentCol);
     return inBoundary && (rowDiff == colDiff);
   }
+
+  /**
+   * Occupancy-aware version of canMove: the bishop moves diagonally but cannot jump over
+   * the pieces on the board, answered with the magic bitboard lookup SlidingAttacks.bishopAttacks
+   * @param row the row where the piece might be moved to.
+   * @param col the column where the piece might be moved to.
+   * @param board the pieces that may block the way, this piece itself does not need to be on it
+   * @return true if the destination is reachable and is empty or holds a piece of the other
+   * color, return false otherwise
+   */
+  public boolean canMove(int row, int col, Board board) {
+    return canReach(row, col, board, SlidingAttacks.bishopAttacks(
+            Bitboards.square(this.currentRow, this.currentCol), board.occupancy()));
+  }
 }
@@ -0,0 +1,60 @@
+package chess;
+
+/**
+ * This is the helper class for 64-bit bitboards. Square index = row * 8 + col, so bit 0 is
+ * (row 0, col 0) and bit 63 is (row 7, col 7); white starts on rows 0-1 and moves up (row +).
+ * The line masks follow the same rules as the canMove methods of Rook and Bishop: a piece never
+ * stands on its own mask, and pieces do not block each other. The leaper masks (king, knight,
+ * pawn captures) are in AttackTables.
+ */
+final class Bitboards {
+  static final long[] ROOK_LINES = new long[64];
+  static final long[] BISHOP_LINES = new long[64];
+
+  static {
+    for (int sq = 0; sq < 64; sq++) {
+      int row = row(sq);
+      int col = col(sq);
+      for (int target = 0; target < 64; target++) {
+        if (target == sq) {
+          continue;
+        }
+        int rowDiff = Math.abs(row(target) - row);
+        int colDiff = Math.abs(col(target) - col);
+        long bit = bit(target);
+        if (rowDiff == 0 || colDiff == 0) {
+          ROOK_LINES[sq] |= bit;
+        }
+        if (rowDiff == colDiff) {
+          BISHOP_LINES[sq] |= bit;
+        }
+      }
+    }
+  }
+
+  private Bitboards() {
+  }
+
+  /**
+   * @return true if (row, col) is on the board
+   */
+  static boolean onBoard(int row, int col) {
+    return row >= 0 && row <= 7 && col >= 0 && col <= 7;
+  }
+
+  static int square(int row, int col) {
+    return row << 3 | col;
+  }
+
+  static int row(int square) {
+    return square >>> 3;
+  }
+
+  static int col(int square) {
+    return square & 7;
+  }
+
+  static long bit(int square) {
+    return 1L << square;
+  }
+}
@@ -0,0 +1,831 @@
+package chess;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This is the Board class, which stores a set of chess pieces as 64-bit bitboards: one long per
+ * color and piece type, where bit (row * 8 + col) is set if such a piece stands on (row, col).
+ * A square-to-piece array is kept next to the bitboards so the piece on a square is found without
+ * scanning. Occupancy, attack sets and canKill questions are answered with bit operations instead
+ * of calling canMove/canKill on every ChessPiece object.
+ * Attack sets (attacks, attackers, canKill) follow the same rules as ChessPiece.canKill: pieces
+ * do not block each other. isAttacked and inCheck use the real chess rules, with blocking.
+ *
+ * The board also holds the rest of a chess position (side to move, castling rights, en passant
+ * square, move clocks), so it can be played on: makeMove applies a move produced by
+ * MoveGenerator and unmakeMove takes it back. The data needed to take a move back is pushed on a
+ * preallocated undo stack, so a search can walk millions of positions on one Board object.
+ * Every change of the position also updates its Zobrist key (getKey), so 2 boards holding the
+ * same position have the same key.
+ */
+public class Board {
+  /**
+   * value of pieceCode() for an empty square
+   */
+  public static final int EMPTY = -1;
+  /**
+   * castling right bits, see getCastlingRights()
+   */
+  public static final int WHITE_KINGSIDE = 1;
+  public static final int WHITE_QUEENSIDE = 2;
+  public static final int BLACK_KINGSIDE = 4;
+  public static final int BLACK_QUEENSIDE = 8;
+  /**
+   * FEN of the standard starting position
+   */
+  public static final String START_FEN =
+          "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  // cached because values() returns a new array on every call
+  static final Color[] COLORS = Color.values();
+  static final PieceType[] TYPES = PieceType.values();
+  static final int WHITE = Color.WHITE.ordinal();
+  static final int BLACK = Color.BLACK.ordinal();
+  // castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to] after every move
+  private static final int[] CASTLING_MASK = new int[64];
+
+  static {
+    Arrays.fill(CASTLING_MASK, 15);
+    CASTLING_MASK[0] = ~WHITE_QUEENSIDE & 15;
+    CASTLING_MASK[4] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 15;
+    CASTLING_MASK[7] = ~WHITE_KINGSIDE & 15;
+    CASTLING_MASK[56] = ~BLACK_QUEENSIDE & 15;
+    CASTLING_MASK[60] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 15;
+    CASTLING_MASK[63] = ~BLACK_KINGSIDE & 15;
+  }
+
+  // [color.ordinal() * 6 + type.ordinal()]
+  private final long[] bitboards = new long[12];
+  private final long[] colorOccupancy = new long[2];
+  private long occupancy;
+  // piece code (color.ordinal() * 6 + type.ordinal()) per square, EMPTY if no piece
+  private final byte[] squares = new byte[64];
+
+  private int sideToMove;
+  private int castlingRights;
+  private int enPassantSquare;
+  private int halfmoveClock;
+  private int fullmoveNumber;
+  private long key;
+  // Zobrist key of the pawns only, for the pawn table of Evaluator
+  private long pawnKey;
+  // material and piece-square values (PieceSquareTables), white minus black, kept up to date
+  // like key: the opening score in the high 32 bits plus the endgame score
+  private long psqt;
+  private int phase;
+  // one entry per made move: captured piece, castling rights, en passant square, halfmove clock
+  private long[] undoStack = new long[256];
+  // key of the position before each made move, for repetition detection
+  private long[] keyHistory = new long[256];
+  private int ply;
+
+  /**
+   * constructor of an empty board
+   */
+  public Board() {
+    clear();
+  }
+
+  /**
+   * @return an independent copy of the board, including the moves that can be taken back, so
+   * each search thread can play on its own board
+   */
+  public Board copy() {
+    Board board = new Board();
+    System.arraycopy(bitboards, 0, board.bitboards, 0, 12);
+    System.arraycopy(colorOccupancy, 0, board.colorOccupancy, 0, 2);
+    System.arraycopy(squares, 0, board.squares, 0, 64);
+    board.occupancy = occupancy;
+    board.sideToMove = sideToMove;
+    board.castlingRights = castlingRights;
+    board.enPassantSquare = enPassantSquare;
+    board.halfmoveClock = halfmoveClock;
+    board.fullmoveNumber = fullmoveNumber;
+    board.key = key;
+    board.pawnKey = pawnKey;
+    board.psqt = psqt;
+    board.phase = phase;
+    board.undoStack = undoStack.clone();
+    board.keyHistory = keyHistory.clone();
+    board.ply = ply;
+    return board;
+  }
+
+  /**
+   * @return a new board with the standard starting position, white to move
+   */
+  public static Board startingPosition() {
+    return fromFen(START_FEN);
+  }
+
+  /**
+   * Build a board from a position in Forsyth-Edwards Notation, e.g. Board.START_FEN
+   * The move clocks may be left out, they then default to 0 and 1. To load many positions, use
+   * a FenReader, which reuses one board and reports errors without exceptions.
+   * @param fen the position
+   * @return a new board holding the position
+   * throw IllegalArgumentException if the FEN is malformed
+   */
+  public static Board fromFen(String fen) {
+    byte[] text = fen.getBytes(StandardCharsets.US_ASCII);
+    Board board = new Board();
+    int end = Fen.parse(board, text, 0, text.length);
+    if (end < 0) {
+      throw new IllegalArgumentException(FenReader.describe(-end) + ": " + fen);
+    }
+    if (end != text.length) {
+      throw new IllegalArgumentException("Unexpected text after the FEN fields: " + fen);
+    }
+    return board;
+  }
+
+  /**
+   * @return the position in Forsyth-Edwards Notation
+   */
+  public String toFen() {
+    byte[] text = new byte[104];
+    return new String(text, 0, Fen.write(this, text, 0, true), StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Build a board from chess piece objects
+   * @param pieces the pieces to be placed, of the classes King, Queen, Rook, Bishop, Knight, Pawn
+   * @return a new board holding the pieces
+   * throw IllegalArgumentException if 2 pieces stand on the same square or a piece is of an
+   * unknown class
+   */
+  public static Board fromPieces(Collection<? extends ChessPiece> pieces) {
+    Board board = new Board();
+    for (ChessPiece piece : pieces) {
+      board.put(typeOf(piece), piece.getColor(), piece.getRow(), piece.getColumn());
+    }
+    return board;
+  }
+
+  /**
+   * @param piece a chess piece object
+   * @return the type of the piece
+   * throw IllegalArgumentException if the piece is of an unknown class
+   */
+  public static PieceType typeOf(ChessPiece piece) {
+    if (piece instanceof PieceView) {
+      return ((PieceView) piece).getType();
+    } else if (piece instanceof Pawn) {
+      return PieceType.PAWN;
+    } else if (piece instanceof Knight) {
+      return PieceType.KNIGHT;
+    } else if (piece instanceof Bishop) {
+      return PieceType.BISHOP;
+    } else if (piece instanceof Rook) {
+      return PieceType.ROOK;
+    } else if (piece instanceof Queen) {
+      return PieceType.QUEEN;
+    } else if (piece instanceof King) {
+      return PieceType.KING;
+    }
+    throw new IllegalArgumentException("Unknown chess piece class: " + piece.getClass());
+  }
+
+  /**
+   * Create new chess piece objects for every piece on the board
+   * @return the pieces, ordered by square (row 0 col 0 first)
+   */
+  public List<ChessPiece> toPieces() {
+    List<ChessPiece> pieces = new ArrayList<>(Long.bitCount(occupancy));
+    for (long bits = occupancy; bits != 0; bits &= bits - 1) {
+      int sq = Long.numberOfTrailingZeros(bits);
+      pieces.add(pieceAt(Bitboards.row(sq), Bitboards.col(sq)));
+    }
+    return pieces;
+  }
+
+  /**
+   * remove every piece from the board
+   */
+  public void clear() {
+    Arrays.fill(bitboards, 0);
+    colorOccupancy[0] = 0;
+    colorOccupancy[1] = 0;
+    occupancy = 0;
+    Arrays.fill(squares, (byte) EMPTY);
+    sideToMove = WHITE;
+    castlingRights = 0;
+    enPassantSquare = -1;
+    halfmoveClock = 0;
+    fullmoveNumber = 1;
+    ply = 0;
+    key = 0;
+    pawnKey = 0;
+    psqt = 0;
+    phase = 0;
+  }
+
+  /**
+   * @return the color whose turn it is
+   */
+  public Color getSideToMove() {
+    return COLORS[sideToMove];
+  }
+
+  /**
+   * @param color the color whose turn it is
+   */
+  public void setSideToMove(Color color) {
+    if (color.ordinal() != sideToMove) {
+      key ^= Zobrist.SIDE;
+    }
+    sideToMove = color.ordinal();
+  }
+
+  /**
+   * @return the castling rights still available, a combination of WHITE_KINGSIDE,
+   * WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+   */
+  public int getCastlingRights() {
+    return castlingRights;
+  }
+
+  /**
+   * @param castlingRights a combination of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and
+   *                       BLACK_QUEENSIDE
+   */
+  public void setCastlingRights(int castlingRights) {
+    key ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights & 15);
+    this.castlingRights = castlingRights & 15;
+  }
+
+  /**
+   * @return the square a pawn just passed over with a double step (row * 8 + col), -1 if the
+   * last move was not a double step
+   */
+  public int getEnPassantSquare() {
+    return enPassantSquare;
+  }
+
+  /**
+   * @param square the en passant square (row * 8 + col), -1 for none
+   */
+  public void setEnPassantSquare(int square) {
+    key ^= Zobrist.enPassant(this.enPassantSquare) ^ Zobrist.enPassant(square);
+    this.enPassantSquare = square;
+  }
+
+  /**
+   * @param halfmoveClock the number of moves since the last capture or pawn move
+   * @param fullmoveNumber the move number
+   */
+  void setClocks(int halfmoveClock, int fullmoveNumber) {
+    this.halfmoveClock = halfmoveClock;
+    this.fullmoveNumber = fullmoveNumber;
+  }
+
+  /**
+   * @return the Zobrist key of the position, kept up to date by every change of the board
+   */
+  public long getKey() {
+    return key;
+  }
+
+  /**
+   * @return the Zobrist key of the pawns alone, the same for every position with the same pawns
+   */
+  public long getPawnKey() {
+    return pawnKey;
+  }
+
+  /**
+   * Compute the Zobrist key from scratch, getKey() must always return the same value
+   * @return the key of the position
+   */
+  public long computeKey() {
+    long k = Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
+    if (sideToMove == BLACK) {
+      k ^= Zobrist.SIDE;
+    }
+    for (int sq = 0; sq < 64; sq++) {
+      if (squares[sq] != EMPTY) {
+        k ^= Zobrist.piece(squares[sq], sq);
+      }
+    }
+    return k;
+  }
+
+  /**
+   * @return the number of moves since the last capture or pawn move
+   */
+  public int getHalfmoveClock() {
+    return halfmoveClock;
+  }
+
+  /**
+   * @return the move number, starting at 1 and increased after each black move
+   */
+  public int getFullmoveNumber() {
+    return fullmoveNumber;
+  }
+
+  /**
+   * @return the number of moves made with makeMove and not yet taken back
+   */
+  public int getPly() {
+    return ply;
+  }
+
+  /**
+   * @return true if the position already occurred since the last capture or pawn move, among
+   * the moves made with makeMove
+   */
+  public boolean isRepetition() {
+    for (int i = ply - 2; i >= Math.max(0, ply - halfmoveClock); i -= 2) {
+      if (keyHistory[i] == key) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Place a piece on an empty square
+   * @param type type of the piece
+   * @param color color of the piece
+   * @param row row index of the square
+   * @param col col index of the square
+   * throw IllegalArgumentException if the square is out of the board or already occupied
+   */
+  public void put(PieceType type, Color color, int row, int col) {
+    int sq = checkedSquare(row, col);
+    if (squares[sq] != EMPTY) {
+      throw new IllegalArgumentException("Square (" + row + ", " + col + ") is already occupied");
+    }
+    add(color.ordinal() * 6 + type.ordinal(), sq);
+  }
+
+  /**
+   * Remove the piece on a square, if any
+   * @param row row index of the square
+   * @param col col index of the square
+   * throw IllegalArgumentException if the square is out of the board
+   */
+  public void remove(int row, int col) {
+    int sq = checkedSquare(row, col);
+    if (squares[sq] != EMPTY) {
+      removeAt(sq);
+    }
+  }
+
+  /**
+   * @param color color of the pieces
+   * @param type type of the pieces
+   * @return bitboard of the squares holding a piece of that color and type
+   */
+  public long pieces(Color color, PieceType type) {
+    return bitboards[color.ordinal() * 6 + type.ordinal()];
+  }
+
+  /**
+   * @param color color of the pieces
+   * @return bitboard of the squares holding a piece of that color
+   */
+  public long occupancy(Color color) {
+    return colorOccupancy[color.ordinal()];
+  }
+
+  /**
+   * @return bitboard of the squares holding any piece
+   */
+  public long occupancy() {
+    return occupancy;
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return true if a piece stands on the square
+   */
+  public boolean isOccupied(int row, int col) {
+    return squares[checkedSquare(row, col)] != EMPTY;
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return color.ordinal() * 6 + type.ordinal() of the piece on the square, EMPTY if none
+   */
+  public int pieceCode(int row, int col) {
+    return squares[checkedSquare(row, col)];
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return type of the piece on the square, null if the square is empty
+   */
+  public PieceType typeAt(int row, int col) {
+    int code = pieceCode(row, col);
+    return code == EMPTY ? null : TYPES[code % 6];
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return color of the piece on the square, null if the square is empty
+   */
+  public Color colorAt(int row, int col) {
+    int code = pieceCode(row, col);
+    return code == EMPTY ? null : COLORS[code / 6];
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return the shared immutable view of the piece on the square, null if the square is empty;
+   * unlike pieceAt this does not allocate
+   * throw IllegalArgumentException if the piece is a pawn on the back rank of its own side
+   */
+  public PieceView viewAt(int row, int col) {
+    int code = pieceCode(row, col);
+    return code == EMPTY ? null : PieceView.of(Bitboards.square(row, col) | code << 6);
+  }
+
+  /**
+   * Copy the piece codes of the squares, the compact form of a position
+   * @param out receives color.ordinal() * 6 + type.ordinal() per square index, EMPTY (-1) for
+   *            an empty square, needs 64 entries from offset
+   * @param offset index of the first entry, so many positions can share one array
+   */
+  public void copySquares(byte[] out, int offset) {
+    System.arraycopy(squares, 0, out, offset, 64);
+  }
+
+  /**
+   * Build a board from piece codes stored by copySquares, white to move
+   * @param codes piece code per square index, EMPTY for an empty square
+   * @param offset index of the first entry
+   * @return a new board holding the pieces
+   * throw IllegalArgumentException if an entry is not a piece code or EMPTY
+   */
+  public static Board fromSquares(byte[] codes, int offset) {
+    Board board = new Board();
+    for (int sq = 0; sq < 64; sq++) {
+      int code = codes[offset + sq];
+      if (code < EMPTY || code >= 12) {
+        throw new IllegalArgumentException("Not a piece code: " + code);
+      }
+      if (code != EMPTY) {
+        board.add(code, sq);
+      }
+    }
+    return board;
+  }
+
+  /**
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return a new chess piece object for the piece on the square, null if the square is empty
+   * throw IllegalArgumentException if the piece class rejects the square (a white pawn on row 0
+   * or a black pawn on row 7)
+   */
+  public ChessPiece pieceAt(int row, int col) {
+    int code = pieceCode(row, col);
+    if (code == EMPTY) {
+      return null;
+    }
+    Color color = COLORS[code / 6];
+    switch (TYPES[code % 6]) {
+      case PAWN:
+        return new Pawn(row, col, color);
+      case KNIGHT:
+        return new Knight(row, col, color);
+      case BISHOP:
+        return new Bishop(row, col, color);
+      case ROOK:
+        return new Rook(row, col, color);
+      case QUEEN:
+        return new Queen(row, col, color);
+      default:
+        return new King(row, col, color);
+    }
+  }
+
+  /**
+   * The squares the piece on (row, col) could kill an enemy piece on, same as calling canKill
+   * with a piece of the other color on every square
+   * @param row row index of the square
+   * @param col col index of the square
+   * @return bitboard of the attacked squares, 0 if the square is empty
+   */
+  public long attacks(int row, int col) {
+    int code = pieceCode(row, col);
+    return code == EMPTY ? 0 : attacksOf(code, Bitboards.square(row, col));
+  }
+
+  /**
+   * The pieces of one color that can kill a piece standing on (row, col)
+   * @param row row index of the target square
+   * @param col col index of the target square
+   * @param by color of the attacking pieces
+   * @return bitboard of the squares of the attackers
+   */
+  public long attackers(int row, int col, Color by) {
+    int sq = checkedSquare(row, col);
+    int base = by.ordinal() * 6;
+    // a piece on A attacks B exactly when the same piece type of the other side on B would
+    // attack A, so the attack masks of the target square are used in reverse
+    long result = AttackTables.pawnAttacks(by == Color.WHITE ? Color.BLACK : Color.WHITE, sq)
+            & bitboards[base + PieceType.PAWN.ordinal()];
+    result |= AttackTables.knightAttacks(sq) & bitboards[base + PieceType.KNIGHT.ordinal()];
+    result |= Bitboards.BISHOP_LINES[sq] & (bitboards[base + PieceType.BISHOP.ordinal()]
+            | bitboards[base + PieceType.QUEEN.ordinal()]);
+    result |= Bitboards.ROOK_LINES[sq] & (bitboards[base + PieceType.ROOK.ordinal()]
+            | bitboards[base + PieceType.QUEEN.ordinal()]);
+    result |= AttackTables.kingAttacks(sq) & bitboards[base + PieceType.KING.ordinal()];
+    return result;
+  }
+
+  /**
+   * Determine if the piece on one square can kill the piece on another square
+   * @param fromRow row index of the attacking piece
+   * @param fromCol col index of the attacking piece
+   * @param toRow row index of the target piece
+   * @param toCol col index of the target piece
+   * @return true if both squares hold pieces of different colors and the attacker can kill the
+   * target, the same answer as ChessPiece.canKill
+   */
+  public boolean canKill(int fromRow, int fromCol, int toRow, int toCol) {
+    int attacker = pieceCode(fromRow, fromCol);
+    int target = pieceCode(toRow, toCol);
+    if (attacker == EMPTY || target == EMPTY || attacker / 6 == target / 6) {
+      return false;
+    }
+    return (attacksOf(attacker, Bitboards.square(fromRow, fromCol))
+            & Bitboards.bit(Bitboards.square(toRow, toCol))) != 0;
+  }
+
+  /**
+   * Determine if a square is attacked by a color, with the real chess rules: sliding pieces are
+   * blocked by the first piece on their way, pawns only attack diagonally forward
+   * @param square square index, row * 8 + col
+   * @param by color of the attacking pieces
+   * @return true if at least one piece of that color attacks the square
+   */
+  public boolean isAttacked(int square, Color by) {
+    return attackersTo(square, by.ordinal(), occupancy) != 0;
+  }
+
+  /**
+   * @return true if the king of the side to move is attacked
+   */
+  public boolean inCheck() {
+    long king = bitboards[sideToMove * 6 + PieceType.KING.ordinal()];
+    return king != 0 && attackersTo(Long.numberOfTrailingZeros(king), 1 - sideToMove,
+            occupancy) != 0;
+  }
+
+  /**
+   * Apply a move of the side to move. The move must come from MoveGenerator for this position,
+   * it is not checked.
+   * @param move the packed move, see Move
+   */
+  public void makeMove(int move) {
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int flags = Move.flags(move);
+    int code = squares[from];
+    int us = sideToMove;
+    int capturedSquare = flags == Move.EN_PASSANT ? (us == WHITE ? to - 8 : to + 8) : to;
+    int captured = squares[capturedSquare];
+
+    if (ply == undoStack.length) {
+      undoStack = Arrays.copyOf(undoStack, ply * 2);
+      keyHistory = Arrays.copyOf(keyHistory, ply * 2);
+    }
+    keyHistory[ply] = key;
+    undoStack[ply++] = (captured + 1) | castlingRights << 4 | (enPassantSquare + 1) << 8
+            | (long) halfmoveClock << 16;
+
+    if (captured != EMPTY) {
+      removeAt(capturedSquare);
+    }
+    removeAt(from);
+    add(Move.isPromotion(move) ? us * 6 + PieceType.KNIGHT.ordinal() + (flags & 3) : code, to);
+    if (flags == Move.KING_CASTLE) {
+      moveRook(to + 1, to - 1);
+    } else if (flags == Move.QUEEN_CASTLE) {
+      moveRook(to - 2, to + 1);
+    }
+
+    int rights = castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to];
+    int enPassant = flags == Move.DOUBLE_PUSH ? (from + to) >>> 1 : -1;
+    key ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights)
+            ^ Zobrist.enPassant(enPassantSquare) ^ Zobrist.enPassant(enPassant) ^ Zobrist.SIDE;
+    castlingRights = rights;
+    enPassantSquare = enPassant;
+    halfmoveClock = code % 6 == PieceType.PAWN.ordinal() || captured != EMPTY
+            ? 0 : halfmoveClock + 1;
+    if (us == BLACK) {
+      fullmoveNumber++;
+    }
+    sideToMove = 1 - us;
+  }
+
+  /**
+   * Take back the last move made with makeMove
+   * @param move the same packed move that was given to makeMove
+   */
+  public void unmakeMove(int move) {
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int flags = Move.flags(move);
+    int us = 1 - sideToMove;
+    long undo = undoStack[--ply];
+
+    int code = squares[to];
+    removeAt(to);
+    add(Move.isPromotion(move) ? us * 6 + PieceType.PAWN.ordinal() : code, from);
+    if (flags == Move.KING_CASTLE) {
+      moveRook(to - 1, to + 1);
+    } else if (flags == Move.QUEEN_CASTLE) {
+      moveRook(to + 1, to - 2);
+    }
+    int captured = (int) (undo & 15) - 1;
+    if (captured != EMPTY) {
+      add(captured, flags == Move.EN_PASSANT ? (us == WHITE ? to - 8 : to + 8) : to);
+    }
+
+    int rights = (int) (undo >>> 4) & 15;
+    int enPassant = (int) (undo >>> 8 & 127) - 1;
+    key ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights)
+            ^ Zobrist.enPassant(enPassantSquare) ^ Zobrist.enPassant(enPassant) ^ Zobrist.SIDE;
+    castlingRights = rights;
+    enPassantSquare = enPassant;
+    halfmoveClock = (int) (undo >>> 16);
+    if (us == BLACK) {
+      fullmoveNumber--;
+    }
+    sideToMove = us;
+  }
+
+  /**
+   * @return the board as 8 lines, row 7 on top, upper case for white, "." for empty squares
+   */
+  @Override
+  public String toString() {
+    StringBuilder acc = new StringBuilder();
+    for (int row = 7; row >= 0; row--) {
+      for (int col = 0; col < 8; col++) {
+        int code = squares[Bitboards.square(row, col)];
+        char c = code == EMPTY ? '.' : "pnbrqk".charAt(code % 6);
+        acc.append(code != EMPTY && code / 6 == Color.WHITE.ordinal()
+                ? Character.toUpperCase(c) : c);
+      }
+      acc.append('\n');
+    }
+    return acc.toString();
+  }
+
+  /**
+   * attack set of a piece code standing on a square
+   */
+  static long attacksOf(int code, int sq) {
+    switch (code % 6) {
+      case 0:
+        return AttackTables.pawnAttacks(code / 6, sq);
+      case 1:
+        return AttackTables.knightAttacks(sq);
+      case 2:
+        return Bitboards.BISHOP_LINES[sq];
+      case 3:
+        return Bitboards.ROOK_LINES[sq];
+      case 4:
+        return Bitboards.ROOK_LINES[sq] | Bitboards.BISHOP_LINES[sq];
+      default:
+        return AttackTables.kingAttacks(sq);
+    }
+  }
+
+  /**
+   * Pieces of one color that attack a square for a given occupancy, with blocking
+   * @param sq the target square
+   * @param by color ordinal of the attackers
+   * @param occupied the occupancy used to block the sliding pieces
+   * @return bitboard of the attackers
+   */
+  long attackersTo(int sq, int by, long occupied) {
+    int base = by * 6;
+    long diagonal = bitboards[base + PieceType.BISHOP.ordinal()]
+            | bitboards[base + PieceType.QUEEN.ordinal()];
+    long straight = bitboards[base + PieceType.ROOK.ordinal()]
+            | bitboards[base + PieceType.QUEEN.ordinal()];
+    return (AttackTables.pawnAttacks(1 - by, sq) & bitboards[base + PieceType.PAWN.ordinal()])
+            | (AttackTables.knightAttacks(sq) & bitboards[base + PieceType.KNIGHT.ordinal()])
+            | (AttackTables.kingAttacks(sq) & bitboards[base + PieceType.KING.ordinal()])
+            | (SlidingAttacks.bishopAttacks(sq, occupied) & diagonal)
+            | (SlidingAttacks.rookAttacks(sq, occupied) & straight);
+  }
+
+  /**
+   * @return material and piece-square opening score, white minus black
+   */
+  int openingScore() {
+    return PieceSquareTables.opening(psqt);
+  }
+
+  /**
+   * @return material and piece-square endgame score, white minus black
+   */
+  int endgameScore() {
+    return PieceSquareTables.endgame(psqt);
+  }
+
+  /**
+   * @return the game phase, 24 with every piece on the board, 0 with pawns and kings
+   * only (more with extra promoted pieces)
+   */
+  int phase() {
+    return phase;
+  }
+
+  /**
+   * @return the bitboard of a piece code (color * 6 + type)
+   */
+  long bitboard(int code) {
+    return bitboards[code];
+  }
+
+  /**
+   * @return the occupancy of a color ordinal
+   */
+  long colorOccupancy(int color) {
+    return colorOccupancy[color];
+  }
+
+  /**
+   * @return the piece code on a square index, EMPTY if none
+   */
+  int codeAt(int sq) {
+    return squares[sq];
+  }
+
+  /**
+   * @return the color ordinal of the side to move
+   */
+  int side() {
+    return sideToMove;
+  }
+
+  /**
+   * Put a piece on an empty square, without checks
+   * @param code piece code, color * 6 + type
+   * @param sq square index
+   */
+  void place(int code, int sq) {
+    add(code, sq);
+  }
+
+  private void moveRook(int from, int to) {
+    int code = squares[from];
+    removeAt(from);
+    add(code, to);
+  }
+
+  private void add(int code, int sq) {
+    long bit = Bitboards.bit(sq);
+    bitboards[code] |= bit;
+    colorOccupancy[code / 6] |= bit;
+    occupancy |= bit;
+    squares[sq] = (byte) code;
+    key ^= Zobrist.piece(code, sq);
+    if (code % 6 == PieceType.PAWN.ordinal()) {
+      pawnKey ^= Zobrist.piece(code, sq);
+    }
+    psqt += PieceSquareTables.packed(code, sq);
+    phase += PieceSquareTables.phaseOf(code);
+  }
+
+  private void removeAt(int sq) {
+    int code = squares[sq];
+    long bit = Bitboards.bit(sq);
+    bitboards[code] &= ~bit;
+    colorOccupancy[code / 6] &= ~bit;
+    occupancy &= ~bit;
+    squares[sq] = (byte) EMPTY;
+    key ^= Zobrist.piece(code, sq);
+    if (code % 6 == PieceType.PAWN.ordinal()) {
+      pawnKey ^= Zobrist.piece(code, sq);
+    }
+    psqt -= PieceSquareTables.packed(code, sq);
+    phase -= PieceSquareTables.phaseOf(code);
+  }
+
+  private static int checkedSquare(int row, int col) {
+    if (!Bitboards.onBoard(row, col)) {
+      throw new IllegalArgumentException("The position (" + row + ", " + col
+              + ") is out of board boundary");
+    }
+    return Bitboards.square(row, col);
+  }
+}
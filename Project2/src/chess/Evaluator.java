@@ -0,0 +1,239 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * This is the Evaluator class, which scores a position for the search: material, piece-square
+ * tables, mobility and pawn structure, each as an opening and an endgame value that are blended
+ * by the amount of material left (the game phase).
+ * Material and piece-square values are not computed here: the Board adds and subtracts the
+ * PieceSquareTables as pieces are put on and taken off squares, like its Zobrist key, so they
+ * cost nothing per node.
+ * Pawn structure (doubled, isolated and passed pawns) depends on the pawns only and is kept in a
+ * pawn hash table keyed by Board.getPawnKey, where most positions of a search find it. Mobility
+ * is the number of squares each knight, bishop, rook and queen can move to by the canMove rules
+ * (see PieceView), not counting squares of its own pieces; it is computed with bitboards.
+ * An evaluator holds a pawn table and is meant for one thread; each search thread has its own.
+ */
+public class Evaluator {
+  // below the mate scores of Searcher, however much material a position has
+  private static final int MAX_SCORE = Searcher.MATE - 1000;
+
+  private static final int[] MOBILITY_OPENING = {0, 4, 5, 2, 1, 0};
+  private static final int[] MOBILITY_ENDGAME = {0, 4, 5, 4, 2, 0};
+  // typical number of moves per PieceType, scored as 0
+  private static final int[] MOBILITY_BASE = {0, 4, 6, 6, 12, 0};
+  private static final int BISHOP_PAIR_OPENING = 30;
+  private static final int BISHOP_PAIR_ENDGAME = 50;
+  private static final int DOUBLED_OPENING = -10;
+  private static final int DOUBLED_ENDGAME = -20;
+  private static final int ISOLATED_OPENING = -10;
+  private static final int ISOLATED_ENDGAME = -15;
+  // by rows advanced from the pawn's own second row
+  private static final int[] PASSED_OPENING = {0, 5, 10, 15, 25, 40, 60, 0};
+  private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 90, 130, 0};
+
+  private static final long[] FILES = new long[8];
+  private static final long[] ADJACENT_FILES = new long[8];
+  // [color][square], squares in front of a pawn on its file and the adjacent files
+  private static final long[][] PASSED_MASK = new long[2][64];
+
+  static {
+    for (int col = 0; col < 8; col++) {
+      for (int row = 0; row < 8; row++) {
+        FILES[col] |= Bitboards.bit(Bitboards.square(row, col));
+      }
+    }
+    for (int col = 0; col < 8; col++) {
+      ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0) | (col < 7 ? FILES[col + 1] : 0);
+    }
+    for (int sq = 0; sq < 64; sq++) {
+      int col = Bitboards.col(sq);
+      long span = FILES[col] | ADJACENT_FILES[col];
+      for (int row = 0; row < 8; row++) {
+        long rowMask = 0xFFL << (row * 8);
+        if (row > Bitboards.row(sq)) {
+          PASSED_MASK[Board.WHITE][sq] |= span & rowMask;
+        } else if (row < Bitboards.row(sq)) {
+          PASSED_MASK[Board.BLACK][sq] |= span & rowMask;
+        }
+      }
+    }
+  }
+
+  private final long[] pawnKeys;
+  private final int[] pawnOpening;
+  private final int[] pawnEndgame;
+  private final int pawnMask;
+  private long pawnHits;
+  private long pawnMisses;
+
+  /**
+   * Evaluator constructor, with a pawn table of 16K entries (256 KB)
+   */
+  public Evaluator() {
+    this(1 << 14);
+  }
+
+  /**
+   * Evaluator constructor
+   * @param pawnEntries number of entries of the pawn table, a power of 2
+   * throw IllegalArgumentException if pawnEntries is not a positive power of 2
+   */
+  public Evaluator(int pawnEntries) {
+    if (pawnEntries < 1 || Integer.bitCount(pawnEntries) != 1) {
+      throw new IllegalArgumentException("The pawn table size must be a power of 2");
+    }
+    this.pawnKeys = new long[pawnEntries];
+    this.pawnOpening = new int[pawnEntries];
+    this.pawnEndgame = new int[pawnEntries];
+    this.pawnMask = pawnEntries - 1;
+    // no real pawn key is expected to be -1, so every entry starts empty
+    Arrays.fill(pawnKeys, -1);
+  }
+
+  /**
+   * @param board the position
+   * @return the score in centipawns for the side to move, at most Searcher.MATE - 1000 either
+   *         way, so it is never taken for a mate
+   */
+  public int evaluate(Board board) {
+    int opening = board.openingScore();
+    int endgame = board.endgameScore();
+
+    long pawnKey = board.getPawnKey();
+    int index = (int) pawnKey & pawnMask;
+    if (pawnKeys[index] == pawnKey) {
+      pawnHits++;
+    } else {
+      pawnMisses++;
+      long packed = pawnStructure(board);
+      pawnKeys[index] = pawnKey;
+      pawnOpening[index] = (int) (packed >> 32);
+      pawnEndgame[index] = (int) packed;
+    }
+    opening += pawnOpening[index];
+    endgame += pawnEndgame[index];
+
+    return finish(board, opening, endgame, board.phase());
+  }
+
+  /**
+   * @param board the position
+   * @return the score in centipawns for the side to move
+   */
+  public int evaluate(PieceBoard board) {
+    return evaluate(board.getBoard());
+  }
+
+  /**
+   * @return the number of evaluations that found their pawn structure in the pawn table
+   */
+  public long getPawnHits() {
+    return pawnHits;
+  }
+
+  /**
+   * @return the number of evaluations that computed their pawn structure
+   */
+  public long getPawnMisses() {
+    return pawnMisses;
+  }
+
+  /**
+   * Evaluate without the board's running sums or the pawn table, for checking them
+   * @param board the position
+   * @return the same score as evaluate
+   */
+  static int evaluateFromScratch(Board board) {
+    int opening = 0;
+    int endgame = 0;
+    int phase = 0;
+    for (int sq = 0; sq < 64; sq++) {
+      int code = board.codeAt(sq);
+      if (code != Board.EMPTY) {
+        opening += PieceSquareTables.OPENING[code][sq];
+        endgame += PieceSquareTables.ENDGAME[code][sq];
+        phase += PieceSquareTables.phaseOf(code);
+      }
+    }
+    long pawns = pawnStructure(board);
+    return finish(board, opening + (int) (pawns >> 32), endgame + (int) pawns, phase);
+  }
+
+  /**
+   * doubled, isolated and passed pawns of both colors
+   * @return the opening score in the high 32 bits and the endgame score in the low 32 bits
+   */
+  static long pawnStructure(Board board) {
+    int opening = 0;
+    int endgame = 0;
+    for (int us = 0; us < 2; us++) {
+      int sign = us == Board.WHITE ? 1 : -1;
+      long pawns = board.bitboard(us * 6 + PieceType.PAWN.ordinal());
+      long enemyPawns = board.bitboard((1 - us) * 6 + PieceType.PAWN.ordinal());
+      for (int col = 0; col < 8; col++) {
+        int count = Long.bitCount(pawns & FILES[col]);
+        if (count > 1) {
+          opening += sign * (count - 1) * DOUBLED_OPENING;
+          endgame += sign * (count - 1) * DOUBLED_ENDGAME;
+        }
+        if (count > 0 && (pawns & ADJACENT_FILES[col]) == 0) {
+          opening += sign * count * ISOLATED_OPENING;
+          endgame += sign * count * ISOLATED_ENDGAME;
+        }
+      }
+      for (long rest = pawns; rest != 0; rest &= rest - 1) {
+        int sq = Long.numberOfTrailingZeros(rest);
+        if ((PASSED_MASK[us][sq] & enemyPawns) == 0) {
+          int advanced = us == Board.WHITE ? Bitboards.row(sq) - 1 : 6 - Bitboards.row(sq);
+          opening += sign * PASSED_OPENING[advanced];
+          endgame += sign * PASSED_ENDGAME[advanced];
+        }
+      }
+    }
+    return (long) opening << 32 | (endgame & 0xFFFFFFFFL);
+  }
+
+  /**
+   * add mobility and the bishop pair, and blend the opening and endgame scores by the phase;
+   * the result stays within MAX_SCORE so no position with extra promoted pieces looks like a mate
+   */
+  private static int finish(Board board, int opening, int endgame, int phase) {
+    long occupied = board.occupancy();
+    for (int us = 0; us < 2; us++) {
+      int sign = us == Board.WHITE ? 1 : -1;
+      long own = board.colorOccupancy(us);
+      for (int type = 1; type < 5; type++) {
+        for (long pieces = board.bitboard(us * 6 + type); pieces != 0; pieces &= pieces - 1) {
+          int sq = Long.numberOfTrailingZeros(pieces);
+          int moves = Long.bitCount(attacks(type, sq, occupied) & ~own) - MOBILITY_BASE[type];
+          opening += sign * moves * MOBILITY_OPENING[type];
+          endgame += sign * moves * MOBILITY_ENDGAME[type];
+        }
+      }
+      if (Long.bitCount(board.bitboard(us * 6 + PieceType.BISHOP.ordinal())) >= 2) {
+        opening += sign * BISHOP_PAIR_OPENING;
+        endgame += sign * BISHOP_PAIR_ENDGAME;
+      }
+    }
+    phase = Math.min(PieceSquareTables.MAX_PHASE, phase);
+    int score = (opening * phase + endgame * (PieceSquareTables.MAX_PHASE - phase))
+            / PieceSquareTables.MAX_PHASE;
+    score = Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    return board.side() == Board.WHITE ? score : -score;
+  }
+
+  private static long attacks(int type, int sq, long occupied) {
+    switch (type) {
+      case 1:
+        return AttackTables.knightAttacks(sq);
+      case 2:
+        return SlidingAttacks.bishopAttacks(sq, occupied);
+      case 3:
+        return SlidingAttacks.rookAttacks(sq, occupied);
+      default:
+        return SlidingAttacks.queenAttacks(sq, occupied);
+    }
+  }
+}
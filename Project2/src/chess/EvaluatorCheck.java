@@ -0,0 +1,105 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * This is the check class of Evaluator. It plays random games from a few positions and checks
+ * after every move and take-back that the running material and piece-square sums of the Board,
+ * its pawn key and the pawn table give the same score as an evaluation from scratch, and that
+ * a position and its color-mirrored copy get the same score, also with far more material than a
+ * game can have, where the score must stay below the mate scores. Then it compares the speed of the
+ * two evaluations, prints the pawn table hit rate, and searches with the evaluator.
+ * Argument: the number of random moves (default 200,000).
+ */
+public class EvaluatorCheck {
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    String[] fens = {
+        Board.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+    };
+    Random random = new Random(5004);
+    Evaluator evaluator = new Evaluator();
+    MoveList moves = new MoveList();
+    int mismatches = 0;
+    int checked = 0;
+    for (int n = 0; n < count; checked++) {
+      Board board = Board.fromFen(fens[checked % fens.length]);
+      for (int ply = 0; ply < 200 && n < count; ply++, n++) {
+        MoveGenerator.generate(board, moves);
+        if (moves.size() == 0) {
+          break;
+        }
+        // try a take-back first, then play a move for good
+        int trial = moves.get(random.nextInt(moves.size()));
+        board.makeMove(trial);
+        mismatches += same(evaluator, board) ? 0 : 1;
+        board.unmakeMove(trial);
+        board.makeMove(moves.get(random.nextInt(moves.size())));
+        mismatches += same(evaluator, board) ? 0 : 1;
+        mismatches += evaluator.evaluate(board) == evaluator.evaluate(mirror(board)) ? 0 : 1;
+      }
+    }
+    // 40 queens: the sums must not overflow and the score must not look like a mate
+    Board queens = Board.fromFen("QQQQQQQQ/QQQQQQQQ/QQQQQQQQ/QQQQQQQQ/QQQQQQQQ/k7/8/K7 w - - 0 1");
+    for (Board board : new Board[] {queens, mirror(queens)}) {
+      int score = evaluator.evaluate(board);
+      boolean ok = same(evaluator, board) && score > 0 && score <= Searcher.MATE - 1000;
+      System.out.println(board.toFen() + ": " + score + (ok ? "" : " mismatch"));
+      mismatches += ok ? 0 : 1;
+    }
+    System.out.println(checked + " games, " + count + " moves, mismatches: " + mismatches);
+    System.out.printf("pawn table hits %.1f%%%n", 100.0 * evaluator.getPawnHits()
+            / (evaluator.getPawnHits() + evaluator.getPawnMisses()));
+
+    Board board = Board.fromFen(fens[1]);
+    int rounds = 2_000_000;
+    long sum = 0;
+    for (int warm = 0; warm < 2; warm++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sum += evaluator.evaluate(board);
+      }
+      long incremental = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < rounds / 4; i++) {
+        sum += Evaluator.evaluateFromScratch(board);
+      }
+      long scratch = (System.nanoTime() - start) * 4;
+      if (warm == 1) {
+        System.out.printf("evaluate %.0f ns, from scratch %.0f ns (%d)%n",
+                incremental / (double) rounds, scratch / (double) rounds, sum & 1);
+      }
+    }
+
+    Searcher searcher = new Searcher(new TranspositionTable(64), 1);
+    Searcher.Result result = searcher.searchDepth(Board.fromFen(fens[1]), 7);
+    System.out.println("Kiwipete depth 7: " + result);
+
+    if (mismatches != 0) {
+      throw new IllegalStateException("Evaluator check failed");
+    }
+  }
+
+  private static boolean same(Evaluator evaluator, Board board) {
+    return evaluator.evaluate(board) == Evaluator.evaluateFromScratch(board);
+  }
+
+  /**
+   * the position with the rows reversed, the colors swapped and the other side to move
+   */
+  private static Board mirror(Board board) {
+    byte[] squares = new byte[64];
+    board.copySquares(squares, 0);
+    byte[] mirrored = new byte[64];
+    for (int sq = 0; sq < 64; sq++) {
+      int code = squares[sq];
+      mirrored[sq ^ 56] = (byte) (code == Board.EMPTY ? Board.EMPTY : (code + 6) % 12);
+    }
+    Board result = Board.fromSquares(mirrored, 0);
+    result.setSideToMove(board.getSideToMove() == Color.WHITE ? Color.BLACK : Color.WHITE);
+    return result;
+  }
+}
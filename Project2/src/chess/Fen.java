@@ -0,0 +1,233 @@
+package chess;
+
+/**
+ * This is the package-private helper class that reads and writes the fields of a FEN or EPD line
+ * as ASCII bytes, straight into and out of a Board, without creating any object. Board.fromFen,
+ * Board.toFen, FenReader and FenWriter all go through it, so there is a single parser and a
+ * single writer.
+ * Errors are returned as codes (see FenReader), not thrown, so a malformed line in a large file
+ * costs no more than a good one. The board content is undefined after an error.
+ */
+final class Fen {
+  private static final byte[] PIECES = {'p', 'n', 'b', 'r', 'q', 'k', 'P', 'N', 'B', 'R', 'Q', 'K'};
+  private static final byte[] RIGHTS = {'K', 'Q', 'k', 'q'};
+
+  private Fen() {
+  }
+
+  /**
+   * Parse the 4 position fields (placement, side, castling, en passant) and, if the next field
+   * is a number, the 2 move clocks; the clocks are otherwise set to 0 and 1
+   * @param board the board that is cleared and receives the position
+   * @param text the line, ASCII
+   * @param from index of the first byte
+   * @param to index after the last byte
+   * @return the index of the first byte after the parsed fields and the following blanks (the
+   * EPD operations, or to), or minus an error code of FenReader
+   */
+  static int parse(Board board, byte[] text, int from, int to) {
+    board.clear();
+    int i = skipBlanks(text, from, to);
+    if (i == to) {
+      return -FenReader.MISSING_FIELDS;
+    }
+    int row = 7;
+    int col = 0;
+    for (; i < to && !isBlank(text[i]); i++) {
+      byte c = text[i];
+      if (c == '/') {
+        if (col != 8 || row == 0) {
+          return -FenReader.BAD_PLACEMENT;
+        }
+        row--;
+        col = 0;
+      } else if (c >= '1' && c <= '8') {
+        col += c - '0';
+        if (col > 8) {
+          return -FenReader.BAD_PLACEMENT;
+        }
+      } else {
+        // PIECES is in Board code order
+        int code = indexOf(PIECES, c);
+        if (code < 0 || col > 7
+                || (code % 6 == PieceType.PAWN.ordinal() && (row == 0 || row == 7))) {
+          return -FenReader.BAD_PLACEMENT;
+        }
+        board.place(code, Bitboards.square(row, col++));
+      }
+    }
+    if (row != 0 || col != 8) {
+      return -FenReader.BAD_PLACEMENT;
+    }
+
+    i = skipBlanks(text, i, to);
+    if (i == to) {
+      return -FenReader.MISSING_FIELDS;
+    }
+    if ((text[i] != 'w' && text[i] != 'b') || (i + 1 < to && !isBlank(text[i + 1]))) {
+      return -FenReader.BAD_SIDE;
+    }
+    board.setSideToMove(text[i] == 'w' ? Color.WHITE : Color.BLACK);
+
+    i = skipBlanks(text, i + 1, to);
+    if (i == to) {
+      return -FenReader.MISSING_FIELDS;
+    }
+    int rights = 0;
+    if (text[i] == '-') {
+      i++;
+    } else {
+      for (; i < to && !isBlank(text[i]); i++) {
+        int right = indexOf(RIGHTS, text[i]);
+        if (right < 0 || (rights & 1 << right) != 0) {
+          return -FenReader.BAD_CASTLING;
+        }
+        rights |= 1 << right;
+      }
+    }
+    if (i < to && !isBlank(text[i])) {
+      return -FenReader.BAD_CASTLING;
+    }
+    board.setCastlingRights(rights);
+
+    i = skipBlanks(text, i, to);
+    if (i == to) {
+      return -FenReader.MISSING_FIELDS;
+    }
+    if (text[i] == '-') {
+      i++;
+    } else {
+      // the en passant square is behind a pawn of the side that is not to move
+      byte expectedRow = board.side() == Board.WHITE ? (byte) '6' : (byte) '3';
+      if (i + 1 >= to || text[i] < 'a' || text[i] > 'h' || text[i + 1] != expectedRow) {
+        return -FenReader.BAD_EN_PASSANT;
+      }
+      board.setEnPassantSquare(Bitboards.square(expectedRow - '1', text[i] - 'a'));
+      i += 2;
+    }
+    if (i < to && !isBlank(text[i])) {
+      return -FenReader.BAD_EN_PASSANT;
+    }
+
+    i = skipBlanks(text, i, to);
+    if (i == to || text[i] < '0' || text[i] > '9') {
+      board.setClocks(0, 1);
+      return i;
+    }
+    int halfmove = 0;
+    for (; i < to && text[i] >= '0' && text[i] <= '9'; i++) {
+      halfmove = halfmove * 10 + text[i] - '0';
+      if (halfmove > 9999) {
+        return -FenReader.BAD_CLOCKS;
+      }
+    }
+    if (i < to && !isBlank(text[i])) {
+      return -FenReader.BAD_CLOCKS;
+    }
+    i = skipBlanks(text, i, to);
+    int fullmove = 0;
+    int digits = 0;
+    for (; i < to && text[i] >= '0' && text[i] <= '9'; i++, digits++) {
+      fullmove = fullmove * 10 + text[i] - '0';
+      if (fullmove > 99999) {
+        return -FenReader.BAD_CLOCKS;
+      }
+    }
+    if (digits == 0 || fullmove == 0 || (i < to && !isBlank(text[i]))) {
+      return -FenReader.BAD_CLOCKS;
+    }
+    board.setClocks(halfmove, fullmove);
+    return skipBlanks(text, i, to);
+  }
+
+  /**
+   * Write the position fields of a board
+   * @param board the position
+   * @param out the buffer, needs at least 104 free bytes
+   * @param pos index of the first byte to write
+   * @param clocks true to also write the move clocks (FEN), false for the 4 EPD fields
+   * @return the index after the last written byte
+   */
+  static int write(Board board, byte[] out, int pos, boolean clocks) {
+    for (int row = 7; row >= 0; row--) {
+      int empty = 0;
+      for (int col = 0; col < 8; col++) {
+        int code = board.codeAt(Bitboards.square(row, col));
+        if (code == Board.EMPTY) {
+          empty++;
+          continue;
+        }
+        if (empty > 0) {
+          out[pos++] = (byte) ('0' + empty);
+          empty = 0;
+        }
+        out[pos++] = PIECES[code];
+      }
+      if (empty > 0) {
+        out[pos++] = (byte) ('0' + empty);
+      }
+      if (row > 0) {
+        out[pos++] = '/';
+      }
+    }
+    out[pos++] = ' ';
+    out[pos++] = board.side() == Board.WHITE ? (byte) 'w' : (byte) 'b';
+    out[pos++] = ' ';
+    int rights = board.getCastlingRights();
+    if (rights == 0) {
+      out[pos++] = '-';
+    }
+    for (int right = 0; right < 4; right++) {
+      if ((rights & 1 << right) != 0) {
+        out[pos++] = RIGHTS[right];
+      }
+    }
+    out[pos++] = ' ';
+    int enPassant = board.getEnPassantSquare();
+    if (enPassant < 0) {
+      out[pos++] = '-';
+    } else {
+      out[pos++] = (byte) ('a' + Bitboards.col(enPassant));
+      out[pos++] = (byte) ('1' + Bitboards.row(enPassant));
+    }
+    if (clocks) {
+      out[pos++] = ' ';
+      pos = writeNumber(board.getHalfmoveClock(), out, pos);
+      out[pos++] = ' ';
+      pos = writeNumber(board.getFullmoveNumber(), out, pos);
+    }
+    return pos;
+  }
+
+  static boolean isBlank(byte c) {
+    return c == ' ' || c == '\t' || c == '\r';
+  }
+
+  static int skipBlanks(byte[] text, int i, int to) {
+    while (i < to && isBlank(text[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int writeNumber(int value, byte[] out, int pos) {
+    int digits = 1;
+    for (int rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    for (int k = pos + digits - 1; k >= pos; k--) {
+      out[k] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    return pos + digits;
+  }
+
+  private static int indexOf(byte[] table, byte c) {
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
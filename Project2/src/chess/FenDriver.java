@@ -0,0 +1,109 @@
+package chess;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * This is the driver class of FenReader and FenWriter. It plays random games to get positions,
+ * writes them to a temporary file as FEN and EPD lines followed by a few malformed lines, reads
+ * the file back and checks that every position comes back with the same Zobrist key and that
+ * every malformed line is reported with the right error code. Then it prints the reading speed and the bytes
+ * allocated while reading.
+ * Argument: the number of positions (default 1,000,000).
+ */
+public class FenDriver {
+  public static void main(String[] args) throws IOException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    String[] malformed = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w KQkq - 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 x",
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+        "not a position"
+    };
+    int[] expectedErrors = {
+        FenReader.BAD_PLACEMENT, FenReader.BAD_SIDE, FenReader.BAD_CASTLING,
+        FenReader.BAD_EN_PASSANT, FenReader.BAD_CLOCKS, FenReader.MISSING_FIELDS,
+        FenReader.BAD_PLACEMENT
+    };
+
+    Path file = Files.createTempFile("positions", ".epd");
+    long[] keys = new long[count];
+    Random random = new Random(5004);
+    Board board = Board.startingPosition();
+    MoveList moves = new MoveList();
+    try (FenWriter writer = FenWriter.open(file)) {
+      for (int i = 0; i < count; i++) {
+        MoveGenerator.generate(board, moves);
+        if (moves.size() == 0 || board.getHalfmoveClock() >= 100) {
+          board = Board.startingPosition();
+          MoveGenerator.generate(board, moves);
+        }
+        board.makeMove(moves.get(random.nextInt(moves.size())));
+        keys[i] = board.getKey();
+        if (i % 2 == 0) {
+          writer.write(board);
+        } else {
+          writer.writeEpd(board, "id \"position " + i + "\";");
+        }
+      }
+    }
+    StringBuilder bad = new StringBuilder("\n");
+    for (String line : malformed) {
+      bad.append(line).append('\n');
+    }
+    Files.write(file, bad.toString().getBytes(StandardCharsets.US_ASCII),
+            StandardOpenOption.APPEND);
+
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    int[] errors = new int[8];
+    int mismatches = 0;
+    long bytes = Files.size(file);
+    long allocated;
+    long nanos;
+    long errorCount;
+    try (FenReader reader = FenReader.open(file)) {
+      reader.setErrorListener((r, line, error) -> errors[error]++);
+      Board target = new Board();
+      int i = 0;
+      long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      long start = System.nanoTime();
+      while (reader.next(target)) {
+        if (i >= count || target.getKey() != keys[i]) {
+          mismatches++;
+        }
+        i++;
+      }
+      nanos = System.nanoTime() - start;
+      allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId())
+              - allocatedBefore;
+      errorCount = reader.getErrorCount();
+      System.out.printf("Read %d positions and %d malformed lines of %d lines, %.1f MB%n",
+              reader.getPositionCount(), reader.getErrorCount(), reader.getLineNumber(),
+              bytes / 1e6);
+    }
+    Files.delete(file);
+    System.out.printf("%.0f ms, %.0f positions/s, %.1f MB/s, %d bytes allocated while reading%n",
+            nanos / 1e6, count * 1e9 / nanos, bytes * 1e3 / nanos, allocated);
+
+    int reported = 0;
+    for (int error : expectedErrors) {
+      reported += errors[error] > 0 ? 1 : 0;
+    }
+    System.out.println("Mismatched positions: " + mismatches + ", error kinds reported: "
+            + reported + " of " + expectedErrors.length);
+    Board copy = Board.fromFen(Board.startingPosition().toFen());
+    if (mismatches != 0 || reported != expectedErrors.length || errorCount != malformed.length
+            || copy.getKey() != Board.startingPosition().getKey()) {
+      throw new IllegalStateException("FEN round trip failed");
+    }
+  }
+}
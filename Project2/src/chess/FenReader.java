@@ -0,0 +1,308 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This is the FenReader class, which streams positions from a file or channel of FEN or EPD lines
+ * (one position per line) into a Board given by the caller. The bytes are read in blocks into one
+ * buffer and parsed in place, and the same board is refilled for every line, so reading millions
+ * of positions creates no garbage.
+ * A line holds the 4 position fields, then either the 2 move clocks (FEN) or EPD operations such
+ * as bm e4; id "test 1"; (see getOperations). Blank lines are skipped. A malformed line does not
+ * throw: it is counted, given to the ErrorListener if there is one, and skipped.
+ */
+public class FenReader implements AutoCloseable {
+  /**
+   * error codes given to the ErrorListener and returned by getLastError
+   */
+  public static final int OK = 0;
+  public static final int MISSING_FIELDS = 1;
+  public static final int BAD_PLACEMENT = 2;
+  public static final int BAD_SIDE = 3;
+  public static final int BAD_CASTLING = 4;
+  public static final int BAD_EN_PASSANT = 5;
+  public static final int BAD_CLOCKS = 6;
+  public static final int LINE_TOO_LONG = 7;
+
+  private static final String[] DESCRIPTIONS = {
+      "OK", "Missing fields", "Bad piece placement", "Side to move must be w or b",
+      "Bad castling rights", "Bad en passant square", "Bad move clocks", "Line too long"
+  };
+
+  /**
+   * This is the interface of the callback that receives the malformed lines
+   */
+  public interface ErrorListener {
+    /**
+     * @param reader the reader, currentLine() gives the text of the line
+     * @param lineNumber number of the line, starting at 1
+     * @param error one of the error codes of FenReader
+     */
+    void malformed(FenReader reader, long lineNumber, int error);
+  }
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final byte[] bytes;
+  // bytes[start, limit) holds data not parsed yet
+  private int start;
+  private int limit;
+  private boolean endOfInput;
+  // bytes[lineFrom, lineTo) is the current line, without the line break
+  private int lineFrom;
+  private int lineTo;
+  private boolean lineTooLong;
+  private int operationsFrom;
+  private int operationsTo;
+  private long lineNumber;
+  private long positions;
+  private long errors;
+  private int lastError;
+  private ErrorListener listener;
+
+  /**
+   * FenReader constructor, with a 64 KB buffer
+   * @param channel the input, closed by close()
+   */
+  public FenReader(ReadableByteChannel channel) {
+    this(channel, 1 << 16);
+  }
+
+  /**
+   * FenReader constructor
+   * @param channel the input, closed by close()
+   * @param bufferSize the buffer size in bytes, the longest line that can be read
+   * throw IllegalArgumentException if bufferSize is less than 128
+   */
+  public FenReader(ReadableByteChannel channel, int bufferSize) {
+    if (bufferSize < 128) {
+      throw new IllegalArgumentException("The buffer must hold at least 128 bytes");
+    }
+    this.channel = channel;
+    this.bytes = new byte[bufferSize];
+    this.buffer = ByteBuffer.wrap(bytes);
+  }
+
+  /**
+   * @param path the file to be read
+   * @return a reader of the file
+   * @throws IOException if the file cannot be opened
+   */
+  public static FenReader open(Path path) throws IOException {
+    return new FenReader(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  /**
+   * @param error an error code
+   * @return a description of the error, e.g. "Bad castling rights"
+   */
+  public static String describe(int error) {
+    return error >= 0 && error < DESCRIPTIONS.length ? DESCRIPTIONS[error] : "Unknown error";
+  }
+
+  /**
+   * @param listener the callback for malformed lines, null for none
+   */
+  public void setErrorListener(ErrorListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Read the next well-formed line into a board, skipping the malformed ones
+   * @param board the board that receives the position
+   * @return true if a position was read, false at the end of the input
+   * @throws IOException if the channel cannot be read
+   */
+  public boolean next(Board board) throws IOException {
+    while (nextLine()) {
+      if (lineTooLong) {
+        report(LINE_TOO_LONG);
+        continue;
+      }
+      int from = Fen.skipBlanks(bytes, lineFrom, lineTo);
+      if (from == lineTo) {
+        continue;
+      }
+      int end = Fen.parse(board, bytes, from, lineTo);
+      if (end < 0) {
+        report(-end);
+        continue;
+      }
+      int to = lineTo;
+      while (to > end && Fen.isBlank(bytes[to - 1])) {
+        to--;
+      }
+      operationsFrom = end;
+      operationsTo = to;
+      positions++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Append the EPD operations of the last position read, e.g. bm e4; id "test 1";
+   * @param out receives the text, nothing if the line had none
+   * @return out
+   */
+  public StringBuilder getOperations(StringBuilder out) {
+    for (int i = operationsFrom; i < operationsTo; i++) {
+      out.append((char) (bytes[i] & 0xFF));
+    }
+    return out;
+  }
+
+  /**
+   * Find one EPD operation of the last position read
+   * @param opcode the opcode, e.g. "bm" or "id"
+   * @return the operands, without quotes around a single string, null if the opcode is absent
+   */
+  public String getOperation(String opcode) {
+    int i = operationsFrom;
+    while (i < operationsTo) {
+      i = Fen.skipBlanks(bytes, i, operationsTo);
+      int codeEnd = i;
+      while (codeEnd < operationsTo && !Fen.isBlank(bytes[codeEnd]) && bytes[codeEnd] != ';') {
+        codeEnd++;
+      }
+      // the operands run to the first ; outside of a string
+      int end = codeEnd;
+      boolean quoted = false;
+      while (end < operationsTo && (quoted || bytes[end] != ';')) {
+        quoted ^= bytes[end] == '"';
+        end++;
+      }
+      if (matches(opcode, i, codeEnd)) {
+        int from = Fen.skipBlanks(bytes, codeEnd, end);
+        int to = end;
+        while (to > from && Fen.isBlank(bytes[to - 1])) {
+          to--;
+        }
+        if (to - from >= 2 && bytes[from] == '"' && bytes[to - 1] == '"') {
+          from++;
+          to--;
+        }
+        return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+      }
+      i = end + 1;
+    }
+    return null;
+  }
+
+  /**
+   * @return the text of the current line, for error messages
+   */
+  public String currentLine() {
+    return new String(bytes, lineFrom, lineTo - lineFrom, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * @return the number of the last line read, starting at 1
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * @return the number of positions read
+   */
+  public long getPositionCount() {
+    return positions;
+  }
+
+  /**
+   * @return the number of malformed lines skipped
+   */
+  public long getErrorCount() {
+    return errors;
+  }
+
+  /**
+   * @return the error code of the last malformed line, OK if there was none
+   */
+  public int getLastError() {
+    return lastError;
+  }
+
+  /**
+   * close the channel
+   * @throws IOException if the channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void report(int error) {
+    errors++;
+    lastError = error;
+    if (listener != null) {
+      listener.malformed(this, lineNumber, error);
+    }
+  }
+
+  /**
+   * move to the next line, reading more input when needed
+   * @return false at the end of the input
+   */
+  private boolean nextLine() throws IOException {
+    lineTooLong = false;
+    int scan = start;
+    while (true) {
+      for (int i = scan; i < limit; i++) {
+        if (bytes[i] == '\n') {
+          lineFrom = start;
+          lineTo = i;
+          start = i + 1;
+          lineNumber++;
+          return true;
+        }
+      }
+      if (endOfInput) {
+        if (start == limit && !lineTooLong) {
+          return false;
+        }
+        lineFrom = start;
+        lineTo = limit;
+        start = limit;
+        lineNumber++;
+        return true;
+      }
+      if (start > 0) {
+        System.arraycopy(bytes, start, bytes, 0, limit - start);
+        limit -= start;
+        start = 0;
+      } else if (limit == bytes.length) {
+        // no line break in a full buffer: drop what was read of the line and keep looking
+        lineTooLong = true;
+        limit = 0;
+      }
+      scan = limit;
+      buffer.clear().position(limit);
+      int read = channel.read(buffer);
+      if (read < 0) {
+        endOfInput = true;
+      } else {
+        limit += read;
+      }
+    }
+  }
+
+  private boolean matches(String opcode, int from, int to) {
+    if (to - from != opcode.length()) {
+      return false;
+    }
+    for (int i = 0; i < opcode.length(); i++) {
+      if (bytes[from + i] != opcode.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,131 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This is the FenWriter class, the reverse of FenReader: it writes boards as FEN or EPD lines to
+ * a file or channel. Lines are formatted straight into one byte buffer, which is written out when
+ * full, so writing creates no garbage.
+ */
+public class FenWriter implements AutoCloseable {
+  // longest position fields with clocks, see Fen.write, plus the line break
+  private static final int MAX_FIELDS = 105;
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final byte[] bytes;
+  private int pos;
+  private long lines;
+
+  /**
+   * FenWriter constructor, with a 64 KB buffer
+   * @param channel the output, closed by close()
+   */
+  public FenWriter(WritableByteChannel channel) {
+    this(channel, 1 << 16);
+  }
+
+  /**
+   * FenWriter constructor
+   * @param channel the output, closed by close()
+   * @param bufferSize the buffer size in bytes
+   * throw IllegalArgumentException if bufferSize is less than 128
+   */
+  public FenWriter(WritableByteChannel channel, int bufferSize) {
+    if (bufferSize < 128) {
+      throw new IllegalArgumentException("The buffer must hold at least 128 bytes");
+    }
+    this.channel = channel;
+    this.bytes = new byte[bufferSize];
+    this.buffer = ByteBuffer.wrap(bytes);
+  }
+
+  /**
+   * @param path the file to be written, replaced if it exists
+   * @return a writer of the file
+   * @throws IOException if the file cannot be created
+   */
+  public static FenWriter open(Path path) throws IOException {
+    return new FenWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+  }
+
+  /**
+   * Write a position as a FEN line, with the move clocks
+   * @param board the position
+   * @throws IOException if the channel cannot be written
+   */
+  public void write(Board board) throws IOException {
+    ensureSpace(MAX_FIELDS);
+    pos = Fen.write(board, bytes, pos, true);
+    bytes[pos++] = '\n';
+    lines++;
+  }
+
+  /**
+   * Write a position as an EPD line: the 4 position fields followed by operations
+   * @param board the position
+   * @param operations e.g. "bm e4; id \"test 1\";", empty for none, ASCII
+   * @throws IOException if the channel cannot be written
+   */
+  public void writeEpd(Board board, CharSequence operations) throws IOException {
+    ensureSpace(MAX_FIELDS);
+    pos = Fen.write(board, bytes, pos, false);
+    if (operations.length() > 0) {
+      bytes[pos++] = ' ';
+      for (int i = 0; i < operations.length(); i++) {
+        if (pos == bytes.length) {
+          flush();
+        }
+        char c = operations.charAt(i);
+        bytes[pos++] = c < 128 ? (byte) c : (byte) '?';
+      }
+    }
+    ensureSpace(1);
+    bytes[pos++] = '\n';
+    lines++;
+  }
+
+  /**
+   * @return the number of lines written
+   */
+  public long getLineCount() {
+    return lines;
+  }
+
+  /**
+   * write the buffered lines to the channel
+   * @throws IOException if the channel cannot be written
+   */
+  public void flush() throws IOException {
+    buffer.clear().limit(pos);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    pos = 0;
+  }
+
+  /**
+   * flush and close the channel
+   * @throws IOException if the channel cannot be written or closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void ensureSpace(int size) throws IOException {
+    if (pos + size > bytes.length) {
+      flush();
+    }
+  }
+}
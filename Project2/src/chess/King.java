@@ -17,16 +17,15 @@ public class King extends AbstractChess{
   /**
    * King move 1 square in either horizontal，vertical or diagonal,
    * this means the row diff or col diff between current position and destination must be 1
+   * answered by a lookup in the precomputed AttackTables.kingAttacks mask
    * @param row the row where the piece might be moved to.
    * @param col the column where the piece might be moved to.
    * @return true if in boundary and in 1 of the neighboring 8 positions, return false otherwise
    */
   @Override
   public boolean canMove(int row, int col) {
-    boolean inBoundary = super.inBoundary(row, col);
-    int rowDiff = Math.abs(row - this.currentRow);
-    int colDiff = Math.abs(col - this.currentCol);
-    return inBoundary && ((rowDiff == 1 && colDiff == 1) ||
-            (rowDiff == 0 && colDiff == 1) || (rowDiff == 1 && colDiff == 0));
+    return Bitboards.onBoard(row, col) && (AttackTables.kingAttacks(
+            Bitboards.square(this.currentRow, this.currentCol))
+            & Bitboards.bit(Bitboards.square(row, col))) != 0;
   }
 }
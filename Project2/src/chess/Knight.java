@@ -20,14 +20,13 @@ public class Knight extends AbstractChess {
    * @param row the row where the piece might be moved to.
    * @param col the column where the piece might be moved to.
    * @return true if in boundary and dest is in L distance, else return false
+   * answered by a lookup in the precomputed AttackTables.knightAttacks mask
    */
   @Override
   public boolean canMove(int row, int col) {
-    // inherit from abstract class
-    boolean inBoundary = super.inBoundary(row, col);
-    int rowDiff = Math.abs(row - this.currentRow);
-    int colDiff = Math.abs(col - this.currentCol);
-    return inBoundary && ((rowDiff == 2 && colDiff == 1) || (rowDiff == 1 && colDiff == 2));
+    return Bitboards.onBoard(row, col) && (AttackTables.knightAttacks(
+            Bitboards.square(this.currentRow, this.currentCol))
+            & Bitboards.bit(Bitboards.square(row, col))) != 0;
   }
 
 }
@@ -0,0 +1,109 @@
+package chess;
+
+/**
+ * This is the helper class for moves packed into an int, so move lists are plain int arrays:
+ *   bits 0-5    from square (row * 8 + col)
+ *   bits 6-11   to square
+ *   bits 12-15  flags: QUIET, DOUBLE_PUSH, KING_CASTLE, QUEEN_CASTLE, CAPTURE, EN_PASSANT, or a
+ *               promotion (PROMOTION bit set, CAPTURE bit set if it also captures, the 2 lowest
+ *               bits giving the new piece: 0 knight, 1 bishop, 2 rook, 3 queen)
+ * 0 (from 0 to 0, quiet) is never a legal move, so it is used as NONE.
+ */
+public final class Move {
+  public static final int NONE = 0;
+
+  public static final int QUIET = 0;
+  public static final int DOUBLE_PUSH = 1;
+  public static final int KING_CASTLE = 2;
+  public static final int QUEEN_CASTLE = 3;
+  public static final int CAPTURE = 4;
+  public static final int EN_PASSANT = 5;
+  public static final int PROMOTION = 8;
+
+  private Move() {
+  }
+
+  /**
+   * @param from square index the piece moves from
+   * @param to square index the piece moves to
+   * @param flags one of the flag constants, or PROMOTION (| CAPTURE) | promotion piece index
+   * @return the packed move
+   */
+  public static int of(int from, int to, int flags) {
+    return from | to << 6 | flags << 12;
+  }
+
+  /**
+   * @param move a packed move
+   * @return the square index the piece moves from
+   */
+  public static int from(int move) {
+    return move & 63;
+  }
+
+  /**
+   * @param move a packed move
+   * @return the square index the piece moves to
+   */
+  public static int to(int move) {
+    return (move >>> 6) & 63;
+  }
+
+  /**
+   * @param move a packed move
+   * @return the 4 flag bits
+   */
+  public static int flags(int move) {
+    return (move >>> 12) & 15;
+  }
+
+  /**
+   * @param move a packed move
+   * @return true if the move removes an enemy piece (including en passant)
+   */
+  public static boolean isCapture(int move) {
+    return (flags(move) & CAPTURE) != 0;
+  }
+
+  /**
+   * @param move a packed move
+   * @return true if a pawn is promoted
+   */
+  public static boolean isPromotion(int move) {
+    return (flags(move) & PROMOTION) != 0;
+  }
+
+  /**
+   * @param move a packed move
+   * @return true if the move is a castling (the king moves 2 squares)
+   */
+  public static boolean isCastle(int move) {
+    int flags = flags(move);
+    return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+  }
+
+  /**
+   * @param move a packed promotion move
+   * @return the type of the new piece (KNIGHT, BISHOP, ROOK or QUEEN)
+   */
+  public static PieceType promotion(int move) {
+    return Board.TYPES[PieceType.KNIGHT.ordinal() + (flags(move) & 3)];
+  }
+
+  /**
+   * @param move a packed move
+   * @return the move in coordinate notation, e.g. "e2e4" or "e7e8q" (column a-h, row 1-8)
+   */
+  public static String toString(int move) {
+    String text = squareName(from(move)) + squareName(to(move));
+    return isPromotion(move) ? text + "nbrq".charAt(flags(move) & 3) : text;
+  }
+
+  /**
+   * @param square square index 0-63
+   * @return the square name, column a-h followed by row 1-8, e.g. 12 is "e2"
+   */
+  public static String squareName(int square) {
+    return "" + (char) ('a' + Bitboards.col(square)) + (char) ('1' + Bitboards.row(square));
+  }
+}
@@ -0,0 +1,201 @@
+package chess;
+
+/**
+ * This is the MoveGenerator class, which lists the legal moves of the side to move on a Board.
+ * Moves are first generated pseudo-legally from the attack tables (they may leave the own king
+ * attacked), then each one is made, tested with Board.inCheck-style attack detection and taken
+ * back. Pawns get the single step, the double step from their first row (Pawn.isFirst), diagonal
+ * captures, en passant and the 4 promotions; kings also get castling, which needs the right, empty
+ * squares between king and rook, and no attacked square on the king's way.
+ * Nothing is allocated: moves are written as packed ints into a MoveList given by the caller.
+ */
+public final class MoveGenerator {
+  private static final int PAWN = PieceType.PAWN.ordinal();
+  private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+  private static final int BISHOP = PieceType.BISHOP.ordinal();
+  private static final int ROOK = PieceType.ROOK.ordinal();
+  private static final int QUEEN = PieceType.QUEEN.ordinal();
+  private static final int KING = PieceType.KING.ordinal();
+
+  private MoveGenerator() {
+  }
+
+  /**
+   * List every legal move of the side to move
+   * @param board the position, left unchanged
+   * @param moves list that is cleared and receives the moves
+   */
+  public static void generate(Board board, MoveList moves) {
+    moves.clear();
+    generatePseudoLegal(board, moves, false);
+    filterLegal(board, moves);
+  }
+
+  /**
+   * List the legal captures and promotions of the side to move, the moves a quiescence search
+   * looks at
+   * @param board the position, left unchanged
+   * @param moves list that is cleared and receives the moves
+   */
+  public static void generateCaptures(Board board, MoveList moves) {
+    moves.clear();
+    generatePseudoLegal(board, moves, true);
+    filterLegal(board, moves);
+  }
+
+  /**
+   * @param board the position, left unchanged
+   * @param move a packed move
+   * @return true if the move is one of the legal moves of the position
+   */
+  public static boolean isLegal(Board board, int move) {
+    return isLegal(board, move, new MoveList());
+  }
+
+  /**
+   * Check a move without allocating, for callers that check many moves
+   * @param board the position, left unchanged
+   * @param move a packed move
+   * @param scratch list that is cleared and receives the legal moves of the position
+   * @return true if the move is one of the legal moves of the position
+   */
+  public static boolean isLegal(Board board, int move, MoveList scratch) {
+    generate(board, scratch);
+    return scratch.contains(move);
+  }
+
+  /**
+   * Append the pseudo-legal moves of the side to move
+   * @param capturesOnly true to only append captures and promotions
+   */
+  static void generatePseudoLegal(Board board, MoveList moves, boolean capturesOnly) {
+    int us = board.side();
+    int them = 1 - us;
+    int base = us * 6;
+    long own = board.colorOccupancy(us);
+    long enemy = board.colorOccupancy(them);
+    long all = own | enemy;
+    long targets = capturesOnly ? enemy : ~own;
+
+    pawnMoves(board, moves, us, board.bitboard(base + PAWN), enemy, all, capturesOnly);
+    for (long pieces = board.bitboard(base + KNIGHT); pieces != 0; pieces &= pieces - 1) {
+      int from = Long.numberOfTrailingZeros(pieces);
+      addMoves(moves, from, AttackTables.knightAttacks(from) & targets, enemy);
+    }
+    for (long pieces = board.bitboard(base + BISHOP) | board.bitboard(base + QUEEN);
+         pieces != 0; pieces &= pieces - 1) {
+      int from = Long.numberOfTrailingZeros(pieces);
+      addMoves(moves, from, SlidingAttacks.bishopAttacks(from, all) & targets, enemy);
+    }
+    for (long pieces = board.bitboard(base + ROOK) | board.bitboard(base + QUEEN);
+         pieces != 0; pieces &= pieces - 1) {
+      int from = Long.numberOfTrailingZeros(pieces);
+      addMoves(moves, from, SlidingAttacks.rookAttacks(from, all) & targets, enemy);
+    }
+    long king = board.bitboard(base + KING);
+    if (king != 0) {
+      int from = Long.numberOfTrailingZeros(king);
+      addMoves(moves, from, AttackTables.kingAttacks(from) & targets, enemy);
+      if (!capturesOnly) {
+        castlingMoves(board, moves, us, from, all);
+      }
+    }
+  }
+
+  /**
+   * keep only the moves that do not leave the own king attacked, in place
+   */
+  private static void filterLegal(Board board, MoveList moves) {
+    int us = board.side();
+    int kept = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      board.makeMove(move);
+      long king = board.bitboard(us * 6 + KING);
+      boolean legal = king == 0 || board.attackersTo(Long.numberOfTrailingZeros(king), 1 - us,
+              board.occupancy()) == 0;
+      board.unmakeMove(move);
+      if (legal) {
+        moves.set(kept++, move);
+      }
+    }
+    moves.truncate(kept);
+  }
+
+  private static void addMoves(MoveList moves, int from, long targets, long enemy) {
+    for (; targets != 0; targets &= targets - 1) {
+      int to = Long.numberOfTrailingZeros(targets);
+      moves.add(Move.of(from, to, (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET));
+    }
+  }
+
+  private static void pawnMoves(Board board, MoveList moves, int us, long pawns, long enemy,
+                                long all, boolean capturesOnly) {
+    int forward = us == Board.WHITE ? 8 : -8;
+    int startRow = us == Board.WHITE ? 1 : 6;
+    int lastRow = us == Board.WHITE ? 7 : 0;
+    int enPassant = board.getEnPassantSquare();
+    for (; pawns != 0; pawns &= pawns - 1) {
+      int from = Long.numberOfTrailingZeros(pawns);
+      int to = from + forward;
+      boolean promotes = Bitboards.row(to) == lastRow;
+      if ((all & Bitboards.bit(to)) == 0) {
+        if (promotes) {
+          addPromotions(moves, from, to, 0);
+        } else if (!capturesOnly) {
+          moves.add(Move.of(from, to, Move.QUIET));
+          if (Bitboards.row(from) == startRow && (all & Bitboards.bit(to + forward)) == 0) {
+            moves.add(Move.of(from, to + forward, Move.DOUBLE_PUSH));
+          }
+        }
+      }
+      long attacks = AttackTables.pawnAttacks(us, from);
+      for (long captures = attacks & enemy; captures != 0; captures &= captures - 1) {
+        int target = Long.numberOfTrailingZeros(captures);
+        if (promotes) {
+          addPromotions(moves, from, target, Move.CAPTURE);
+        } else {
+          moves.add(Move.of(from, target, Move.CAPTURE));
+        }
+      }
+      if (enPassant >= 0 && (attacks & Bitboards.bit(enPassant)) != 0) {
+        moves.add(Move.of(from, enPassant, Move.EN_PASSANT));
+      }
+    }
+  }
+
+  private static void addPromotions(MoveList moves, int from, int to, int capture) {
+    // queen first, it is nearly always the best one
+    for (int piece = 3; piece >= 0; piece--) {
+      moves.add(Move.of(from, to, Move.PROMOTION | capture | piece));
+    }
+  }
+
+  private static void castlingMoves(Board board, MoveList moves, int us, int from, long all) {
+    int rights = board.getCastlingRights();
+    int kingside = us == Board.WHITE ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+    int queenside = us == Board.WHITE ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+    int home = us == Board.WHITE ? 4 : 60;
+    if ((rights & (kingside | queenside)) == 0 || from != home) {
+      return;
+    }
+    int them = 1 - us;
+    int rook = us * 6 + ROOK;
+    if ((rights & kingside) != 0 && board.codeAt(home + 3) == rook
+            && (all & (Bitboards.bit(home + 1) | Bitboards.bit(home + 2))) == 0
+            && !attacked(board, them, all, home, home + 1, home + 2)) {
+      moves.add(Move.of(home, home + 2, Move.KING_CASTLE));
+    }
+    if ((rights & queenside) != 0 && board.codeAt(home - 4) == rook
+            && (all & (Bitboards.bit(home - 1) | Bitboards.bit(home - 2)
+            | Bitboards.bit(home - 3))) == 0
+            && !attacked(board, them, all, home, home - 1, home - 2)) {
+      moves.add(Move.of(home, home - 2, Move.QUEEN_CASTLE));
+    }
+  }
+
+  private static boolean attacked(Board board, int by, long all, int a, int b, int c) {
+    return board.attackersTo(a, by, all) != 0 || board.attackersTo(b, by, all) != 0
+            || board.attackersTo(c, by, all) != 0;
+  }
+}
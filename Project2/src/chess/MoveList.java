@@ -0,0 +1,87 @@
+package chess;
+
+/**
+ * This is the MoveList class, a reusable buffer of packed moves (see Move). The generator clears
+ * it and appends to it, so one list per search ply can be allocated up front and reused for
+ * every position visited at that ply.
+ */
+public class MoveList {
+  /**
+   * no legal chess position has more than 218 moves
+   */
+  public static final int CAPACITY = 256;
+
+  private final int[] moves = new int[CAPACITY];
+  private int size;
+
+  /**
+   * @return the number of moves in the list
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @param i index of the move
+   * @return the packed move at index i
+   */
+  public int get(int i) {
+    return moves[i];
+  }
+
+  /**
+   * Overwrite the move at index i, e.g. to reorder the list
+   * @param i index of the move
+   * @param move the packed move
+   */
+  public void set(int i, int move) {
+    moves[i] = move;
+  }
+
+  /**
+   * remove every move
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Keep only the first moves of the list
+   * @param size the new size, at most size()
+   */
+  public void truncate(int size) {
+    this.size = size;
+  }
+
+  /**
+   * @param move the packed move to be appended
+   */
+  public void add(int move) {
+    moves[size++] = move;
+  }
+
+  /**
+   * @param move a packed move
+   * @return true if the list holds the move
+   */
+  public boolean contains(int move) {
+    for (int i = 0; i < size; i++) {
+      if (moves[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the moves in coordinate notation, e.g. "[e2e4, d2d4]"
+   */
+  @Override
+  public String toString() {
+    StringBuilder acc = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      acc.append(i > 0 ? ", " : "").append(Move.toString(moves[i]));
+    }
+    return acc.append(']').toString();
+  }
+}
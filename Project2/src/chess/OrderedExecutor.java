@@ -0,0 +1,102 @@
+package chess;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This is the OrderedExecutor class, the pipeline behind BatchAnalyzer and PgnValidator: it takes
+ * tasks from a source and runs them on an executor, but never more than `window` at a time. When
+ * the window is full the caller waits for the oldest task, so a slow consumer or a huge input
+ * cannot fill the memory (back-pressure), and the results are given to the consumer in the order
+ * of the source.
+ * @param <T> the type of the results
+ */
+final class OrderedExecutor<T> implements AutoCloseable {
+  /**
+   * This is the interface of the source of the tasks
+   * @param <T> the type of the results
+   * @param <E> the exception thrown while reading the source
+   */
+  interface Source<T, E extends Exception> {
+    /**
+     * @return the next task, null when the source is exhausted
+     * @throws E if the source cannot be read
+     */
+    Callable<T> next() throws E;
+  }
+
+  private final ExecutorService executor;
+  private final int window;
+
+  /**
+   * OrderedExecutor constructor
+   * @param executor runs the tasks, shut down by close
+   * @param window the largest number of tasks in flight
+   * throw IllegalArgumentException if window is less than 1
+   */
+  OrderedExecutor(ExecutorService executor, int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("window must be at least 1");
+    }
+    this.executor = executor;
+    this.window = window;
+  }
+
+  /**
+   * @param threads number of threads
+   * @param name name of the threads
+   * @return a fixed pool of daemon threads, so a forgotten close does not keep the JVM alive
+   */
+  static ExecutorService fixedPool(int threads, String name) {
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Run every task of the source, in parallel, and hand the results over in source order
+   * @param source the tasks, read one window ahead of the consumer
+   * @param consumer receives one result per task, on the calling thread
+   * @param <E> the exception thrown by the source
+   * @throws E if the source cannot be read
+   * throw IllegalStateException if a task fails or the caller is interrupted
+   */
+  <E extends Exception> void run(Source<T, E> source, Consumer<T> consumer) throws E {
+    ArrayDeque<Future<T>> inFlight = new ArrayDeque<>(window);
+    Callable<T> task = source.next();
+    while (task != null || !inFlight.isEmpty()) {
+      if (task != null && inFlight.size() < window) {
+        inFlight.add(executor.submit(task));
+        task = source.next();
+        continue;
+      }
+      consumer.accept(await(inFlight.poll()));
+    }
+  }
+
+  /**
+   * stop the worker threads
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a result", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Task failed", e.getCause());
+    }
+  }
+}
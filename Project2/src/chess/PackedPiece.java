@@ -0,0 +1,103 @@
+package chess;
+
+/**
+ * This is the helper class for a chess piece packed into a small int, so positions and piece
+ * lists can be stored as plain int, short or byte arrays instead of piece objects:
+ *   bits 0-5    square (row * 8 + col)
+ *   bits 6-9    piece code, color.ordinal() * 6 + type.ordinal(), the value Board stores per
+ *               square in its byte[64]
+ * Every packed piece is between 0 and 767. PieceView.of(piece) gives the canonical immutable
+ * ChessPiece of a packed piece, for canMove and canKill without allocation.
+ */
+public final class PackedPiece {
+  /**
+   * number of distinct packed pieces, 12 piece codes times 64 squares
+   */
+  public static final int COUNT = 12 * 64;
+
+  private PackedPiece() {
+  }
+
+  /**
+   * @param type type of the piece
+   * @param color color of the piece
+   * @param row row index 0-7
+   * @param col col index 0-7
+   * @return the packed piece
+   * throw IllegalArgumentException if the position is out of the board
+   */
+  public static int of(PieceType type, Color color, int row, int col) {
+    if (!Bitboards.onBoard(row, col)) {
+      throw new IllegalArgumentException("The position (" + row + ", " + col
+              + ") is out of board boundary");
+    }
+    return Bitboards.square(row, col) | (color.ordinal() * 6 + type.ordinal()) << 6;
+  }
+
+  /**
+   * @param piece a chess piece object
+   * @return the packed piece of its type, color and square
+   * throw IllegalArgumentException if the piece is of an unknown class
+   */
+  public static int of(ChessPiece piece) {
+    return of(Board.typeOf(piece), piece.getColor(), piece.getRow(), piece.getColumn());
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the square index, row * 8 + col
+   */
+  public static int square(int piece) {
+    return piece & 63;
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the row index
+   */
+  public static int row(int piece) {
+    return (piece >>> 3) & 7;
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the col index
+   */
+  public static int col(int piece) {
+    return piece & 7;
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the piece code, color.ordinal() * 6 + type.ordinal()
+   */
+  public static int code(int piece) {
+    return piece >>> 6;
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the type of the piece
+   */
+  public static PieceType type(int piece) {
+    return Board.TYPES[code(piece) % 6];
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the color of the piece
+   */
+  public static Color color(int piece) {
+    return Board.COLORS[code(piece) / 6];
+  }
+
+  /**
+   * @param piece a packed piece
+   * @return the piece as a letter (upper case for white, as in FEN) and a square name, e.g. "Qd1"
+   */
+  public static String toString(int piece) {
+    char letter = "pnbrqk".charAt(code(piece) % 6);
+    return (color(piece) == Color.WHITE ? Character.toUpperCase(letter) : letter)
+            + Move.squareName(square(piece));
+  }
+}
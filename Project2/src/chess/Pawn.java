@@ -71,22 +71,14 @@ public class Pawn extends AbstractChess {
    * @param piece the piece that might be killed.
    * @return true if the target piece is in boundary and in different color, and also with 1 col
    * diff and 1 row diff (white row + and black row -)
+   * answered by a lookup in the precomputed AttackTables.pawnAttacks mask of the pawn's color
    */
   @Override
   public boolean canKill(ChessPiece piece) {
-    int rowStep = piece.getRow() - this.currentRow;
-    int colDiff = Math.abs(piece.getColumn() - this.currentCol);
-    Color pieceColor = piece.getColor();
-    if (pieceColor == getColor()) {
+    if (piece.getColor() == getColor() || !Bitboards.onBoard(piece.getRow(), piece.getColumn())) {
       return false;
     }
-    else if (pieceColor == Color.WHITE && getColor() == Color.BLACK) {
-      // black moves down (row-)
-      return (colDiff == 1 && rowStep == -1);
-    }
-    else {
-      // white moves up (row+)
-      return (colDiff == 1 && rowStep == 1);
-    }
+    return (AttackTables.pawnAttacks(getColor(), Bitboards.square(this.currentRow, this.currentCol))
+            & Bitboards.bit(Bitboards.square(piece.getRow(), piece.getColumn()))) != 0;
   }
 }
@@ -0,0 +1,114 @@
+package chess;
+
+/**
+ * This is the perft driver class. Perft counts the leaf nodes of the full move tree of a position
+ * to a fixed depth; the counts of the standard positions below are known exactly, so any bug in
+ * castling, en passant, promotion, pins or checks shows up as a wrong number.
+ * Each position is searched depth by depth until the next depth would pass the node limit
+ * (first argument, default 5,000,000), printing the count, the time and the nodes per second.
+ * Run with a FEN and a depth ("Perft fen 3 r3k2r/...") to print the count below each move instead,
+ * which narrows a wrong count down to one move.
+ */
+public class Perft {
+  private static final String[] NAMES = {
+      "start", "kiwipete", "position 3", "position 4", "position 5", "position 6"
+  };
+  private static final String[] FENS = {
+      Board.START_FEN,
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+      "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+      "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+  };
+  // EXPECTED[position][depth - 1]
+  private static final long[][] EXPECTED = {
+      {20, 400, 8_902, 197_281, 4_865_609, 119_060_324},
+      {48, 2_039, 97_862, 4_085_603, 193_690_690},
+      {14, 191, 2_812, 43_238, 674_624, 11_030_083},
+      {6, 264, 9_467, 422_333, 15_833_292},
+      {44, 1_486, 62_379, 2_103_487, 89_941_194},
+      {46, 2_079, 89_890, 3_894_594, 164_075_551}
+  };
+
+  public static void main(String[] args) {
+    if (args.length == 3 && args[0].equals("fen")) {
+      divide(Board.fromFen(args[2]), Integer.parseInt(args[1]));
+      return;
+    }
+    long limit = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+    int failures = 0;
+    long totalNodes = 0;
+    long totalNanos = 0;
+    System.out.printf("%-12s %5s %12s %10s %12s%n", "position", "depth", "nodes", "ms", "nodes/s");
+    for (int p = 0; p < FENS.length; p++) {
+      Board board = Board.fromFen(FENS[p]);
+      for (int depth = 1; depth <= EXPECTED[p].length && EXPECTED[p][depth - 1] <= limit;
+           depth++) {
+        long start = System.nanoTime();
+        long nodes = perft(board, depth);
+        long nanos = System.nanoTime() - start;
+        boolean ok = nodes == EXPECTED[p][depth - 1];
+        if (!ok) {
+          failures++;
+        }
+        totalNodes += nodes;
+        totalNanos += nanos;
+        System.out.printf("%-12s %5d %12d %10.1f %12.0f %s%n", NAMES[p], depth, nodes,
+                nanos / 1e6, nodes * 1e9 / nanos,
+                ok ? "" : "FAILED, expected " + EXPECTED[p][depth - 1]);
+      }
+    }
+    System.out.printf("total %d nodes, %.0f nodes/s%n", totalNodes, totalNodes * 1e9 / totalNanos);
+    if (failures != 0) {
+      throw new IllegalStateException(failures + " perft counts are wrong");
+    }
+  }
+
+  /**
+   * Count the leaf nodes of the legal move tree
+   * @param board the position, left unchanged
+   * @param depth number of plies, at least 0
+   * @return the number of move sequences of that length
+   */
+  public static long perft(Board board, int depth) {
+    MoveList[] lists = new MoveList[Math.max(depth, 1)];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = new MoveList();
+    }
+    return perft(board, depth, lists);
+  }
+
+  private static long perft(Board board, int depth, MoveList[] lists) {
+    if (depth == 0) {
+      return 1;
+    }
+    MoveList moves = lists[depth - 1];
+    MoveGenerator.generate(board, moves);
+    if (depth == 1) {
+      // the moves are legal, so the last ply only needs to count them
+      return moves.size();
+    }
+    long nodes = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      board.makeMove(moves.get(i));
+      nodes += perft(board, depth - 1, lists);
+      board.unmakeMove(moves.get(i));
+    }
+    return nodes;
+  }
+
+  private static void divide(Board board, int depth) {
+    MoveList moves = new MoveList();
+    MoveGenerator.generate(board, moves);
+    long total = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      board.makeMove(moves.get(i));
+      long nodes = perft(board, depth - 1);
+      board.unmakeMove(moves.get(i));
+      total += nodes;
+      System.out.println(Move.toString(moves.get(i)) + ": " + nodes);
+    }
+    System.out.println("total: " + total);
+  }
+}
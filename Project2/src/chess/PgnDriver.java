@@ -0,0 +1,129 @@
+package chess;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is the driver class of PgnReader and PgnValidator. It writes a PGN archive of random games
+ * with comments, NAGs and variations, where every 50th game has an illegal move and one game
+ * starts from a FEN tag, then validates the archive with 1, 2, 4 ... threads and checks that
+ * every game comes back in order with the expected verdict, length and final position.
+ * Arguments: the number of games (default 20,000) and the window (default 256).
+ */
+public class PgnDriver {
+  public static void main(String[] args) throws IOException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    int window = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    Random random = new Random(5004);
+    Path file = Files.createTempFile("games", ".pgn");
+    List<String> expected = new ArrayList<>(count);
+    MoveList moves = new MoveList();
+
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+      for (int game = 1; game <= count; game++) {
+        String fen = game == 2 ? "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq"
+                + " - 0 1" : null;
+        Board board = fen == null ? Board.startingPosition() : Board.fromFen(fen);
+        int illegalPly = game % 50 == 0 ? random.nextInt(40) : -1;
+        StringBuilder text = new StringBuilder();
+        String verdict = null;
+        int plies = 0;
+        for (; plies < 160; plies++) {
+          MoveGenerator.generate(board, moves);
+          if (moves.size() == 0 || board.getHalfmoveClock() >= 100) {
+            break;
+          }
+          if (board.getSideToMove() == Color.WHITE) {
+            text.append(board.getFullmoveNumber()).append(". ");
+          } else if (plies == 0) {
+            text.append(board.getFullmoveNumber()).append("... ");
+          }
+          if (plies == illegalPly) {
+            text.append(farKingMove(board)).append(' ');
+            verdict = "Illegal move";
+            break;
+          }
+          int move = moves.get(random.nextInt(moves.size()));
+          text.append(San.toString(board, move)).append(' ');
+          if (random.nextInt(20) == 0) {
+            text.append("{a comment (with a bracket} $").append(random.nextInt(7) + 1)
+                    .append(" (").append(Move.toString(moves.get(0))).append(" {inside}) ");
+          }
+          board.makeMove(move);
+        }
+        String result = "*";
+        MoveGenerator.generate(board, moves);
+        if (verdict == null && moves.size() == 0) {
+          result = !board.inCheck() ? "1/2-1/2"
+                  : board.getSideToMove() == Color.WHITE ? "0-1" : "1-0";
+        }
+        out.write("[Event \"Driver game " + game + "\"]\n[Site \"?\"]\n[Date \"2024.01.01\"]\n"
+                + "[Round \"" + game + "\"]\n[White \"A\"]\n[Black \"B\"]\n[Result \"" + result
+                + "\"]\n");
+        if (fen != null) {
+          out.write("[SetUp \"1\"]\n[FEN \"" + fen + "\"]\n");
+        }
+        out.write("\n");
+        // wrap the movetext at 80 characters
+        int width = 0;
+        for (String token : text.toString().trim().split(" ")) {
+          if (width > 0 && width + token.length() >= 80) {
+            out.write("\n");
+            width = 0;
+          }
+          out.write(width == 0 ? token : " " + token);
+          width += token.length() + 1;
+        }
+        out.write("\n");
+        out.write(result + "\n\n");
+        expected.add((verdict == null ? "valid" : verdict) + " " + plies + " " + board.toFen());
+      }
+    }
+    System.out.printf("%d games, %.1f MB%n", count, Files.size(file) / 1e6);
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+      try (PgnValidator validator = new PgnValidator(threads, window);
+           PgnReader reader = PgnReader.open(file)) {
+        int[] mismatches = {0};
+        long[] next = {1};
+        PgnValidator.Stats stats = validator.validate(reader, result -> {
+          String expect = expected.get((int) (result.getNumber() - 1));
+          String verdict = result.isValid() ? "valid" : result.getError().startsWith(
+                  "Illegal move") ? "Illegal move" : result.getError();
+          if (result.getNumber() != next[0]++ || !expect.equals(verdict + " "
+                  + result.getPlies() + " " + result.getFinalFen())) {
+            if (mismatches[0]++ < 3) {
+              System.out.println(result + " expected " + expect);
+            }
+          }
+        });
+        System.out.println(threads + " threads: " + stats);
+        if (mismatches[0] != 0 || stats.getGames() != count || stats.getInvalid() != count / 50) {
+          throw new IllegalStateException(mismatches[0] + " games out of order or wrong");
+        }
+      }
+    }
+    Files.delete(file);
+  }
+
+  /**
+   * a king move in SAN to the corner farthest from the king, which can never be legal
+   */
+  private static String farKingMove(Board board) {
+    int king = 0;
+    for (int sq = 0; sq < 64; sq++) {
+      if (board.codeAt(sq) == board.side() * 6 + PieceType.KING.ordinal()) {
+        king = sq;
+      }
+    }
+    int corner = (Bitboards.row(king) < 4 ? 56 : 0) + (Bitboards.col(king) < 4 ? 7 : 0);
+    return "K" + Move.squareName(corner);
+  }
+}
@@ -0,0 +1,196 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This is the PgnReader class, which splits a PGN file or channel into games, one at a time, so
+ * an archive of any size is read with the memory of its longest game.
+ * A game is its tag pairs ([Event "..."] lines) followed by its movetext; the next game starts at
+ * the first tag line after movetext. The text of each game is returned as read, comments and
+ * variations included, to be replayed by PgnValidator. Bytes are read as ISO-8859-1.
+ */
+public class PgnReader implements AutoCloseable {
+  private final ReadableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final byte[] bytes;
+  private final int maxGameLength;
+  // bytes[start, limit) holds data not read yet
+  private int start;
+  private int limit;
+  private boolean endOfInput;
+  private final StringBuilder line = new StringBuilder(256);
+  private final StringBuilder game = new StringBuilder(4096);
+  // the tag line that ended the last game and starts the next one
+  private final StringBuilder pending = new StringBuilder(256);
+  private long pendingLine;
+  private long lineNumber;
+  private long gameLine;
+  private long games;
+
+  /**
+   * PgnReader constructor, with a 64 KB buffer and games of at most 1M characters
+   * @param channel the input, closed by close()
+   */
+  public PgnReader(ReadableByteChannel channel) {
+    this(channel, 1 << 16, 1 << 20);
+  }
+
+  /**
+   * PgnReader constructor
+   * @param channel the input, closed by close()
+   * @param bufferSize the buffer size in bytes
+   * @param maxGameLength the longest game text that can be read, in characters
+   * throw IllegalArgumentException if bufferSize is less than 128 or maxGameLength less than 1
+   */
+  public PgnReader(ReadableByteChannel channel, int bufferSize, int maxGameLength) {
+    if (bufferSize < 128 || maxGameLength < 1) {
+      throw new IllegalArgumentException("The buffer must hold at least 128 bytes and a game at"
+              + " least 1 character");
+    }
+    this.channel = channel;
+    this.bytes = new byte[bufferSize];
+    this.buffer = ByteBuffer.wrap(bytes);
+    this.maxGameLength = maxGameLength;
+  }
+
+  /**
+   * @param path the file to be read
+   * @return a reader of the file
+   * @throws IOException if the file cannot be opened
+   */
+  public static PgnReader open(Path path) throws IOException {
+    return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  /**
+   * Read the next game
+   * @return the text of the game, null at the end of the input
+   * @throws IOException if the channel cannot be read
+   * throw IllegalStateException if the game is longer than the maximum game length
+   */
+  public String nextGame() throws IOException {
+    game.setLength(0);
+    boolean moves = false;
+    if (pending.length() > 0) {
+      game.append(pending).append('\n');
+      gameLine = pendingLine;
+      pending.setLength(0);
+    }
+    while (nextLine()) {
+      int first = 0;
+      while (first < line.length() && Character.isWhitespace(line.charAt(first))) {
+        first++;
+      }
+      if (first == line.length()) {
+        if (game.length() > 0) {
+          game.append('\n');
+        }
+        continue;
+      }
+      char c = line.charAt(first);
+      if (c == '[' && moves) {
+        pending.append(line);
+        pendingLine = lineNumber;
+        break;
+      }
+      if (game.length() == 0) {
+        gameLine = lineNumber;
+      }
+      // % starts an escaped line, which is ignored
+      moves |= c != '[' && c != '%';
+      game.append(line).append('\n');
+      if (game.length() > maxGameLength) {
+        throw new IllegalStateException("The game at line " + gameLine + " is longer than "
+                + maxGameLength + " characters");
+      }
+    }
+    if (game.length() == 0) {
+      return null;
+    }
+    games++;
+    return game.toString();
+  }
+
+  /**
+   * @return the number of games read
+   */
+  public long getGameCount() {
+    return games;
+  }
+
+  /**
+   * @return the number of the first line of the last game read, starting at 1
+   */
+  public long getGameLine() {
+    return gameLine;
+  }
+
+  /**
+   * @return the number of the last line read, starting at 1
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * close the channel
+   * @throws IOException if the channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * read the next line into line, without the line break
+   * @return false at the end of the input
+   */
+  private boolean nextLine() throws IOException {
+    line.setLength(0);
+    while (true) {
+      for (int i = start; i < limit; i++) {
+        if (bytes[i] == '\n') {
+          append(start, i);
+          start = i + 1;
+          lineNumber++;
+          return true;
+        }
+      }
+      append(start, limit);
+      start = limit;
+      if (endOfInput) {
+        if (line.length() == 0) {
+          return false;
+        }
+        lineNumber++;
+        return true;
+      }
+      buffer.clear();
+      int read = channel.read(buffer);
+      start = 0;
+      limit = Math.max(0, read);
+      endOfInput = read < 0;
+    }
+  }
+
+  /**
+   * add bytes to line; a line without a break fails once it passes maxGameLength, so the memory
+   * stays bounded whatever the input
+   */
+  private void append(int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] != '\r') {
+        line.append((char) (bytes[i] & 0xFF));
+      }
+    }
+    if (line.length() + game.length() > maxGameLength) {
+      throw new IllegalStateException("The game at line " + (game.length() > 0 ? gameLine
+              : lineNumber + 1) + " is longer than " + maxGameLength + " characters");
+    }
+  }
+}
@@ -0,0 +1,396 @@
+package chess;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * This is the PgnValidator class, which replays the games of a PGN archive and reports the first
+ * illegal move of each game.
+ * Every SAN move is resolved against the legal moves of the position (see San), which follow the
+ * movement rules of the piece classes (checked by PieceViewCheck), including castling, en passant
+ * and promotion, and is played on a Board. Comments, variations, move numbers, NAGs and escaped
+ * lines are skipped; a game starts from its FEN tag if it has one. A game is invalid if a move is
+ * illegal or ambiguous, if its FEN tag is malformed, or if it ends in checkmate or stalemate with
+ * a different result than the one written.
+ * Games are replayed in parallel on a fixed pool of threads while the reader runs at most
+ * `window` games ahead of the consumer, so memory does not grow with the archive, and the
+ * results are given to the consumer in archive order (see OrderedExecutor).
+ */
+public class PgnValidator implements AutoCloseable {
+  /**
+   * This is the interface of the callback that receives the moves of a replayed game
+   */
+  public interface MoveVisitor {
+    /**
+     * @param board the position before the move, must be left unchanged
+     * @param move the packed move
+     * @param ply number of the move in the game, starting at 0
+     */
+    void played(Board board, int move, int ply);
+  }
+
+  private final OrderedExecutor<Result> executor;
+
+  /**
+   * PgnValidator constructor
+   * @param threads number of worker threads, at least 1
+   * @param window the largest number of games in flight
+   * throw IllegalArgumentException if threads or window is less than 1
+   */
+  public PgnValidator(int threads, int window) {
+    if (threads < 1 || window < 1) {
+      throw new IllegalArgumentException("threads and window must be at least 1");
+    }
+    this.executor = new OrderedExecutor<>(OrderedExecutor.fixedPool(threads, "pgn-validator"),
+            window);
+  }
+
+  /**
+   * Replay every game of an archive, in parallel, and hand the results over in archive order
+   * @param reader the archive, read to its end
+   * @param consumer receives one result per game, on the calling thread
+   * @return the counts and speed of the run
+   * @throws IOException if the archive cannot be read
+   */
+  public Stats validate(PgnReader reader, Consumer<Result> consumer) throws IOException {
+    // games, invalid, plies
+    long[] counts = new long[3];
+    long start = System.nanoTime();
+    executor.run(() -> {
+      String game = reader.nextGame();
+      if (game == null) {
+        return null;
+      }
+      long number = reader.getGameCount();
+      long line = reader.getGameLine();
+      return () -> replay(game, number, line, null);
+    }, result -> {
+      counts[0]++;
+      counts[1] += result.isValid() ? 0 : 1;
+      counts[2] += result.plies;
+      consumer.accept(result);
+    });
+    return new Stats(counts[0], counts[1], counts[2], System.nanoTime() - start);
+  }
+
+  /**
+   * stop the worker threads
+   */
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  /**
+   * Replay one game on the calling thread
+   * @param game the text of the game, as returned by PgnReader
+   * @param number number of the game in the archive, starting at 1
+   * @param line number of the first line of the game
+   * @param visitor receives every legal move before it is played, null for none
+   * @return the result of the game
+   */
+  public static Result replay(String game, long number, long line, MoveVisitor visitor) {
+    Map<String, String> tags = new LinkedHashMap<>();
+    int i = readTags(game, tags);
+    Board board;
+    String fen = tags.get("FEN");
+    if (fen == null) {
+      board = Board.startingPosition();
+    } else {
+      try {
+        board = Board.fromFen(fen);
+      } catch (IllegalArgumentException e) {
+        return new Result(number, line, tags, 0, "Bad FEN tag: " + e.getMessage(), fen);
+      }
+    }
+    String written = tags.get("Result");
+    MoveList scratch = new MoveList();
+    int plies = 0;
+    int length = game.length();
+    while (i < length) {
+      char c = game.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '{') {
+        i = skipPast(game, i + 1, '}');
+      } else if (c == ';' || c == '%' && (i == 0 || game.charAt(i - 1) == '\n')) {
+        i = skipPast(game, i + 1, '\n');
+      } else if (c == '(') {
+        i = skipVariation(game, i);
+      } else if (c == '$') {
+        i++;
+        while (i < length && Character.isDigit(game.charAt(i))) {
+          i++;
+        }
+      } else {
+        int end = i;
+        while (end < length && !Character.isWhitespace(game.charAt(end))
+                && "{}();$".indexOf(game.charAt(end)) < 0) {
+          end++;
+        }
+        if (isResult(game, i, end)) {
+          written = game.substring(i, end);
+          break;
+        }
+        // a move number, possibly written against its move: "12." "12..." "12.e4"
+        int from = i;
+        while (from < end && Character.isDigit(game.charAt(from))) {
+          from++;
+        }
+        if (from == end) {
+          return new Result(number, line, tags, plies, "Unexpected token "
+                  + game.substring(i, end), board.toFen());
+        }
+        if (from > i && game.charAt(from) == '.') {
+          while (from < end && game.charAt(from) == '.') {
+            from++;
+          }
+        } else {
+          // castling written with zeros
+          from = i;
+        }
+        if (from < end) {
+          int move = San.parse(board, game, from, end, scratch);
+          if (move == Move.NONE) {
+            return new Result(number, line, tags, plies, "Illegal move "
+                    + moveNumber(board) + game.substring(from, end), board.toFen());
+          }
+          if (visitor != null) {
+            visitor.played(board, move, plies);
+          }
+          board.makeMove(move);
+          plies++;
+        }
+        i = end;
+      }
+    }
+    return new Result(number, line, tags, plies, checkResult(board, written, scratch),
+            board.toFen());
+  }
+
+  /**
+   * read the tag pairs at the start of a game
+   * @return the index of the movetext
+   */
+  private static int readTags(String game, Map<String, String> tags) {
+    int i = 0;
+    int length = game.length();
+    while (true) {
+      while (i < length && Character.isWhitespace(game.charAt(i))) {
+        i++;
+      }
+      if (i == length || game.charAt(i) != '[') {
+        return i;
+      }
+      int end = game.indexOf('\n', i);
+      end = end < 0 ? length : end;
+      int nameFrom = i + 1;
+      int nameTo = nameFrom;
+      while (nameTo < end && !Character.isWhitespace(game.charAt(nameTo))
+              && game.charAt(nameTo) != '"') {
+        nameTo++;
+      }
+      int quote = game.indexOf('"', nameTo);
+      if (quote >= 0 && quote < end) {
+        StringBuilder value = new StringBuilder();
+        int j = quote + 1;
+        for (; j < end && game.charAt(j) != '"'; j++) {
+          if (game.charAt(j) == '\\' && j + 1 < end) {
+            j++;
+          }
+          value.append(game.charAt(j));
+        }
+        tags.put(game.substring(nameFrom, nameTo), value.toString());
+      }
+      i = end;
+    }
+  }
+
+  /**
+   * the game is invalid if it ended in mate or stalemate and says otherwise
+   */
+  private static String checkResult(Board board, String written, MoveList scratch) {
+    MoveGenerator.generate(board, scratch);
+    if (scratch.size() > 0) {
+      return null;
+    }
+    String expected = !board.inCheck() ? "1/2-1/2"
+            : board.getSideToMove() == Color.WHITE ? "0-1" : "1-0";
+    if (written == null || written.equals(expected)) {
+      return null;
+    }
+    return "Result " + written + " after " + (board.inCheck() ? "checkmate" : "stalemate")
+            + ", expected " + expected;
+  }
+
+  private static boolean isResult(String game, int from, int to) {
+    return game.startsWith("1-0", from) && to - from == 3
+            || game.startsWith("0-1", from) && to - from == 3
+            || game.startsWith("1/2-1/2", from) && to - from == 7
+            || game.charAt(from) == '*' && to - from == 1;
+  }
+
+  private static String moveNumber(Board board) {
+    return board.getFullmoveNumber() + (board.getSideToMove() == Color.WHITE ? ". " : "... ");
+  }
+
+  private static int skipPast(String game, int from, char end) {
+    int index = game.indexOf(end, from);
+    return index < 0 ? game.length() : index + 1;
+  }
+
+  /**
+   * skip a variation and the variations and comments inside it
+   */
+  private static int skipVariation(String game, int i) {
+    int depth = 0;
+    while (i < game.length()) {
+      char c = game.charAt(i);
+      if (c == '{') {
+        i = skipPast(game, i + 1, '}');
+        continue;
+      }
+      depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+      i++;
+      if (depth == 0) {
+        return i;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * This is the result of the replay of one game
+   */
+  public static final class Result {
+    private final long number;
+    private final long line;
+    private final Map<String, String> tags;
+    private final int plies;
+    private final String error;
+    private final String finalFen;
+
+    private Result(long number, long line, Map<String, String> tags, int plies, String error,
+                   String finalFen) {
+      this.number = number;
+      this.line = line;
+      this.tags = Collections.unmodifiableMap(tags);
+      this.plies = plies;
+      this.error = error;
+      this.finalFen = finalFen;
+    }
+
+    /**
+     * @return number of the game in the archive, starting at 1
+     */
+    public long getNumber() {
+      return number;
+    }
+
+    /**
+     * @return number of the first line of the game
+     */
+    public long getLine() {
+      return line;
+    }
+
+    /**
+     * @return the tag pairs of the game, in the order they were written
+     */
+    public Map<String, String> getTags() {
+      return tags;
+    }
+
+    /**
+     * @return the number of moves played, up to the first illegal one
+     */
+    public int getPlies() {
+      return plies;
+    }
+
+    /**
+     * @return true if every move was legal and the result matches the final position
+     */
+    public boolean isValid() {
+      return error == null;
+    }
+
+    /**
+     * @return what is wrong with the game, e.g. "Illegal move 12. Nf9", null if it is valid
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * @return the FEN of the last position reached, before the first illegal move
+     */
+    public String getFinalFen() {
+      return finalFen;
+    }
+
+    /**
+     * @return e.g. "Game 3 (line 25), 80 plies: Illegal move 41. Ke9"
+     */
+    @Override
+    public String toString() {
+      return "Game " + number + " (line " + line + "), " + plies + " plies: "
+              + (error == null ? "valid" : error);
+    }
+  }
+
+  /**
+   * This is the summary of a run: counts and speed
+   */
+  public static final class Stats {
+    private final long games;
+    private final long invalid;
+    private final long plies;
+    private final long nanos;
+
+    private Stats(long games, long invalid, long plies, long nanos) {
+      this.games = games;
+      this.invalid = invalid;
+      this.plies = plies;
+      this.nanos = nanos;
+    }
+
+    /**
+     * @return the number of games replayed
+     */
+    public long getGames() {
+      return games;
+    }
+
+    /**
+     * @return the number of invalid games
+     */
+    public long getInvalid() {
+      return invalid;
+    }
+
+    /**
+     * @return the number of moves played
+     */
+    public long getPlies() {
+      return plies;
+    }
+
+    /**
+     * @return games replayed per second
+     */
+    public double getGamesPerSecond() {
+      return games * 1e9 / Math.max(1, nanos);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d games (%d invalid), %d plies in %.0f ms, %.0f games/s,"
+              + " %.0f plies/s", games, invalid, plies, nanos / 1e6, getGamesPerSecond(),
+              plies * 1e9 / Math.max(1, nanos));
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is the PieceBoard class, which plays moves on a set of ChessPiece objects and takes them
+ * back, so a position can be analysed without cloning the pieces.
+ * The rules, the move generation and the Zobrist key come from a Board that is kept in sync with
+ * the pieces. makeMove moves the piece object (and the rook when castling), clears Pawn.isFirst,
+ * puts a captured piece on the captured list and replaces a promoted pawn; unmakeMove restores all
+ * of it. What a move changed is kept on preallocated undo stacks, and the piece created by a
+ * promotion is reused the next time the same promotion is played at the same ply, so walking a
+ * search tree does not allocate.
+ */
+public class PieceBoard {
+  private final Board board;
+  // piece object per square index, null if empty
+  private final AbstractChess[] squares = new AbstractChess[64];
+  private final MoveList legal = new MoveList();
+
+  // one entry per made move
+  private int[] moves = new int[256];
+  private AbstractChess[] capturedStack = new AbstractChess[256];
+  private boolean[] wasFirst = new boolean[256];
+  // the pawn removed by a promotion at that ply, and the piece that replaced it
+  private AbstractChess[] promotedPawns = new AbstractChess[256];
+  private AbstractChess[] promotedPieces = new AbstractChess[256];
+  private int ply;
+  private final List<ChessPiece> captured = new ArrayList<>();
+
+  /**
+   * PieceBoard constructor, without castling rights or en passant square
+   * @param pieces the pieces, of the classes King, Queen, Rook, Bishop, Knight, Pawn
+   * @param sideToMove the color whose turn it is
+   * throw IllegalArgumentException if 2 pieces stand on the same square or a piece is of an
+   * unknown class
+   */
+  public PieceBoard(Collection<? extends AbstractChess> pieces, Color sideToMove) {
+    this.board = Board.fromPieces(pieces);
+    this.board.setSideToMove(sideToMove);
+    for (AbstractChess piece : pieces) {
+      squares[Bitboards.square(piece.getRow(), piece.getColumn())] = piece;
+    }
+  }
+
+  /**
+   * Build the pieces of a FEN position
+   * @param fen the position, see Board.fromFen
+   * @return a new piece board holding the position
+   * throw IllegalArgumentException if the FEN is malformed
+   */
+  public static PieceBoard fromFen(String fen) {
+    Board source = Board.fromFen(fen);
+    List<AbstractChess> pieces = new ArrayList<>();
+    for (int sq = 0; sq < 64; sq++) {
+      int code = source.codeAt(sq);
+      if (code != Board.EMPTY) {
+        pieces.add(create(Board.TYPES[code % 6], Board.COLORS[code / 6], Bitboards.row(sq),
+                Bitboards.col(sq)));
+      }
+    }
+    PieceBoard result = new PieceBoard(pieces, source.getSideToMove());
+    result.board.setCastlingRights(source.getCastlingRights());
+    result.board.setEnPassantSquare(source.getEnPassantSquare());
+    result.board.setClocks(source.getHalfmoveClock(), source.getFullmoveNumber());
+    return result;
+  }
+
+  /**
+   * @return the board kept in sync with the pieces, for move generation and attack queries; it
+   * must not be changed directly
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * @param row row index 0-7
+   * @param col col index 0-7
+   * @return the piece on the square, null if the square is empty
+   * throw IllegalArgumentException if the position is out of the board
+   */
+  public ChessPiece pieceAt(int row, int col) {
+    if (!Bitboards.onBoard(row, col)) {
+      throw new IllegalArgumentException("The position (" + row + ", " + col
+              + ") is out of board boundary");
+    }
+    return squares[Bitboards.square(row, col)];
+  }
+
+  /**
+   * @return the pieces on the board, from row 0 col 0 to row 7 col 7
+   */
+  public List<ChessPiece> pieces() {
+    List<ChessPiece> result = new ArrayList<>();
+    for (AbstractChess piece : squares) {
+      if (piece != null) {
+        result.add(piece);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the captured pieces, oldest first, as an unmodifiable view
+   */
+  public List<ChessPiece> getCaptured() {
+    return Collections.unmodifiableList(captured);
+  }
+
+  /**
+   * @return the Zobrist key of the position
+   */
+  public long getKey() {
+    return board.getKey();
+  }
+
+  /**
+   * @return the number of moves made and not taken back
+   */
+  public int getPly() {
+    return ply;
+  }
+
+  /**
+   * Move a piece, if that is a legal move; a pawn reaching the last row becomes a queen
+   * @param piece the piece to be moved, must be on this board
+   * @param row the destination row
+   * @param col the destination col
+   * @return true if the move was legal and was made, false otherwise
+   */
+  public boolean makeMove(ChessPiece piece, int row, int col) {
+    if (!Bitboards.onBoard(row, col)
+            || squares[Bitboards.square(piece.getRow(), piece.getColumn())] != piece) {
+      return false;
+    }
+    int from = Bitboards.square(piece.getRow(), piece.getColumn());
+    int to = Bitboards.square(row, col);
+    MoveGenerator.generate(board, legal);
+    for (int i = 0; i < legal.size(); i++) {
+      int move = legal.get(i);
+      // generated promotions come queen first
+      if (Move.from(move) == from && Move.to(move) == to) {
+        makeMove(move);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Apply a move of the side to move. The move must come from MoveGenerator for getBoard(), it
+   * is not checked.
+   * @param move the packed move, see Move
+   */
+  public void makeMove(int move) {
+    if (ply == moves.length) {
+      grow();
+    }
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int flags = Move.flags(move);
+    AbstractChess piece = squares[from];
+    int capturedSquare = flags == Move.EN_PASSANT ? (piece.getColor() == Color.WHITE
+            ? to - 8 : to + 8) : to;
+    AbstractChess victim = squares[capturedSquare];
+
+    moves[ply] = move;
+    capturedStack[ply] = victim;
+    wasFirst[ply] = piece instanceof Pawn && ((Pawn) piece).isFirst;
+    if (victim != null) {
+      squares[capturedSquare] = null;
+      captured.add(victim);
+    }
+    squares[from] = null;
+    if (Move.isPromotion(move)) {
+      PieceType type = Move.promotion(move);
+      AbstractChess promoted = promotedPieces[ply];
+      if (promoted == null || Board.typeOf(promoted) != type
+              || promoted.getColor() != piece.getColor()) {
+        promoted = create(type, piece.getColor(), Bitboards.row(to), Bitboards.col(to));
+        promotedPieces[ply] = promoted;
+      }
+      promoted.setPosition(Bitboards.row(to), Bitboards.col(to));
+      promotedPawns[ply] = piece;
+      squares[to] = promoted;
+    } else {
+      place(piece, to);
+      if (piece instanceof Pawn) {
+        ((Pawn) piece).isFirst = false;
+      }
+    }
+    if (flags == Move.KING_CASTLE) {
+      place(squares[to + 1], to - 1);
+      squares[to + 1] = null;
+    } else if (flags == Move.QUEEN_CASTLE) {
+      place(squares[to - 2], to + 1);
+      squares[to - 2] = null;
+    }
+    board.makeMove(move);
+    ply++;
+  }
+
+  /**
+   * Take back the last move made with makeMove
+   * throw IllegalStateException if no move is left to take back
+   */
+  public void unmakeMove() {
+    if (ply == 0) {
+      throw new IllegalStateException("There is no move to take back");
+    }
+    ply--;
+    int move = moves[ply];
+    board.unmakeMove(move);
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int flags = Move.flags(move);
+
+    AbstractChess piece = Move.isPromotion(move) ? promotedPawns[ply] : squares[to];
+    squares[to] = null;
+    place(piece, from);
+    if (piece instanceof Pawn) {
+      ((Pawn) piece).isFirst = wasFirst[ply];
+    }
+    if (flags == Move.KING_CASTLE) {
+      place(squares[to - 1], to + 1);
+      squares[to - 1] = null;
+    } else if (flags == Move.QUEEN_CASTLE) {
+      place(squares[to + 1], to - 2);
+      squares[to + 1] = null;
+    }
+    AbstractChess victim = capturedStack[ply];
+    if (victim != null) {
+      int capturedSquare = flags == Move.EN_PASSANT ? (piece.getColor() == Color.WHITE
+              ? to - 8 : to + 8) : to;
+      squares[capturedSquare] = victim;
+      captured.remove(captured.size() - 1);
+    }
+    capturedStack[ply] = null;
+    promotedPawns[ply] = null;
+  }
+
+  /**
+   * @return the board as 8 lines, row 7 on top, see Board.toString
+   */
+  @Override
+  public String toString() {
+    return board.toString();
+  }
+
+  private void place(AbstractChess piece, int sq) {
+    piece.setPosition(Bitboards.row(sq), Bitboards.col(sq));
+    squares[sq] = piece;
+  }
+
+  private void grow() {
+    int size = moves.length * 2;
+    moves = Arrays.copyOf(moves, size);
+    capturedStack = Arrays.copyOf(capturedStack, size);
+    wasFirst = Arrays.copyOf(wasFirst, size);
+    promotedPawns = Arrays.copyOf(promotedPawns, size);
+    promotedPieces = Arrays.copyOf(promotedPieces, size);
+  }
+
+  private static AbstractChess create(PieceType type, Color color, int row, int col) {
+    switch (type) {
+      case PAWN:
+        return new Pawn(row, col, color);
+      case KNIGHT:
+        return new Knight(row, col, color);
+      case BISHOP:
+        return new Bishop(row, col, color);
+      case ROOK:
+        return new Rook(row, col, color);
+      case QUEEN:
+        return new Queen(row, col, color);
+      default:
+        return new King(row, col, color);
+    }
+  }
+}
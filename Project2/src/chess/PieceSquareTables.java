@@ -0,0 +1,166 @@
+package chess;
+
+/**
+ * This is the class of the material and piece-square tables: the value of each piece on each
+ * square, once for the opening and once for the endgame, and the weight of each piece in the game
+ * phase (24 with every piece on the board, 0 with pawns and kings only). The Board adds and
+ * subtracts them as pieces are put on and taken off squares, like its Zobrist key, and Evaluator
+ * blends the two sums by the phase. Values are in centipawns, white minus black.
+ */
+final class PieceSquareTables {
+  // centipawns, in PieceType order
+  static final int[] VALUES = {100, 320, 330, 500, 900, 0};
+  // phase weight per PieceType, 24 with every piece on the board
+  private static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+  static final int MAX_PHASE = 24;
+
+  // [code][square], material plus piece-square value, negative for black pieces
+  static final int[][] OPENING = new int[12][64];
+  static final int[][] ENDGAME = new int[12][64];
+  // both in one long, the opening value in the high 32 bits plus the endgame value, so the Board
+  // keeps both with one addition; a sum of 64 pieces cannot overflow either half
+  private static final long[] PACKED = new long[12 * 64];
+
+  // tables as seen from white, row 7 first, as a board is printed
+  private static final int[] PAWN_TABLE = {
+      0, 0, 0, 0, 0, 0, 0, 0,
+      50, 50, 50, 50, 50, 50, 50, 50,
+      10, 10, 20, 30, 30, 20, 10, 10,
+      5, 5, 10, 25, 25, 10, 5, 5,
+      0, 0, 0, 20, 20, 0, 0, 0,
+      5, -5, -10, 0, 0, -10, -5, 5,
+      5, 10, 10, -20, -20, 10, 10, 5,
+      0, 0, 0, 0, 0, 0, 0, 0
+  };
+  private static final int[] PAWN_ENDGAME_TABLE = {
+      0, 0, 0, 0, 0, 0, 0, 0,
+      50, 50, 50, 50, 50, 50, 50, 50,
+      30, 30, 30, 30, 30, 30, 30, 30,
+      20, 20, 20, 20, 20, 20, 20, 20,
+      10, 10, 10, 10, 10, 10, 10, 10,
+      5, 5, 5, 5, 5, 5, 5, 5,
+      0, 0, 0, 0, 0, 0, 0, 0,
+      0, 0, 0, 0, 0, 0, 0, 0
+  };
+  private static final int[] KNIGHT_TABLE = {
+      -50, -40, -30, -30, -30, -30, -40, -50,
+      -40, -20, 0, 0, 0, 0, -20, -40,
+      -30, 0, 10, 15, 15, 10, 0, -30,
+      -30, 5, 15, 20, 20, 15, 5, -30,
+      -30, 0, 15, 20, 20, 15, 0, -30,
+      -30, 5, 10, 15, 15, 10, 5, -30,
+      -40, -20, 0, 5, 5, 0, -20, -40,
+      -50, -40, -30, -30, -30, -30, -40, -50
+  };
+  private static final int[] BISHOP_TABLE = {
+      -20, -10, -10, -10, -10, -10, -10, -20,
+      -10, 0, 0, 0, 0, 0, 0, -10,
+      -10, 0, 5, 10, 10, 5, 0, -10,
+      -10, 5, 5, 10, 10, 5, 5, -10,
+      -10, 0, 10, 10, 10, 10, 0, -10,
+      -10, 10, 10, 10, 10, 10, 10, -10,
+      -10, 5, 0, 0, 0, 0, 5, -10,
+      -20, -10, -10, -10, -10, -10, -10, -20
+  };
+  private static final int[] ROOK_TABLE = {
+      0, 0, 0, 0, 0, 0, 0, 0,
+      5, 10, 10, 10, 10, 10, 10, 5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      0, 0, 0, 5, 5, 0, 0, 0
+  };
+  private static final int[] QUEEN_TABLE = {
+      -20, -10, -10, -5, -5, -10, -10, -20,
+      -10, 0, 0, 0, 0, 0, 0, -10,
+      -10, 0, 5, 5, 5, 5, 0, -10,
+      -5, 0, 5, 5, 5, 5, 0, -5,
+      0, 0, 5, 5, 5, 5, 0, -5,
+      -10, 5, 5, 5, 5, 5, 0, -10,
+      -10, 0, 5, 0, 0, 0, 0, -10,
+      -20, -10, -10, -5, -5, -10, -10, -20
+  };
+  private static final int[] KING_TABLE = {
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -20, -30, -30, -40, -40, -30, -30, -20,
+      -10, -20, -20, -20, -20, -20, -20, -10,
+      20, 20, 0, 0, 0, 0, 20, 20,
+      20, 30, 10, 0, 0, 10, 30, 20
+  };
+  private static final int[] KING_ENDGAME_TABLE = {
+      -50, -40, -30, -20, -20, -30, -40, -50,
+      -30, -20, -10, 0, 0, -10, -20, -30,
+      -30, -10, 20, 30, 30, 20, -10, -30,
+      -30, -10, 30, 40, 40, 30, -10, -30,
+      -30, -10, 30, 40, 40, 30, -10, -30,
+      -30, -10, 20, 30, 30, 20, -10, -30,
+      -30, -30, 0, 0, 0, 0, -30, -30,
+      -50, -30, -30, -30, -30, -30, -30, -50
+  };
+
+  static {
+    int[][] opening = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE,
+        KING_TABLE};
+    int[][] endgame = {PAWN_ENDGAME_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE,
+        KING_ENDGAME_TABLE};
+    for (int type = 0; type < 6; type++) {
+      for (int sq = 0; sq < 64; sq++) {
+        int row = Bitboards.row(sq);
+        int col = Bitboards.col(sq);
+        // white reads the table upside down, black reads it as printed
+        int white = (7 - row) * 8 + col;
+        int black = row * 8 + col;
+        OPENING[Board.WHITE * 6 + type][sq] = VALUES[type] + opening[type][white];
+        ENDGAME[Board.WHITE * 6 + type][sq] = VALUES[type] + endgame[type][white];
+        OPENING[Board.BLACK * 6 + type][sq] = -VALUES[type] - opening[type][black];
+        ENDGAME[Board.BLACK * 6 + type][sq] = -VALUES[type] - endgame[type][black];
+      }
+    }
+    for (int code = 0; code < 12; code++) {
+      for (int sq = 0; sq < 64; sq++) {
+        PACKED[code << 6 | sq] = ((long) OPENING[code][sq] << 32) + ENDGAME[code][sq];
+      }
+    }
+  }
+
+  private PieceSquareTables() {
+  }
+
+  /**
+   * @param code piece code, color * 6 + type
+   * @param sq square index
+   * @return the opening value times 2^32 plus the endgame value of the piece on the square
+   */
+  static long packed(int code, int sq) {
+    return PACKED[code << 6 | sq];
+  }
+
+  /**
+   * @param packed a sum of packed values
+   * @return the opening part of the sum
+   */
+  static int opening(long packed) {
+    return (int) ((packed + 0x8000_0000L) >> 32);
+  }
+
+  /**
+   * @param packed a sum of packed values
+   * @return the endgame part of the sum
+   */
+  static int endgame(long packed) {
+    return (int) packed;
+  }
+
+  /**
+   * @param code a piece code, color * 6 + type
+   * @return the phase weight of the piece
+   */
+  static int phaseOf(int code) {
+    return PHASE[code % 6];
+  }
+}
@@ -0,0 +1,9 @@
+package chess;
+
+/**
+ * This is the enum for the type of a chess piece. The order (ordinal) is used as an index into
+ * the bitboards of Board, from the least to the most valuable piece.
+ */
+public enum PieceType {
+  PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING
+}
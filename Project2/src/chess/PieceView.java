@@ -0,0 +1,137 @@
+package chess;
+
+/**
+ * This is the PieceView class, the flyweight form of a chess piece: one canonical immutable
+ * instance per (type, color, square), created once in a table of PackedPiece.COUNT entries.
+ * PieceView.of returns the shared instance instead of allocating, so canMove and canKill can be
+ * called on any piece of any stored position without creating objects, and two views of the
+ * same piece are the same object.
+ * The rules are those of the piece classes (King, Queen, Rook, Bishop, Knight, Pawn): each view
+ * delegates to a private instance of the matching class that is never moved.
+ */
+public final class PieceView implements ChessPiece {
+  private static final PieceView[] TABLE = new PieceView[PackedPiece.COUNT];
+
+  static {
+    for (int piece = 0; piece < PackedPiece.COUNT; piece++) {
+      int row = PackedPiece.row(piece);
+      boolean pawn = PackedPiece.type(piece) == PieceType.PAWN;
+      // the Pawn class rejects a pawn on its own back rank, so there is no view for it
+      if (!pawn || (PackedPiece.color(piece) == Color.WHITE ? row > 0 : row < 7)) {
+        TABLE[piece] = new PieceView(piece);
+      }
+    }
+  }
+
+  private final int packed;
+  private final AbstractChess rules;
+
+  private PieceView(int packed) {
+    this.packed = packed;
+    int row = PackedPiece.row(packed);
+    int col = PackedPiece.col(packed);
+    Color color = PackedPiece.color(packed);
+    switch (PackedPiece.type(packed)) {
+      case PAWN:
+        this.rules = new Pawn(row, col, color);
+        break;
+      case KNIGHT:
+        this.rules = new Knight(row, col, color);
+        break;
+      case BISHOP:
+        this.rules = new Bishop(row, col, color);
+        break;
+      case ROOK:
+        this.rules = new Rook(row, col, color);
+        break;
+      case QUEEN:
+        this.rules = new Queen(row, col, color);
+        break;
+      default:
+        this.rules = new King(row, col, color);
+    }
+  }
+
+  /**
+   * @param type type of the piece
+   * @param color color of the piece
+   * @param row row index 0-7
+   * @param col col index 0-7
+   * @return the canonical view of the piece
+   * throw IllegalArgumentException if the position is out of the board, or is the back rank of
+   * a pawn's own side
+   */
+  public static PieceView of(PieceType type, Color color, int row, int col) {
+    return of(PackedPiece.of(type, color, row, col));
+  }
+
+  /**
+   * @param piece a packed piece, see PackedPiece
+   * @return the canonical view of the piece
+   * throw IllegalArgumentException if the value is not a packed piece, or is a pawn on the back
+   * rank of its own side
+   */
+  public static PieceView of(int piece) {
+    if (piece < 0 || piece >= PackedPiece.COUNT) {
+      throw new IllegalArgumentException("Not a packed piece: " + piece);
+    }
+    PieceView view = TABLE[piece];
+    if (view == null) {
+      throw new IllegalArgumentException("A pawn cannot stand on the back rank of its own side");
+    }
+    return view;
+  }
+
+  /**
+   * @return the packed form of the piece, see PackedPiece
+   */
+  public int getPacked() {
+    return this.packed;
+  }
+
+  /**
+   * @return the type of the piece
+   */
+  public PieceType getType() {
+    return PackedPiece.type(packed);
+  }
+
+  @Override
+  public int getRow() {
+    return PackedPiece.row(packed);
+  }
+
+  @Override
+  public int getColumn() {
+    return PackedPiece.col(packed);
+  }
+
+  @Override
+  public Color getColor() {
+    return PackedPiece.color(packed);
+  }
+
+  /**
+   * same rules as canMove of the piece class
+   */
+  @Override
+  public boolean canMove(int row, int col) {
+    return rules.canMove(row, col);
+  }
+
+  /**
+   * same rules as canKill of the piece class
+   */
+  @Override
+  public boolean canKill(ChessPiece piece) {
+    return rules.canKill(piece);
+  }
+
+  /**
+   * @return e.g. "Qd1", see PackedPiece.toString
+   */
+  @Override
+  public String toString() {
+    return PackedPiece.toString(packed);
+  }
+}
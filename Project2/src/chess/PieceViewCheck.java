@@ -0,0 +1,111 @@
+package chess;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is the driver class that checks PieceView and PackedPiece. Every view must answer canMove
+ * for every square and canKill for every other view exactly like a new object of the piece
+ * class, and calling them must not allocate. It then stores the same random positions as lists
+ * of piece objects and as byte[64] piece codes and prints the bytes allocated by each.
+ */
+public class PieceViewCheck {
+  public static void main(String[] args) {
+    int mismatches = 0;
+    int views = 0;
+    List<PieceView> all = new ArrayList<>();
+    for (int piece = 0; piece < PackedPiece.COUNT; piece++) {
+      PieceView view;
+      try {
+        view = PieceView.of(piece);
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+      views++;
+      all.add(view);
+      if (PieceView.of(view.getType(), view.getColor(), view.getRow(), view.getColumn()) != view
+              || PackedPiece.of(view) != piece) {
+        mismatches++;
+      }
+      ChessPiece object = objectOf(view);
+      for (int row = -1; row <= 8; row++) {
+        for (int col = -1; col <= 8; col++) {
+          if (view.canMove(row, col) != object.canMove(row, col)) {
+            mismatches++;
+          }
+        }
+      }
+    }
+    for (PieceView attacker : all) {
+      ChessPiece object = objectOf(attacker);
+      for (PieceView target : all) {
+        if (attacker.canKill(target) != object.canKill(target)) {
+          mismatches++;
+        }
+      }
+    }
+    System.out.println("Checked " + views + " views, mismatches: " + mismatches);
+
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long id = Thread.currentThread().getId();
+    Board start = Board.startingPosition();
+    int count = 0;
+    for (int round = 0; round < 3; round++) {
+      long before = threads.getThreadAllocatedBytes(id);
+      for (int row = 0; row < 8; row++) {
+        for (int col = 0; col < 8; col++) {
+          PieceView view = start.viewAt(row, col);
+          if (view != null && view.canMove(3, 3)) {
+            count++;
+          }
+        }
+      }
+      System.out.println("viewAt + canMove on 64 squares allocated "
+              + (threads.getThreadAllocatedBytes(id) - before) + " bytes");
+    }
+
+    int positions = 100_000;
+    Random random = new Random(5004);
+    Board[] boards = new Board[256];
+    Board board = Board.startingPosition();
+    MoveList moves = new MoveList();
+    for (int i = 0; i < boards.length; i++) {
+      MoveGenerator.generate(board, moves);
+      if (moves.size() == 0) {
+        board = Board.startingPosition();
+        MoveGenerator.generate(board, moves);
+      }
+      board.makeMove(moves.get(random.nextInt(moves.size())));
+      boards[i] = board.copy();
+    }
+    long before = threads.getThreadAllocatedBytes(id);
+    List<List<ChessPiece>> objects = new ArrayList<>(positions);
+    for (int i = 0; i < positions; i++) {
+      objects.add(boards[i % boards.length].toPieces());
+    }
+    long objectBytes = threads.getThreadAllocatedBytes(id) - before;
+    before = threads.getThreadAllocatedBytes(id);
+    byte[] packed = new byte[positions * 64];
+    for (int i = 0; i < positions; i++) {
+      boards[i % boards.length].copySquares(packed, i * 64);
+    }
+    long packedBytes = threads.getThreadAllocatedBytes(id) - before;
+    System.out.printf("%d positions: piece objects %.1f MB, byte[64] %.1f MB (%d, %d)%n",
+            positions, objectBytes / 1e6, packedBytes / 1e6, objects.size(), count);
+    if (mismatches != 0) {
+      throw new IllegalStateException("PieceView does not match the piece classes");
+    }
+  }
+
+  /**
+   * a new object of the piece class for the same piece
+   */
+  private static ChessPiece objectOf(PieceView view) {
+    Board board = new Board();
+    board.put(view.getType(), view.getColor(), view.getRow(), view.getColumn());
+    return board.pieceAt(view.getRow(), view.getColumn());
+  }
+}
@@ -0,0 +1,212 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * This is the PositionStore class, a read-only opening book and endgame table keyed by the
+ * Zobrist key of a position (Board.getKey, PieceBoard.getKey).
+ * The file, written by PositionStoreBuilder, is a 16 byte header followed by fixed 16 byte
+ * records sorted by key:
+ *   header: magic "CS5004PS" (8 bytes), version (int), record count (int)
+ *   record: key (long), move (unsigned short, see Move), weight (unsigned short), score (int)
+ * A position has one record per book move, the most played first, or a single record with move
+ * Move.NONE when only its score is known. The score is in centipawns from the point of view of
+ * the side to move (MATE - n for a mate in n plies, see Searcher), NO_SCORE if unknown.
+ * The file is memory mapped and searched in place: opening it only checks the header, and a
+ * lookup is a binary search that reads the records straight from the mapping, without reading
+ * the file into objects. Pages are loaded by the operating system when first touched and shared
+ * by every process that maps the file. The store is safe to use from many threads.
+ */
+public class PositionStore {
+  public static final int NO_SCORE = Integer.MIN_VALUE;
+
+  static final long MAGIC = 0x5350343030355343L;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+  static final int RECORD_SIZE = 16;
+  static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+  private final ByteBuffer records;
+  private final int size;
+
+  private PositionStore(ByteBuffer records, int size) {
+    this.records = records;
+    this.size = size;
+  }
+
+  /**
+   * Map a store file
+   * @param path a file written by PositionStoreBuilder
+   * @return the store
+   * @throws IOException if the file cannot be read
+   * throw IllegalArgumentException if the file is not a position store
+   */
+  public static PositionStore open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_SIZE || length > HEADER_SIZE + (long) MAX_RECORDS * RECORD_SIZE) {
+        throw new IllegalArgumentException(path + " is not a position store");
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      int size = buffer.getInt(12);
+      if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION || size < 0
+              || length != HEADER_SIZE + (long) size * RECORD_SIZE) {
+        throw new IllegalArgumentException(path + " is not a position store");
+      }
+      // the mapping stays valid after the channel is closed
+      return new PositionStore(buffer, size);
+    }
+  }
+
+  /**
+   * @return the number of records
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param key a Zobrist key
+   * @return the index of the first record of the key, -1 if the key is not in the store
+   */
+  public int find(long key) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (key(mid) < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low < size && key(low) == key ? low : -1;
+  }
+
+  /**
+   * @param index record index, 0 to size() - 1
+   * @return the key of the record
+   */
+  public long key(int index) {
+    return records.getLong(offset(index));
+  }
+
+  /**
+   * @param index record index, 0 to size() - 1
+   * @return the book move of the record, Move.NONE if the record only holds a score
+   */
+  public int move(int index) {
+    return records.getShort(offset(index) + 8) & 0xFFFF;
+  }
+
+  /**
+   * @param index record index, 0 to size() - 1
+   * @return how often the move was played, 0-65535
+   */
+  public int weight(int index) {
+    return records.getShort(offset(index) + 10) & 0xFFFF;
+  }
+
+  /**
+   * @param index record index, 0 to size() - 1
+   * @return the score of the position of the record, NO_SCORE if unknown
+   */
+  public int score(int index) {
+    return records.getInt(offset(index) + 12);
+  }
+
+  /**
+   * @param board a position
+   * @return the stored score of the position, NO_SCORE if it is not in the store
+   */
+  public int score(Board board) {
+    int index = find(board.getKey());
+    return index < 0 ? NO_SCORE : score(index);
+  }
+
+  /**
+   * Find the book moves of a position, most played first. Moves that are not legal in the
+   * position (a different position with the same key) are left out.
+   * @param board the position, left unchanged
+   * @param out receives the book moves, and is used for the legal moves while searching
+   * @return out
+   */
+  public MoveList bookMoves(Board board, MoveList out) {
+    MoveGenerator.generate(board, out);
+    int index = find(board.getKey());
+    int kept = 0;
+    for (; index >= 0 && index < size && key(index) == board.getKey(); index++) {
+      int move = move(index);
+      for (int j = kept; j < out.size() && move != Move.NONE; j++) {
+        if (out.get(j) == move) {
+          out.set(j, out.get(kept));
+          out.set(kept++, move);
+          break;
+        }
+      }
+    }
+    out.truncate(kept);
+    return out;
+  }
+
+  /**
+   * @param board the position, left unchanged
+   * @return the most played book move of the position, Move.NONE if there is none
+   */
+  public int bookMove(Board board) {
+    MoveList moves = bookMoves(board, new MoveList());
+    return moves.size() == 0 ? Move.NONE : moves.get(0);
+  }
+
+  /**
+   * Choose a book move at random, each move as often as it was played
+   * @param board the position, left unchanged
+   * @param random the source of randomness
+   * @return a book move of the position, Move.NONE if there is none
+   */
+  public int bookMove(Board board, Random random) {
+    return bookMove(board, random, new MoveList());
+  }
+
+  /**
+   * Choose a book move at random, each move as often as it was played, without allocating
+   * @param board the position, left unchanged
+   * @param random the source of randomness
+   * @param scratch receives the legal moves of the position
+   * @return a book move of the position, Move.NONE if there is none
+   */
+  public int bookMove(Board board, Random random, MoveList scratch) {
+    int first = find(board.getKey());
+    if (first < 0) {
+      return Move.NONE;
+    }
+    int end = first;
+    int total = 0;
+    for (; end < size && key(end) == board.getKey(); end++) {
+      total += weight(end);
+    }
+    if (total == 0) {
+      return Move.NONE;
+    }
+    int pick = random.nextInt(total);
+    for (int index = first; index < end; index++) {
+      pick -= weight(index);
+      if (pick < 0) {
+        int move = move(index);
+        return MoveGenerator.isLegal(board, move, scratch) ? move : Move.NONE;
+      }
+    }
+    return Move.NONE;
+  }
+
+  private static int offset(int index) {
+    return HEADER_SIZE + index * RECORD_SIZE;
+  }
+}
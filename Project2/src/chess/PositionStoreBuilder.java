@@ -0,0 +1,280 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This is the PositionStoreBuilder class, which collects book moves and scores of positions and
+ * writes them as a PositionStore file.
+ * Book moves of the same position are added up, so a move played in many games gets a high
+ * weight. EPD input is read with FenReader, using the standard operations:
+ *   bm: the best moves, in SAN or coordinate notation, each adds 1 to the weight of the move
+ *   ce: the score in centipawns from the point of view of the side to move
+ *   dm: a direct mate, in moves (negative when the side to move is mated)
+ * PGN input adds the first moves of every game, replayed with PgnValidator.
+ * Run as a program, it builds a store from EPD and PGN files (by their extension):
+ *   java chess.PositionStoreBuilder book.bin openings.epd games.pgn endgames.epd
+ */
+public class PositionStoreBuilder {
+  private static final int MAX_WEIGHT = 0xFFFF;
+
+  private final Map<Long, Entry> entries = new HashMap<>();
+  // for checking the moves of addMove(Board, ...)
+  private final MoveList scratch = new MoveList();
+  private int records;
+
+  /**
+   * Add a book move of a position
+   * @param board the position
+   * @param move a legal move of the position
+   * @param weight how often the move was played
+   * throw IllegalArgumentException if the move is not legal or the weight is not positive
+   */
+  public void addMove(Board board, int move, int weight) {
+    if (!MoveGenerator.isLegal(board, move, scratch)) {
+      throw new IllegalArgumentException(Move.toString(move) + " is not a legal move");
+    }
+    addMove(board.getKey(), move, weight);
+  }
+
+  /**
+   * Add a book move of a position, without checking the move
+   * @param key the Zobrist key of the position
+   * @param move a legal move of the position
+   * @param weight how often the move was played
+   * throw IllegalArgumentException if the move is Move.NONE or the weight is not positive
+   */
+  public void addMove(long key, int move, int weight) {
+    if (move == Move.NONE || weight < 1) {
+      throw new IllegalArgumentException("A book move needs a move and a positive weight");
+    }
+    Entry entry = entry(key);
+    for (int i = 0; i < entry.size; i++) {
+      if (entry.moves[i] == move) {
+        entry.weights[i] = Math.min(MAX_WEIGHT, entry.weights[i] + weight);
+        return;
+      }
+    }
+    if (entry.size == entry.moves.length) {
+      entry.moves = Arrays.copyOf(entry.moves, entry.size * 2);
+      entry.weights = Arrays.copyOf(entry.weights, entry.size * 2);
+    }
+    entry.moves[entry.size] = move;
+    entry.weights[entry.size++] = Math.min(MAX_WEIGHT, weight);
+    records += entry.size == 1 ? 0 : 1;
+  }
+
+  /**
+   * Set the score of a position, replacing the score set before
+   * @param key the Zobrist key of the position
+   * @param score centipawns from the point of view of the side to move
+   * throw IllegalArgumentException if the score is PositionStore.NO_SCORE
+   */
+  public void setScore(long key, int score) {
+    if (score == PositionStore.NO_SCORE) {
+      throw new IllegalArgumentException("The score must be known");
+    }
+    entry(key).score = score;
+  }
+
+  /**
+   * Add the positions of an EPD or FEN file
+   * @param reader the input, read to its end
+   * @return the number of bm moves that are not legal in their position, which are skipped
+   * @throws IOException if the input cannot be read
+   */
+  public int addEpd(FenReader reader) throws IOException {
+    Board board = new Board();
+    MoveList scratch = new MoveList();
+    int illegal = 0;
+    while (reader.next(board)) {
+      String best = reader.getOperation("bm");
+      if (best != null) {
+        for (String text : best.trim().split("\\s+")) {
+          int move = San.parse(board, text, 0, text.length(), scratch);
+          if (move == Move.NONE) {
+            illegal++;
+          } else {
+            addMove(board.getKey(), move, 1);
+          }
+        }
+      }
+      String centipawns = reader.getOperation("ce");
+      String mate = reader.getOperation("dm");
+      try {
+        if (mate != null) {
+          int moves = Integer.parseInt(mate.trim());
+          setScore(board.getKey(), moves > 0 ? Searcher.MATE - (2 * moves - 1)
+                  : -(Searcher.MATE - 2 * -moves));
+        } else if (centipawns != null) {
+          setScore(board.getKey(), Integer.parseInt(centipawns.trim()));
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Bad score on line " + reader.getLineNumber() + ": "
+                + reader.currentLine());
+      }
+    }
+    return illegal;
+  }
+
+  /**
+   * Add the opening moves of the games of a PGN archive, each with a weight of 1. A game adds
+   * its moves up to its first illegal move.
+   * @param reader the archive, read to its end
+   * @param plies the number of moves taken from the start of each game
+   * @return the number of invalid games
+   * @throws IOException if the archive cannot be read
+   */
+  public int addPgn(PgnReader reader, int plies) throws IOException {
+    PgnValidator.MoveVisitor visitor = (board, move, ply) -> {
+      if (ply < plies) {
+        addMove(board.getKey(), move, 1);
+      }
+    };
+    int invalid = 0;
+    for (String game = reader.nextGame(); game != null; game = reader.nextGame()) {
+      PgnValidator.Result result = PgnValidator.replay(game, reader.getGameCount(),
+              reader.getGameLine(), visitor);
+      invalid += result.isValid() ? 0 : 1;
+    }
+    return invalid;
+  }
+
+  /**
+   * @return the number of positions added
+   */
+  public int positions() {
+    return entries.size();
+  }
+
+  /**
+   * @return the number of records the store will have
+   */
+  public int records() {
+    return records;
+  }
+
+  /**
+   * Write the store file
+   * @param path the file, replaced if it exists
+   * @throws IOException if the file cannot be written
+   * throw IllegalStateException if there are more records than a store can hold
+   */
+  public void write(Path path) throws IOException {
+    if (records > PositionStore.MAX_RECORDS) {
+      throw new IllegalStateException(records + " records do not fit in a store");
+    }
+    long[] keys = new long[entries.size()];
+    int n = 0;
+    for (long key : entries.keySet()) {
+      keys[n++] = key;
+    }
+    Arrays.sort(keys);
+    ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      buffer.putLong(PositionStore.MAGIC).putInt(PositionStore.VERSION).putInt(records);
+      for (long key : keys) {
+        Entry entry = entries.get(key);
+        entry.sortByWeight();
+        for (int i = 0; i < Math.max(1, entry.size); i++) {
+          if (buffer.remaining() < PositionStore.RECORD_SIZE) {
+            drain(buffer, channel);
+          }
+          buffer.putLong(key);
+          buffer.putShort((short) (entry.size == 0 ? Move.NONE : entry.moves[i]));
+          buffer.putShort((short) (entry.size == 0 ? 0 : entry.weights[i]));
+          buffer.putInt(entry.score);
+        }
+      }
+      drain(buffer, channel);
+    }
+  }
+
+  /**
+   * Build a store from EPD and PGN files, taking the first 16 moves of each PGN game
+   * @param args the store file followed by the EPD and PGN files
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: java chess.PositionStoreBuilder <store> <epd or pgn file>...");
+      return;
+    }
+    PositionStoreBuilder builder = new PositionStoreBuilder();
+    for (int i = 1; i < args.length; i++) {
+      String name = args[i];
+      if (name.toLowerCase().endsWith(".pgn")) {
+        try (PgnReader reader = PgnReader.open(Paths.get(name))) {
+          int invalid = builder.addPgn(reader, 16);
+          System.out.println(name + ": " + reader.getGameCount() + " games, " + invalid
+                  + " invalid");
+        }
+        continue;
+      }
+      try (FenReader reader = FenReader.open(Paths.get(name))) {
+        reader.setErrorListener((r, line, error) -> System.out.println(name + ":" + line
+                + ": " + FenReader.describe(error)));
+        int illegal = builder.addEpd(reader);
+        System.out.println(name + ": " + reader.getPositionCount() + " positions, "
+                + illegal + " illegal moves skipped");
+      }
+    }
+    builder.write(Paths.get(args[0]));
+    System.out.println(args[0] + ": " + builder.positions() + " positions, "
+            + builder.records() + " records");
+  }
+
+  private Entry entry(long key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry();
+      entries.put(key, entry);
+      records++;
+    }
+    return entry;
+  }
+
+  private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * the book moves and score of one position
+   */
+  private static final class Entry {
+    private int[] moves = new int[2];
+    private int[] weights = new int[2];
+    private int size;
+    private int score = PositionStore.NO_SCORE;
+
+    /**
+     * most played first, then by move so the file does not depend on the input order
+     */
+    private void sortByWeight() {
+      for (int i = 1; i < size; i++) {
+        int move = moves[i];
+        int weight = weights[i];
+        int j = i - 1;
+        for (; j >= 0 && (weights[j] < weight || weights[j] == weight && moves[j] > move); j--) {
+          moves[j + 1] = moves[j];
+          weights[j + 1] = weights[j];
+        }
+        moves[j + 1] = move;
+        weights[j + 1] = weight;
+      }
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package chess;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This is the driver class of PositionStore and PositionStoreBuilder. It writes an EPD file with
+ * the moves of random games ("bm" in SAN) and scored king and queen against king endings ("ce"
+ * or "dm"), builds a store from it, and checks that every position comes back with the same
+ * moves, weights and score. Then it follows the book from a position built from chess pieces and
+ * prints the open time, the lookup speed and the bytes allocated by lookups.
+ * Arguments: the number of games (default 20,000) and of endings (default 500).
+ */
+public class PositionStoreDriver {
+  public static void main(String[] args) throws IOException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    int endings = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    Random random = new Random(5004);
+    Path epd = Files.createTempFile("book", ".epd");
+    Path file = Files.createTempFile("book", ".bin");
+    Map<Long, Map<Integer, Integer>> expectedMoves = new HashMap<>();
+    Map<Long, Integer> expectedScores = new HashMap<>();
+    MoveList moves = new MoveList();
+    StringBuilder operations = new StringBuilder();
+
+    try (FenWriter writer = FenWriter.open(epd)) {
+      for (int game = 0; game < games; game++) {
+        Board board = Board.startingPosition();
+        for (int ply = 0; ply < 12; ply++) {
+          MoveGenerator.generate(board, moves);
+          if (moves.size() == 0) {
+            break;
+          }
+          // a few moves per position, so lines repeat and moves gain weight
+          int move = moves.get(random.nextInt(Math.min(3, moves.size())));
+          operations.setLength(0);
+          writer.writeEpd(board, operations.append("bm ").append(San.toString(board, move))
+                  .append(';'));
+          expectedMoves.computeIfAbsent(board.getKey(), k -> new HashMap<>())
+                  .merge(move, 1, Integer::sum);
+          board.makeMove(move);
+        }
+      }
+      Searcher searcher = new Searcher(new TranspositionTable(16), 1);
+      for (int i = 0; i < endings; i++) {
+        Board board = randomEnding(random);
+        int score = searcher.searchDepth(board, 4).getScore();
+        operations.setLength(0);
+        if (score >= Searcher.MATE - Searcher.MAX_DEPTH) {
+          operations.append("dm ").append((Searcher.MATE - score + 1) / 2).append(';');
+        } else {
+          operations.append("ce ").append(score).append(';');
+        }
+        writer.writeEpd(board, operations);
+        expectedScores.put(board.getKey(), score);
+      }
+    }
+
+    PositionStoreBuilder builder = new PositionStoreBuilder();
+    int illegal;
+    try (FenReader reader = FenReader.open(epd)) {
+      illegal = builder.addEpd(reader);
+    }
+    builder.write(file);
+    long start = System.nanoTime();
+    PositionStore store = PositionStore.open(file);
+    long openNanos = System.nanoTime() - start;
+    System.out.printf("%d positions, %d records, %d bytes, opened in %.0f us%n",
+            builder.positions(), store.size(), Files.size(file), openNanos / 1e3);
+
+    int mismatches = illegal;
+    for (Map.Entry<Long, Map<Integer, Integer>> entry : expectedMoves.entrySet()) {
+      int index = store.find(entry.getKey());
+      int count = 0;
+      int previous = Integer.MAX_VALUE;
+      for (; index >= 0 && index < store.size() && store.key(index) == entry.getKey(); index++) {
+        Integer weight = entry.getValue().get(store.move(index));
+        if (weight == null || weight != store.weight(index) || weight > previous) {
+          mismatches++;
+        }
+        previous = store.weight(index);
+        count++;
+      }
+      mismatches += count == entry.getValue().size() ? 0 : 1;
+    }
+    for (Map.Entry<Long, Integer> entry : expectedScores.entrySet()) {
+      int index = store.find(entry.getKey());
+      if (index < 0 || store.score(index) != entry.getValue()) {
+        mismatches++;
+      }
+    }
+    System.out.println("Mismatched records: " + mismatches);
+
+    // follow the book from pieces
+    PieceBoard pieces = PieceBoard.fromFen(Board.START_FEN);
+    StringBuilder line = new StringBuilder("Book line:");
+    for (int move = store.bookMove(pieces.getBoard()); move != Move.NONE;
+         move = store.bookMove(pieces.getBoard())) {
+      line.append(' ').append(San.toString(pieces.getBoard(), move));
+      pieces.makeMove(move);
+    }
+    System.out.println(line + " (" + pieces.getPly() + " plies)");
+
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long[] keys = new long[1 << 16];
+    int k = 0;
+    for (long key : expectedMoves.keySet()) {
+      if (k == keys.length) {
+        break;
+      }
+      keys[k++] = key;
+    }
+    for (; k < keys.length; k++) {
+      keys[k] = random.nextLong();
+    }
+    int lookups = 5_000_000;
+    long found = 0;
+    for (int i = 0; i < lookups; i++) {
+      found += store.find(keys[i & (keys.length - 1)]) >= 0 ? 1 : 0;
+    }
+    long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    start = System.nanoTime();
+    for (int i = 0; i < lookups; i++) {
+      found += store.find(keys[i & (keys.length - 1)]) >= 0 ? 1 : 0;
+    }
+    long nanos = System.nanoTime() - start;
+    Board board = Board.startingPosition();
+    for (int i = 0; i < 100_000; i++) {
+      store.bookMoves(board, moves);
+    }
+    long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId())
+            - allocatedBefore;
+    System.out.printf("%.0f ns per lookup (%d found), %d bytes allocated by %d lookups%n",
+            nanos / (double) lookups, found / 2, allocated, lookups + 100_000);
+
+    Files.delete(epd);
+    Files.delete(file);
+    boolean rejected = false;
+    Path bad = Files.write(Files.createTempFile("book", ".bin"), new byte[32]);
+    try {
+      PositionStore.open(bad);
+    } catch (IllegalArgumentException e) {
+      rejected = true;
+    }
+    Files.delete(bad);
+    if (mismatches != 0 || !rejected || expectedMoves.size() + expectedScores.size()
+            != builder.positions()) {
+      throw new IllegalStateException("Position store check failed");
+    }
+  }
+
+  /**
+   * a legal king and queen against king position, white to move
+   */
+  private static Board randomEnding(Random random) {
+    while (true) {
+      Board board = new Board();
+      int[] squares = {random.nextInt(64), random.nextInt(64), random.nextInt(64)};
+      if (squares[0] == squares[1] || squares[0] == squares[2] || squares[1] == squares[2]) {
+        continue;
+      }
+      PieceType[] types = {PieceType.KING, PieceType.QUEEN, PieceType.KING};
+      for (int i = 0; i < 3; i++) {
+        board.put(types[i], i < 2 ? Color.WHITE : Color.BLACK, Bitboards.row(squares[i]),
+                Bitboards.col(squares[i]));
+      }
+      board.setSideToMove(Color.BLACK);
+      boolean blackInCheck = board.inCheck();
+      board.setSideToMove(Color.WHITE);
+      if (!blackInCheck && !board.inCheck()) {
+        return board;
+      }
+    }
+  }
+}
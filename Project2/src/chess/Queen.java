@@ -28,4 +28,19 @@ public class Queen extends AbstractChess {
     int colDiff = Math.abs(col - this.currentCol);
     return inBoundary && ((rowDiff == 0 || colDiff == 0) || (rowDiff == colDiff));
   }
+
+  /**
+   * Occupancy-aware version of canMove: the queen moves horizontally, vertically or diagonally
+   * but cannot jump over the pieces on the board, answered with the magic bitboard lookup
+   * SlidingAttacks.queenAttacks
+   * @param row the row where the piece might be moved to.
+   * @param col the column where the piece might be moved to.
+   * @param board the pieces that may block the way, this piece itself does not need to be on it
+   * @return true if the destination is reachable and is empty or holds a piece of the other
+   * color, return false otherwise
+   */
+  public boolean canMove(int row, int col, Board board) {
+    return canReach(row, col, board, SlidingAttacks.queenAttacks(
+            Bitboards.square(this.currentRow, this.currentCol), board.occupancy()));
+  }
 }
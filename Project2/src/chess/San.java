@@ -0,0 +1,225 @@
+package chess;
+
+/**
+ * This is the San class, which reads and writes moves in standard algebraic notation (SAN), the
+ * notation of PGN games and EPD "bm" operations: e.g. "e4", "Nbd7", "exd6", "R1xe5+", "e8=Q#",
+ * "O-O-O". Coordinate notation ("e2e4", "e7e8q") is read as well.
+ * A move is read by matching the text against the legal moves of the position, so only legal
+ * moves are ever returned. Reading does not allocate apart from the move list given by the caller.
+ */
+public final class San {
+  private static final String PIECES = "PNBRQK";
+
+  private San() {
+  }
+
+  /**
+   * Read a move of the side to move
+   * @param board the position, left unchanged
+   * @param text the move, e.g. "Nf3", "exd5", "O-O" or "e2e4"
+   * @return the packed move, Move.NONE if the text is not a legal move or is ambiguous
+   */
+  public static int parse(Board board, CharSequence text) {
+    return parse(board, text, 0, text.length(), new MoveList());
+  }
+
+  /**
+   * Read a move of the side to move from a part of a text
+   * @param board the position, left unchanged
+   * @param text holds the move
+   * @param from index of the first character of the move
+   * @param to index after the last character of the move
+   * @param scratch receives the legal moves of the position
+   * @return the packed move, Move.NONE if the text is not a legal move or is ambiguous
+   */
+  public static int parse(Board board, CharSequence text, int from, int to, MoveList scratch) {
+    // check, mate and annotation marks
+    while (to > from && "+#!?".indexOf(text.charAt(to - 1)) >= 0) {
+      to--;
+    }
+    int length = to - from;
+    if (length < 2) {
+      return Move.NONE;
+    }
+    MoveGenerator.generate(board, scratch);
+    char first = text.charAt(from);
+    if (first == 'O' || first == '0') {
+      int flags = castleFlags(text, from, to, first);
+      return flags < 0 ? Move.NONE : find(scratch, -1, -1, -1, -1, -1, flags, board);
+    }
+    if (length >= 4 && length <= 5 && isFile(first) && isRank(text.charAt(from + 1))
+            && isFile(text.charAt(from + 2)) && isRank(text.charAt(from + 3))) {
+      int promotion = length == 5 ? promotionIndex(text.charAt(from + 4)) : -1;
+      if (length == 5 && promotion < 0) {
+        return Move.NONE;
+      }
+      int origin = square(text.charAt(from), text.charAt(from + 1));
+      int target = square(text.charAt(from + 2), text.charAt(from + 3));
+      return find(scratch, -1, origin, target, -1, -1, promotion, board);
+    }
+
+    int type = PIECES.indexOf(first);
+    int i = from;
+    if (type >= 0) {
+      i++;
+    } else {
+      type = 0;
+    }
+    int promotion = -1;
+    if (type == 0 && to - i >= 3 && promotionIndex(text.charAt(to - 1)) >= 0
+            && Character.isUpperCase(text.charAt(to - 1))) {
+      promotion = promotionIndex(text.charAt(to - 1));
+      to -= text.charAt(to - 2) == '=' ? 2 : 1;
+    }
+    if (to - i < 2 || !isFile(text.charAt(to - 2)) || !isRank(text.charAt(to - 1))) {
+      return Move.NONE;
+    }
+    int target = square(text.charAt(to - 2), text.charAt(to - 1));
+    to -= 2;
+    if (to > i && (text.charAt(to - 1) == 'x' || text.charAt(to - 1) == ':')) {
+      to--;
+    }
+    int file = -1;
+    int rank = -1;
+    for (; i < to; i++) {
+      char c = text.charAt(i);
+      if (isFile(c) && file < 0 && rank < 0) {
+        file = c - 'a';
+      } else if (isRank(c) && rank < 0) {
+        rank = c - '1';
+      } else {
+        return Move.NONE;
+      }
+    }
+    if (type == 0 && promotion < 0 && (target < 8 || target >= 56)) {
+      return Move.NONE;
+    }
+    return find(scratch, type, -1, target, file, rank, promotion, board);
+  }
+
+  /**
+   * Write a legal move of the side to move in SAN, with + or # when it gives check or mate
+   * @param board the position, left unchanged
+   * @param move a legal move of the position
+   * @return the move in SAN, e.g. "Nbd7" or "exd8=Q+"
+   * throw IllegalArgumentException if the move is not legal in the position
+   */
+  public static String toString(Board board, int move) {
+    MoveList moves = new MoveList();
+    MoveGenerator.generate(board, moves);
+    if (!moves.contains(move)) {
+      throw new IllegalArgumentException(Move.toString(move) + " is not a legal move");
+    }
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int type = board.codeAt(from) % 6;
+    StringBuilder text = new StringBuilder(8);
+    if (Move.flags(move) == Move.KING_CASTLE) {
+      text.append("O-O");
+    } else if (Move.flags(move) == Move.QUEEN_CASTLE) {
+      text.append("O-O-O");
+    } else if (type == 0) {
+      if (Move.isCapture(move)) {
+        text.append((char) ('a' + Bitboards.col(from))).append('x');
+      }
+      text.append(Move.squareName(to));
+      if (Move.isPromotion(move)) {
+        text.append('=').append(PIECES.charAt(Move.promotion(move).ordinal()));
+      }
+    } else {
+      text.append(PIECES.charAt(type));
+      boolean sameFile = false;
+      boolean sameRank = false;
+      boolean ambiguous = false;
+      for (int i = 0; i < moves.size(); i++) {
+        int other = moves.get(i);
+        int otherFrom = Move.from(other);
+        if (otherFrom != from && Move.to(other) == to && board.codeAt(otherFrom) % 6 == type) {
+          ambiguous = true;
+          sameFile |= Bitboards.col(otherFrom) == Bitboards.col(from);
+          sameRank |= Bitboards.row(otherFrom) == Bitboards.row(from);
+        }
+      }
+      if (ambiguous && (!sameFile || sameRank)) {
+        text.append((char) ('a' + Bitboards.col(from)));
+      }
+      if (ambiguous && sameFile) {
+        text.append((char) ('1' + Bitboards.row(from)));
+      }
+      if (Move.isCapture(move)) {
+        text.append('x');
+      }
+      text.append(Move.squareName(to));
+    }
+    board.makeMove(move);
+    if (board.inCheck()) {
+      MoveGenerator.generate(board, moves);
+      text.append(moves.size() == 0 ? '#' : '+');
+    }
+    board.unmakeMove(move);
+    return text.toString();
+  }
+
+  /**
+   * the one legal move matching every given part, -1 for a part that is not given; a promotion
+   * part of 0-3 is the promotion piece and one of KING_CASTLE or QUEEN_CASTLE when type is -1
+   */
+  private static int find(MoveList moves, int type, int origin, int target, int file, int rank,
+                          int promotion, Board board) {
+    int found = Move.NONE;
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      int from = Move.from(move);
+      boolean matches;
+      if (type < 0 && origin < 0) {
+        matches = Move.flags(move) == promotion;
+      } else {
+        matches = (origin < 0 || from == origin) && Move.to(move) == target
+                && (type < 0 || board.codeAt(from) % 6 == type)
+                && (file < 0 || Bitboards.col(from) == file)
+                && (rank < 0 || Bitboards.row(from) == rank)
+                && (promotion < 0 ? !Move.isPromotion(move)
+                : Move.isPromotion(move) && (Move.flags(move) & 3) == promotion);
+      }
+      if (matches) {
+        if (found != Move.NONE) {
+          return Move.NONE;
+        }
+        found = move;
+      }
+    }
+    return found;
+  }
+
+  private static int castleFlags(CharSequence text, int from, int to, char zero) {
+    int length = to - from;
+    if (length != 3 && length != 5) {
+      return -1;
+    }
+    for (int i = from; i < to; i++) {
+      if (text.charAt(i) != ((i - from) % 2 == 0 ? zero : '-')) {
+        return -1;
+      }
+    }
+    return length == 3 ? Move.KING_CASTLE : Move.QUEEN_CASTLE;
+  }
+
+  /**
+   * 0-3 for N, B, R, Q in either case, -1 otherwise
+   */
+  private static int promotionIndex(char c) {
+    return "NBRQ".indexOf(Character.toUpperCase(c));
+  }
+
+  private static boolean isFile(char c) {
+    return c >= 'a' && c <= 'h';
+  }
+
+  private static boolean isRank(char c) {
+    return c >= '1' && c <= '8';
+  }
+
+  private static int square(char file, char rank) {
+    return Bitboards.square(rank - '1', file - 'a');
+  }
+}
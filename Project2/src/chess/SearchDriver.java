@@ -0,0 +1,55 @@
+package chess;
+
+/**
+ * This is the driver class of the Searcher. It solves a few positions with a known best move,
+ * then searches one middlegame position for a fixed time with 1, 2, 4, ... threads and prints the
+ * nodes per second of each run, to show how Lazy SMP scales with the number of cores.
+ * Arguments: the time per run in milliseconds (default 2000) and the largest number of threads
+ * (default: the number of available processors, at least 2).
+ */
+public class SearchDriver {
+  public static void main(String[] args) {
+    long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(2, cores);
+
+    // {FEN, best move}
+    String[][] puzzles = {
+        // mate in 1, back rank
+        {"6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", "a1a8"},
+        // win the queen with a knight fork
+        {"6k1/3q4/8/3N4/8/8/8/4K3 w - - 0 1", "d5f6"},
+        // take the hanging rook
+        {"4k3/8/8/3r4/8/8/8/3RK3 w - - 0 1", "d1d5"}
+    };
+    Searcher one = new Searcher(new TranspositionTable(16), 1);
+    int solved = 0;
+    for (String[] puzzle : puzzles) {
+      Searcher.Result result = one.searchDepth(Board.fromFen(puzzle[0]), 6);
+      boolean ok = Move.toString(result.getBestMove()).equals(puzzle[1]);
+      solved += ok ? 1 : 0;
+      System.out.println(puzzle[0] + ": " + result + (ok ? "" : " FAILED, expected " + puzzle[1]));
+    }
+    System.out.println("Solved " + solved + " of " + puzzles.length);
+
+    System.out.println(cores + " available processors, " + millis + " ms per run");
+    Board board = Board.fromFen(
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1QBPPP/R3KB1R w KQ - 0 9");
+    // warm-up run so the first measured run is not slowed down by the JIT compiler
+    new Searcher(new TranspositionTable(64), 1).searchTime(board, millis);
+    double single = 0;
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      Searcher searcher = new Searcher(new TranspositionTable(64), threads);
+      Searcher.Result result = searcher.searchTime(board, millis);
+      if (threads == 1) {
+        single = result.getNodesPerSecond();
+      }
+      System.out.printf("%2d threads: %s, speedup %.2f%n", threads, result,
+              result.getNodesPerSecond() / single);
+    }
+    if (solved != puzzles.length) {
+      throw new IllegalStateException("The searcher missed " + (puzzles.length - solved)
+              + " puzzles");
+    }
+  }
+}
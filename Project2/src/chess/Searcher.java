@@ -0,0 +1,489 @@
+package chess;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the Searcher class, which chooses a move with an iterative-deepening alpha-beta search.
+ * Each depth is searched with negamax alpha-beta, extended by one ply when in check, and finished
+ * with a quiescence search over captures and promotions so positions are only evaluated when
+ * they are quiet. Results are stored in a shared TranspositionTable; the stored best move is
+ * tried first at the next visit and at the next depth.
+ * Moves are ordered: the table move, then captures by MVV-LVA (most valuable victim first, least
+ * valuable attacker first among equal victims), then promotions, then the 2 killer moves of the
+ * ply (quiet moves that caused a cutoff at the same ply), then the quiet moves by their history
+ * score (how often they caused cutoffs, weighted by depth).
+ * With more than one thread the search is Lazy SMP: every thread searches the same root on its
+ * own copy of the board, with its own killers and history, and they only share the table, so a
+ * thread finds many positions already searched by the others. Half of the helper threads start
+ * one ply deeper so the threads do not stay in step. The result is the one of the thread that
+ * completed the deepest iteration.
+ * The search stops at the given depth, node count or time, whichever comes first; the limits are
+ * checked every 1024 nodes, so they may be passed by a few thousand nodes.
+ * Scores are in centipawns from the point of view of the side to move; a mate in n plies scores
+ * MATE - n. Positions are scored by an Evaluator; each thread has its own, with its own pawn
+ * table.
+ */
+public class Searcher {
+  public static final int MATE = 30_000;
+  public static final int MAX_DEPTH = 64;
+
+  private static final int INFINITY = 32_000;
+  private static final int MAX_PLY = 128;
+  private static final int TABLE_MOVE_SCORE = 1 << 30;
+  private static final int CAPTURE_SCORE = 1 << 28;
+  private static final int PROMOTION_SCORE = 1 << 27;
+  private static final int KILLER_SCORE = 1 << 26;
+  private static final int HISTORY_LIMIT = 1 << 20;
+
+  private final TranspositionTable table;
+  private final int threads;
+
+  /**
+   * Searcher constructor
+   * @param table the table shared by the search threads and kept between searches
+   * @param threads number of search threads, at least 1
+   * throw IllegalArgumentException if threads is less than 1
+   */
+  public Searcher(TranspositionTable table, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("A search needs at least 1 thread");
+    }
+    this.table = table;
+    this.threads = threads;
+  }
+
+  /**
+   * @return the number of search threads
+   */
+  public int getThreads() {
+    return this.threads;
+  }
+
+  /**
+   * @param board the position, left unchanged
+   * @param depth the depth to search to, 1 to MAX_DEPTH
+   * @return the result of the deepest completed iteration
+   */
+  public Result searchDepth(Board board, int depth) {
+    return search(board, depth, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param board the position, left unchanged
+   * @param nodes the number of nodes to search, summed over all threads
+   * @return the result of the deepest completed iteration
+   */
+  public Result searchNodes(Board board, long nodes) {
+    return search(board, MAX_DEPTH, nodes, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param board the position, left unchanged
+   * @param millis the time to search, in milliseconds
+   * @return the result of the deepest completed iteration
+   */
+  public Result searchTime(Board board, long millis) {
+    return search(board, MAX_DEPTH, Long.MAX_VALUE, millis);
+  }
+
+  /**
+   * Search a position until the first limit is reached
+   * @param board the position, left unchanged
+   * @param maxDepth the depth to search to, 1 to MAX_DEPTH
+   * @param maxNodes the number of nodes to search, summed over all threads
+   * @param millis the time to search, in milliseconds
+   * @return the result of the deepest completed iteration
+   * throw IllegalArgumentException if maxDepth is out of range or a limit is not positive
+   */
+  public Result search(Board board, int maxDepth, long maxNodes, long millis) {
+    if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+      throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+    }
+    if (maxNodes < 1 || millis < 1) {
+      throw new IllegalArgumentException("Node and time limits must be positive");
+    }
+    long start = System.nanoTime();
+    long deadline = millis >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE
+            : start + millis * 1_000_000;
+    table.newSearch();
+    Shared shared = new Shared(maxNodes, deadline);
+    Worker[] workers = new Worker[threads];
+    Thread[] helpers = new Thread[threads - 1];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Worker(board.copy(), table, shared, maxDepth,
+              i == 0 ? 1 : 1 + (i & 1));
+    }
+    for (int i = 1; i < threads; i++) {
+      helpers[i - 1] = new Thread(workers[i], "search-" + i);
+      helpers[i - 1].setDaemon(true);
+      helpers[i - 1].start();
+    }
+    workers[0].run();
+    shared.stop = true;
+    for (Thread helper : helpers) {
+      try {
+        helper.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    Worker best = workers[0];
+    long nodes = 0;
+    for (Worker worker : workers) {
+      nodes += worker.nodes;
+      if (worker.completedDepth > best.completedDepth && worker.bestMove != Move.NONE) {
+        best = worker;
+      }
+    }
+    return new Result(best.bestMove, best.bestScore, best.completedDepth, nodes,
+            System.nanoTime() - start);
+  }
+
+  /**
+   * limits and stop flag shared by the threads of one search
+   */
+  private static final class Shared {
+    private final long maxNodes;
+    private final long deadline;
+    private final AtomicLong nodes = new AtomicLong();
+    private volatile boolean stop;
+
+    private Shared(long maxNodes, long deadline) {
+      this.maxNodes = maxNodes;
+      this.deadline = deadline;
+    }
+
+    /**
+     * add 1024 nodes and stop the search if a limit is reached
+     */
+    private void tick() {
+      if (nodes.addAndGet(1024) >= maxNodes || System.nanoTime() >= deadline) {
+        stop = true;
+      }
+    }
+  }
+
+  /**
+   * one search thread, with its own board, move lists, killers and history
+   */
+  private static final class Worker implements Runnable {
+    private final Board board;
+    private final TranspositionTable table;
+    private final Shared shared;
+    private final int maxDepth;
+    private final int startDepth;
+    private final MoveList[] lists = new MoveList[MAX_PLY];
+    private final int[][] scores = new int[MAX_PLY][MoveList.CAPACITY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // [side][from][to]
+    private final int[][][] history = new int[2][64][64];
+    private final Evaluator evaluator = new Evaluator();
+    private long nodes;
+    private int rootMove;
+    private int bestMove = Move.NONE;
+    private int bestScore;
+    private int completedDepth;
+
+    private Worker(Board board, TranspositionTable table, Shared shared, int maxDepth,
+                   int startDepth) {
+      this.board = board;
+      this.table = table;
+      this.shared = shared;
+      this.maxDepth = maxDepth;
+      this.startDepth = Math.min(startDepth, maxDepth);
+      for (int i = 0; i < MAX_PLY; i++) {
+        lists[i] = new MoveList();
+      }
+    }
+
+    @Override
+    public void run() {
+      for (int depth = startDepth; depth <= maxDepth && !shared.stop; depth++) {
+        rootMove = Move.NONE;
+        int score = negamax(depth, -INFINITY, INFINITY, 0);
+        if (shared.stop && completedDepth > 0) {
+          break;
+        }
+        bestMove = rootMove;
+        bestScore = score;
+        completedDepth = depth;
+        if (rootMove == Move.NONE || Math.abs(score) >= MATE - depth) {
+          // no legal move, or a mate found at full width: deeper searches cannot change it
+          break;
+        }
+      }
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+      if (countNode()) {
+        return 0;
+      }
+      if (ply > 0 && (board.isRepetition() || board.getHalfmoveClock() >= 100)) {
+        return 0;
+      }
+      boolean inCheck = board.inCheck();
+      if (inCheck) {
+        depth++;
+      }
+      if (depth <= 0) {
+        return quiesce(alpha, beta, ply);
+      }
+      if (ply >= MAX_PLY - 1) {
+        return evaluator.evaluate(board);
+      }
+
+      long key = board.getKey();
+      int tableMove = Move.NONE;
+      long data = table.probe(key);
+      if (data != TranspositionTable.NOT_FOUND) {
+        tableMove = TranspositionTable.move(data);
+        if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+          int score = fromTable(TranspositionTable.score(data), ply);
+          int bound = TranspositionTable.bound(data);
+          if (bound == TranspositionTable.EXACT
+                  || (bound == TranspositionTable.LOWER && score >= beta)
+                  || (bound == TranspositionTable.UPPER && score <= alpha)) {
+            return score;
+          }
+        }
+      }
+
+      MoveList moves = lists[ply];
+      MoveGenerator.generate(board, moves);
+      if (moves.size() == 0) {
+        return inCheck ? -MATE + ply : 0;
+      }
+      scoreMoves(moves, scores[ply], tableMove, ply);
+
+      int originalAlpha = alpha;
+      int best = -INFINITY;
+      int bestHere = Move.NONE;
+      for (int i = 0; i < moves.size(); i++) {
+        int move = pickNext(moves, scores[ply], i);
+        board.makeMove(move);
+        int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+        board.unmakeMove(move);
+        if (shared.stop) {
+          return 0;
+        }
+        if (score > best) {
+          best = score;
+          bestHere = move;
+          if (ply == 0) {
+            rootMove = move;
+          }
+        }
+        if (score > alpha) {
+          alpha = score;
+        }
+        if (alpha >= beta) {
+          if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+            addKiller(move, ply);
+            addHistory(move, depth);
+          }
+          break;
+        }
+      }
+      int bound = best >= beta ? TranspositionTable.LOWER
+              : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+      table.store(key, bestHere, toTable(best, ply), depth, bound);
+      return best;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+      if (countNode()) {
+        return 0;
+      }
+      int standPat = evaluator.evaluate(board);
+      if (ply >= MAX_PLY - 1 || standPat >= beta) {
+        return standPat;
+      }
+      if (standPat > alpha) {
+        alpha = standPat;
+      }
+      MoveList moves = lists[ply];
+      MoveGenerator.generateCaptures(board, moves);
+      scoreMoves(moves, scores[ply], Move.NONE, ply);
+      int best = standPat;
+      for (int i = 0; i < moves.size(); i++) {
+        int move = pickNext(moves, scores[ply], i);
+        board.makeMove(move);
+        int score = -quiesce(-beta, -alpha, ply + 1);
+        board.unmakeMove(move);
+        if (shared.stop) {
+          return 0;
+        }
+        if (score > best) {
+          best = score;
+          if (score > alpha) {
+            alpha = score;
+            if (alpha >= beta) {
+              break;
+            }
+          }
+        }
+      }
+      return best;
+    }
+
+    /**
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+      if ((++nodes & 1023) == 0) {
+        shared.tick();
+      }
+      return shared.stop;
+    }
+
+    private void scoreMoves(MoveList moves, int[] out, int tableMove, int ply) {
+      int side = board.side();
+      for (int i = 0; i < moves.size(); i++) {
+        int move = moves.get(i);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (move == tableMove) {
+          out[i] = TABLE_MOVE_SCORE;
+        } else if (Move.isCapture(move)) {
+          int victim = Move.flags(move) == Move.EN_PASSANT ? PieceType.PAWN.ordinal()
+                  : board.codeAt(to) % 6;
+          int attacker = board.codeAt(from) % 6;
+          out[i] = CAPTURE_SCORE + victim * 8 + 7 - attacker
+                  + (Move.isPromotion(move) ? 64 + (Move.flags(move) & 3) : 0);
+        } else if (Move.isPromotion(move)) {
+          out[i] = PROMOTION_SCORE + (Move.flags(move) & 3);
+        } else if (move == killers[ply][0]) {
+          out[i] = KILLER_SCORE + 1;
+        } else if (move == killers[ply][1]) {
+          out[i] = KILLER_SCORE;
+        } else {
+          out[i] = history[side][from][to];
+        }
+      }
+    }
+
+    /**
+     * selection sort step: swap the best scored move of [i, size) to index i and return it
+     */
+    private static int pickNext(MoveList moves, int[] scores, int i) {
+      int best = i;
+      for (int j = i + 1; j < moves.size(); j++) {
+        if (scores[j] > scores[best]) {
+          best = j;
+        }
+      }
+      int move = moves.get(best);
+      moves.set(best, moves.get(i));
+      moves.set(i, move);
+      int score = scores[best];
+      scores[best] = scores[i];
+      scores[i] = score;
+      return move;
+    }
+
+    private void addKiller(int move, int ply) {
+      if (killers[ply][0] != move) {
+        killers[ply][1] = killers[ply][0];
+        killers[ply][0] = move;
+      }
+    }
+
+    private void addHistory(int move, int depth) {
+      int[][] side = history[board.side()];
+      int value = side[Move.from(move)][Move.to(move)] += depth * depth;
+      if (value > HISTORY_LIMIT) {
+        // halve everything so old cutoffs fade and the scores stay below KILLER_SCORE
+        for (int[][] colors : history) {
+          for (int[] row : colors) {
+            for (int to = 0; to < 64; to++) {
+              row[to] >>= 1;
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * mate scores are stored relative to the position, not to the root
+     */
+    private static int toTable(int score, int ply) {
+      return score >= MATE - MAX_PLY ? score + ply : score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+      return score >= MATE - MAX_PLY ? score - ply : score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+  }
+
+  /**
+   * This is the result of a search
+   */
+  public static final class Result {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+
+    private Result(int bestMove, int score, int depth, long nodes, long nanos) {
+      this.bestMove = bestMove;
+      this.score = score;
+      this.depth = depth;
+      this.nodes = nodes;
+      this.nanos = nanos;
+    }
+
+    /**
+     * @return the packed best move, Move.NONE if the position has no legal move
+     */
+    public int getBestMove() {
+      return this.bestMove;
+    }
+
+    /**
+     * @return the score of the best move for the side to move, in centipawns
+     */
+    public int getScore() {
+      return this.score;
+    }
+
+    /**
+     * @return the deepest completed iteration
+     */
+    public int getDepth() {
+      return this.depth;
+    }
+
+    /**
+     * @return the nodes searched by all threads
+     */
+    public long getNodes() {
+      return this.nodes;
+    }
+
+    /**
+     * @return the time the search took, in milliseconds
+     */
+    public double getMillis() {
+      return this.nanos / 1e6;
+    }
+
+    /**
+     * @return the nodes searched per second, by all threads
+     */
+    public double getNodesPerSecond() {
+      return this.nodes * 1e9 / Math.max(1, this.nanos);
+    }
+
+    /**
+     * @return e.g. "e2e4 score 35 depth 7 nodes 123456 (1234567 nodes/s)"
+     */
+    @Override
+    public String toString() {
+      return String.format("%s score %d depth %d nodes %d (%.0f nodes/s)",
+              bestMove == Move.NONE ? "none" : Move.toString(bestMove), score, depth, nodes,
+              getNodesPerSecond());
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package chess;
+
+/**
+ * This is the class of sliding attacks (rook, bishop, queen) that take blocking pieces into
+ * account, using magic bitboards. For each square, only the occupancy bits on the piece's rays
+ * matter (the "relevant" mask, without the board edge, since a piece on the edge blocks nothing
+ * behind it). Multiplying those bits by a per-square magic number and keeping the top bits gives
+ * a perfect-hash index into a table of precomputed attack sets, so a lookup is an and, a multiply,
+ * a shift and an array read.
+ * The magic numbers below were found by the fixed-seed search in SlidingAttacksCheck (run it with
+ * the argument "magics" to print them again), so loading the class only fills the tables. While
+ * filling, every occupancy subset is stored with the attack set of the ray walk (rookRays,
+ * bishopRays) and a collision between 2 different attack sets fails the class initialization,
+ * so the tables are correct by construction. SlidingAttacksCheck re-checks them on random boards.
+ * The attack set of a square includes the first blocker in each direction, whatever its color.
+ */
+public final class SlidingAttacks {
+  private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+  private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+  private static final long[] ROOK_MAGICS = {
+      0x8080_0020_8010_4002L, 0x0240_0141_5000_2002L, 0x0100_2001_0010_0840L,
+      0x0100_0902_0410_0020L, 0x1200_1102_0008_2004L, 0x3100_0802_4400_0100L,
+      0x1200_0801_0400_8200L, 0x0080_0045_2300_1080L, 0x000C_8008_8030_4000L,
+      0x0828_4000_4020_1000L, 0x4483_0020_0100_4018L, 0x4840_8008_0080_1004L,
+      0x1981_0010_0800_0501L, 0x00C2_0004_0200_1008L, 0x0504_0084_0210_0108L,
+      0x8001_0000_A100_0042L, 0x0000_2080_0080_4000L, 0x8820_0440_1000_4020L,
+      0x0000_8280_1000_A000L, 0x0208_0080_8008_1000L, 0x0504_4500_0800_5100L,
+      0x0142_0080_0280_0400L, 0x0000_C101_0002_0004L, 0x002C_0200_2100_4884L,
+      0x0040_4000_8000_8030L, 0x2800_2008_4010_0040L, 0x4001_0041_0020_0010L,
+      0x0010_0842_0020_1200L, 0x2A02_0012_0020_0804L, 0x8214_0100_4002_0040L,
+      0x0061_0009_0012_0014L, 0x0841_2086_0004_204DL, 0x1080_0060_0240_0340L,
+      0x0002_A001_4240_1008L, 0x000A_0010_4200_2088L, 0x2020_1001_0900_2100L,
+      0x0308_0801_0100_1004L, 0x0010_8002_0080_0400L, 0x0B00_0200_0101_0004L,
+      0x0288_4040_8200_0401L, 0x0240_2080_4000_8000L, 0x1012_2010_0041_4000L,
+      0x0211_0020_0011_0040L, 0x0008_0010_0021_0100L, 0x2002_5801_0005_0030L,
+      0x2000_0400_0200_8080L, 0x0020_A890_020C_0009L, 0x240E_0080_4102_0004L,
+      0x0220_6040_0080_0180L, 0x0840_2000_4008_8480L, 0x20C0_4018_2001_0100L,
+      0x1406_0020_1440_0A00L, 0x5040_1008_0100_0500L, 0x0014_0200_0400_8080L,
+      0x0406_0208_1041_4400L, 0x4800_8001_0000_4080L, 0x1800_1C20_8000_4101L,
+      0x8001_0025_4000_8115L, 0x8024_8040_1008_2202L, 0x0050_0420_0900_1001L,
+      0x000A_0008_2004_1002L, 0x0001_0042_1804_000BL, 0x0046_0210_0800_8144L,
+      0x0002_1411_0040_2082L
+  };
+  private static final long[] BISHOP_MAGICS = {
+      0x0804_3004_0544_00C2L, 0x0020_010A_120C_4080L, 0x8084_0102_0601_0001L,
+      0x0004_A102_0410_1802L, 0x1104_2420_2444_0002L, 0x0002_0531_0802_2041L,
+      0x1400_A090_4820_0208L, 0x0001_0402_0201_0401L, 0x0884_4004_0820_811CL,
+      0x3001_4421_0401_0202L, 0x1010_2882_0442_0020L, 0x2008_1444_0082_0222L,
+      0x8010_5110_4102_1000L, 0x8000_090D_2010_2111L, 0x2000_0100_9005_2080L,
+      0x8100_4421_0808_8400L, 0x0150_A104_3002_2800L, 0x0008_2402_9041_1200L,
+      0x0621_1230_0302_0410L, 0x8809_0028_2401_0000L, 0x00C4_1202_0202_2000L,
+      0x0081_0000_8060_0208L, 0x808A_0044_1082_0882L, 0x1400_4000_8420_8808L,
+      0x8430_0404_4820_0440L, 0x1048_2405_1304_0825L, 0x0002_2800_4400_4400L,
+      0x4040_0403_0041_0020L, 0x1080_8400_1080_2004L, 0x0008_0080_1110_1080L,
+      0x0814_8420_0084_0C00L, 0x0010_4200_8082_2100L, 0x0002_0920_4004_2000L,
+      0x0418_8888_0020_0220L, 0x0004_0041_0108_0600L, 0x0000_0200_8158_0082L,
+      0x0004_0802_0006_2018L, 0x4C90_0080_2202_0200L, 0x0001_1202_0000_9800L,
+      0x8001_0200_8100_2400L, 0x1002_0842_8800_4000L, 0x6002_0094_2100_0400L,
+      0x8002_2014_0204_100CL, 0x4084_2140_1045_2201L, 0x2092_0C01_B400_2200L,
+      0x0121_6000_9080_8100L, 0x0084_0114_0400_2120L, 0x0010_0089_0040_8504L,
+      0x0002_0084_A088_1000L, 0x8000_8598_0812_0413L, 0x0002_4112_8804_2248L,
+      0x0000_001C_2088_0002L, 0x0020_4044_1504_0040L, 0xC102_0810_7060_8006L,
+      0x1220_8830_9080_8000L, 0x0008_011C_1406_4000L, 0x000A_0042_0890_2802L,
+      0x0880_1842_08B0_0880L, 0x0402_0801_0080_9000L, 0x00C8_1088_8084_0400L,
+      0x0C53_0304_10A2_1200L, 0x0000_0010_1002_4820L, 0x8108_1044_0108_6201L,
+      0x4040_0440_8A02_0020L
+  };
+
+  private static final long[] ROOK_MASKS = new long[64];
+  private static final int[] ROOK_SHIFTS = new int[64];
+  private static final long[][] ROOK_TABLE = new long[64][];
+  private static final long[] BISHOP_MASKS = new long[64];
+  private static final int[] BISHOP_SHIFTS = new int[64];
+  private static final long[][] BISHOP_TABLE = new long[64][];
+
+  static {
+    for (int sq = 0; sq < 64; sq++) {
+      fill(sq, true, ROOK_MAGICS[sq], ROOK_MASKS, ROOK_SHIFTS, ROOK_TABLE);
+      fill(sq, false, BISHOP_MAGICS[sq], BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_TABLE);
+    }
+  }
+
+  private SlidingAttacks() {
+  }
+
+  /**
+   * @param square square index of the rook, 0-63
+   * @param occupancy bitboard of every piece on the board
+   * @return bitboard of the squares the rook attacks, up to and including the first blocker
+   */
+  public static long rookAttacks(int square, long occupancy) {
+    return ROOK_TABLE[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square])
+            >>> ROOK_SHIFTS[square])];
+  }
+
+  /**
+   * @param square square index of the bishop, 0-63
+   * @param occupancy bitboard of every piece on the board
+   * @return bitboard of the squares the bishop attacks, up to and including the first blocker
+   */
+  public static long bishopAttacks(int square, long occupancy) {
+    return BISHOP_TABLE[square][(int) (((occupancy & BISHOP_MASKS[square])
+            * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+  }
+
+  /**
+   * @param square square index of the queen, 0-63
+   * @param occupancy bitboard of every piece on the board
+   * @return bitboard of the squares the queen attacks, up to and including the first blocker
+   */
+  public static long queenAttacks(int square, long occupancy) {
+    return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+  }
+
+  /**
+   * Reference implementation of rookAttacks: walk each ray square by square until a blocker
+   * @param square square index of the rook, 0-63
+   * @param occupancy bitboard of every piece on the board
+   * @return bitboard of the squares the rook attacks
+   */
+  public static long rookRays(int square, long occupancy) {
+    return rays(square, occupancy, true);
+  }
+
+  /**
+   * Reference implementation of bishopAttacks: walk each ray square by square until a blocker
+   * @param square square index of the bishop, 0-63
+   * @param occupancy bitboard of every piece on the board
+   * @return bitboard of the squares the bishop attacks
+   */
+  public static long bishopRays(int square, long occupancy) {
+    return rays(square, occupancy, false);
+  }
+
+  /**
+   * ray walk of a rook (rook == true) or a bishop
+   */
+  static long rays(int square, long occupancy, boolean rook) {
+    long attacks = 0;
+    int[][] directions = rook ? ROOK_DIRECTIONS : BISHOP_DIRECTIONS;
+    for (int[] direction : directions) {
+      int row = Bitboards.row(square) + direction[0];
+      int col = Bitboards.col(square) + direction[1];
+      while (Bitboards.onBoard(row, col)) {
+        long bit = Bitboards.bit(Bitboards.square(row, col));
+        attacks |= bit;
+        if ((occupancy & bit) != 0) {
+          break;
+        }
+        row += direction[0];
+        col += direction[1];
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * @return the ray squares whose occupancy can change the attack set (the rays without their
+   * last square on the board edge)
+   */
+  static long relevantMask(int square, boolean rook) {
+    long mask = 0;
+    int[][] directions = rook ? ROOK_DIRECTIONS : BISHOP_DIRECTIONS;
+    for (int[] direction : directions) {
+      int row = Bitboards.row(square) + direction[0];
+      int col = Bitboards.col(square) + direction[1];
+      while (Bitboards.onBoard(row + direction[0], col + direction[1])) {
+        mask |= Bitboards.bit(Bitboards.square(row, col));
+        row += direction[0];
+        col += direction[1];
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * fill the attack table of one square for the given magic number
+   * throw IllegalStateException if the magic number maps 2 different attack sets to one slot
+   */
+  private static void fill(int sq, boolean rook, long magic, long[] masks, int[] shifts,
+                           long[][] tables) {
+    long mask = relevantMask(sq, rook);
+    int shift = 64 - Long.bitCount(mask);
+    long[] table = new long[1 << Long.bitCount(mask)];
+    // every subset of the mask, enumerated with the carry-rippler trick
+    long subset = 0;
+    do {
+      long attacks = rays(sq, subset, rook);
+      int index = (int) ((subset * magic) >>> shift);
+      // an attack set is never empty, so 0 marks a free slot
+      if (table[index] != 0 && table[index] != attacks) {
+        throw new IllegalStateException("Bad magic number for square " + sq);
+      }
+      table[index] = attacks;
+      subset = (subset - mask) & mask;
+    } while (subset != 0);
+    masks[sq] = mask;
+    shifts[sq] = shift;
+    tables[sq] = table;
+  }
+}
@@ -0,0 +1,149 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * This is the driver class that checks the magic bitboard tables of SlidingAttacks against the
+ * ray walk on random boards of different densities, and prints how long the tables took to build
+ * and how fast the lookups are compared to the ray walk.
+ * Run with the argument "magics" to search the magic numbers again and print them in the form
+ * used by SlidingAttacks. The search uses a fixed seed, so it prints the same numbers every time.
+ */
+public class SlidingAttacksCheck {
+  public static void main(String[] args) {
+    if (args.length > 0 && args[0].equals("magics")) {
+      long[] seed = {0x5004_2024_C0FF_EEL};
+      long[] rookMagics = new long[64];
+      long[] bishopMagics = new long[64];
+      for (int sq = 0; sq < 64; sq++) {
+        rookMagics[sq] = findMagic(sq, true, seed);
+        bishopMagics[sq] = findMagic(sq, false, seed);
+      }
+      printMagics("ROOK_MAGICS", rookMagics);
+      printMagics("BISHOP_MAGICS", bishopMagics);
+      return;
+    }
+    long start = System.nanoTime();
+    // loading the class builds the tables
+    SlidingAttacks.rookAttacks(0, 0);
+    System.out.printf("Tables built in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+    Random random = new Random(5004);
+    int boards = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    long[] occupancies = new long[boards];
+    for (int i = 0; i < boards; i++) {
+      // and-ing random words gives boards from crowded (1 word) to sparse (3 words)
+      long occupancy = random.nextLong();
+      for (int k = i % 3; k > 0; k--) {
+        occupancy &= random.nextLong();
+      }
+      occupancies[i] = occupancy;
+    }
+
+    int mismatches = 0;
+    for (long occupancy : occupancies) {
+      for (int sq = 0; sq < 64; sq++) {
+        if (SlidingAttacks.rookAttacks(sq, occupancy) != SlidingAttacks.rookRays(sq, occupancy)) {
+          mismatches++;
+        }
+        if (SlidingAttacks.bishopAttacks(sq, occupancy)
+                != SlidingAttacks.bishopRays(sq, occupancy)) {
+          mismatches++;
+        }
+      }
+    }
+    System.out.println("Checked " + boards * 128L + " lookups, mismatches: " + mismatches);
+    if (mismatches != 0) {
+      throw new IllegalStateException("Magic tables do not match the ray walk");
+    }
+
+    for (int round = 0; round < 3; round++) {
+      long sink = 0;
+      long t0 = System.nanoTime();
+      for (long occupancy : occupancies) {
+        for (int sq = 0; sq < 64; sq++) {
+          sink += SlidingAttacks.queenAttacks(sq, occupancy);
+        }
+      }
+      long t1 = System.nanoTime();
+      for (long occupancy : occupancies) {
+        for (int sq = 0; sq < 64; sq++) {
+          sink += SlidingAttacks.rookRays(sq, occupancy) | SlidingAttacks.bishopRays(sq, occupancy);
+        }
+      }
+      long t2 = System.nanoTime();
+      double lookups = boards * 64.0;
+      System.out.printf("queen lookups: magic %.1f M/s, ray walk %.1f M/s (%d)%n",
+              lookups * 1e3 / (t1 - t0), lookups * 1e3 / (t2 - t1), sink & 1);
+    }
+  }
+
+  /**
+   * try sparse random numbers until one maps every occupancy subset of the square without a
+   * destructive collision
+   */
+  private static long findMagic(int sq, boolean rook, long[] seed) {
+    long mask = SlidingAttacks.relevantMask(sq, rook);
+    int bits = Long.bitCount(mask);
+    int size = 1 << bits;
+    long[] occupancies = new long[size];
+    long[] attacks = new long[size];
+    long subset = 0;
+    for (int i = 0; i < size; i++) {
+      occupancies[i] = subset;
+      attacks[i] = SlidingAttacks.rays(sq, subset, rook);
+      subset = (subset - mask) & mask;
+    }
+    long[] table = new long[size];
+    // writtenBy[i] == attempt that last wrote table[i], avoids clearing the table on each try
+    int[] writtenBy = new int[size];
+    for (int attempt = 1; ; attempt++) {
+      long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed);
+      if (Long.bitCount((mask * magic) & 0xFF00_0000_0000_0000L) < 6) {
+        continue;
+      }
+      boolean ok = true;
+      for (int i = 0; i < size && ok; i++) {
+        int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+        if (writtenBy[index] != attempt) {
+          writtenBy[index] = attempt;
+          table[index] = attacks[i];
+        } else if (table[index] != attacks[i]) {
+          ok = false;
+        }
+      }
+      if (ok) {
+        return magic;
+      }
+    }
+  }
+
+  /**
+   * xorshift64
+   */
+  private static long nextRandom(long[] seed) {
+    long x = seed[0];
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    seed[0] = x;
+    return x;
+  }
+
+  private static void printMagics(String name, long[] magics) {
+    System.out.println("  private static final long[] " + name + " = {");
+    for (int i = 0; i < 64; i += 3) {
+      StringBuilder line = new StringBuilder("     ");
+      for (int j = i; j < Math.min(i + 3, 64); j++) {
+        long m = magics[j];
+        line.append(String.format(" 0x%04X_%04X_%04X_%04XL", (m >>> 48) & 0xFFFF,
+                (m >>> 32) & 0xFFFF, (m >>> 16) & 0xFFFF, m & 0xFFFF));
+        if (j < 63) {
+          line.append(',');
+        }
+      }
+      System.out.println(line);
+    }
+    System.out.println("  };");
+  }
+}
@@ -0,0 +1,202 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the TranspositionTable class, a fixed-size hash table of search results keyed by the
+ * Zobrist key of a position (Board.getKey).
+ * The table is one flat long[]: each entry is 2 longs, the key XOR-ed with the data and the data.
+ * Threads read and write it without any lock. Two writers may interleave their halves of an
+ * entry, which leaves a key and a data that do not belong together; the reader XORs them back
+ * and the result no longer equals its key, so a torn entry reads as a miss instead of as a wrong
+ * result. The same check rejects positions that share a bucket.
+ * Entries live in buckets of 2. Storing a position that is already in the bucket overwrites it;
+ * otherwise the entry replaced is the one with the lowest depth, counting entries from an older
+ * search (see newSearch) as shallower, so deep results survive a search and stale ones do not.
+ * The data packs the move (bits 0-15), the score (bits 16-31, signed), the depth (bits 32-39),
+ * the bound (bits 40-41) and the search generation (bits 42-47).
+ */
+public class TranspositionTable {
+  /**
+   * bound of a stored score: the exact value, at least the value (fail high) or at most the
+   * value (fail low). Never 0, so the data of a stored entry is never 0.
+   */
+  public static final int EXACT = 1;
+  public static final int LOWER = 2;
+  public static final int UPPER = 3;
+  /**
+   * returned by probe when the position is not in the table
+   */
+  public static final long NOT_FOUND = 0;
+
+  private static final int BUCKET_ENTRIES = 2;
+
+  private final long[] table;
+  private final int bucketMask;
+  private int generation;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+
+  /**
+   * TranspositionTable constructor
+   * @param megabytes the memory to use, rounded down to a power of 2 number of entries
+   * throw IllegalArgumentException if megabytes is less than 1 or more than 16384
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes < 1 || megabytes > 16384) {
+      throw new IllegalArgumentException("Table size must be between 1 and 16384 MB");
+    }
+    // 16 bytes per entry
+    long entries = Long.highestOneBit(megabytes * (1L << 20) / 16);
+    // a java array holds at most 2^31 - 1 longs, so at most 2^29 buckets of 2 entries
+    long buckets = Math.min(entries / BUCKET_ENTRIES, 1L << 29);
+    this.table = new long[(int) (buckets * BUCKET_ENTRIES * 2)];
+    this.bucketMask = (int) buckets - 1;
+  }
+
+  /**
+   * @return the number of entries the table can hold
+   */
+  public int capacity() {
+    return table.length / 2;
+  }
+
+  /**
+   * Look a position up
+   * @param key the Zobrist key of the position
+   * @return the packed data stored for the position, NOT_FOUND if none
+   */
+  public long probe(long key) {
+    int index = ((int) key & bucketMask) * BUCKET_ENTRIES * 2;
+    boolean occupied = false;
+    for (int i = index; i < index + BUCKET_ENTRIES * 2; i += 2) {
+      long check = table[i];
+      long data = table[i + 1];
+      if (data != 0 && (check ^ data) == key) {
+        hits.increment();
+        return data;
+      }
+      occupied |= data != 0;
+    }
+    misses.increment();
+    if (occupied) {
+      collisions.increment();
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Store a search result
+   * @param key the Zobrist key of the position
+   * @param move the best move found, Move.NONE if none
+   * @param score the score, between Short.MIN_VALUE and Short.MAX_VALUE
+   * @param depth the remaining depth of the search, 0-255
+   * @param bound EXACT, LOWER or UPPER
+   */
+  public void store(long key, int move, int score, int depth, int bound) {
+    long data = (move & 0xFFFFL) | (score & 0xFFFFL) << 16 | (long) (depth & 0xFF) << 32
+            | (long) bound << 40 | (long) generation << 42;
+    int index = ((int) key & bucketMask) * BUCKET_ENTRIES * 2;
+    int target = index;
+    int lowest = Integer.MAX_VALUE;
+    for (int i = index; i < index + BUCKET_ENTRIES * 2; i += 2) {
+      long stored = table[i + 1];
+      if ((table[i] ^ stored) == key || stored == 0) {
+        target = i;
+        break;
+      }
+      // an entry of an older search counts as 256 plies shallower
+      int value = depth(stored) - (generation(stored) == generation ? 0 : 256);
+      if (value < lowest) {
+        lowest = value;
+        target = i;
+      }
+    }
+    table[target] = key ^ data;
+    table[target + 1] = data;
+  }
+
+  /**
+   * Start a new search: entries stored from now on replace the older ones first
+   */
+  public void newSearch() {
+    generation = (generation + 1) & 63;
+  }
+
+  /**
+   * remove every entry and reset the counters
+   */
+  public void clear() {
+    Arrays.fill(table, 0);
+    generation = 0;
+    resetCounters();
+  }
+
+  /**
+   * @return the number of probes that found their position
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of probes that did not find their position
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of misses where the bucket held other positions (or a torn entry)
+   */
+  public long collisions() {
+    return collisions.sum();
+  }
+
+  /**
+   * set the hit, miss and collision counters to 0
+   */
+  public void resetCounters() {
+    hits.reset();
+    misses.reset();
+    collisions.reset();
+  }
+
+  /**
+   * @param data packed data returned by probe
+   * @return the stored move
+   */
+  public static int move(long data) {
+    return (int) (data & 0xFFFF);
+  }
+
+  /**
+   * @param data packed data returned by probe
+   * @return the stored score
+   */
+  public static int score(long data) {
+    return (short) (data >>> 16);
+  }
+
+  /**
+   * @param data packed data returned by probe
+   * @return the stored depth
+   */
+  public static int depth(long data) {
+    return (int) (data >>> 32) & 0xFF;
+  }
+
+  /**
+   * @param data packed data returned by probe
+   * @return the stored bound, EXACT, LOWER or UPPER
+   */
+  public static int bound(long data) {
+    return (int) (data >>> 40) & 3;
+  }
+
+  private static int generation(long data) {
+    return (int) (data >>> 42) & 63;
+  }
+}
@@ -0,0 +1,77 @@
+package chess;
+
+/**
+ * This is the class of the Zobrist keys used to hash a Board. The key of a position is the XOR
+ * of one random number per (piece, square), one per castling rights value, one per en passant
+ * column when there is an en passant square, and SIDE when black is to move. XOR is its own
+ * inverse, so a move updates the key by XOR-ing in and out only the parts it changes, and taking
+ * the move back applies the same XORs again.
+ * The numbers come from a fixed-seed splitmix64 generator, so keys are the same in every run and
+ * can be stored (e.g. in an opening book).
+ */
+public final class Zobrist {
+  /**
+   * XOR-ed into the key when black is to move
+   */
+  public static final long SIDE;
+
+  // [code * 64 + square], code = color * 6 + type
+  private static final long[] PIECE_SQUARE = new long[12 * 64];
+  // [castling rights], 0 for no rights so a board without rights needs no XOR
+  private static final long[] CASTLING = new long[16];
+  private static final long[] EN_PASSANT_COLUMN = new long[8];
+
+  static {
+    long[] state = {0x5004_C0DE_2024_0001L};
+    for (int i = 0; i < PIECE_SQUARE.length; i++) {
+      PIECE_SQUARE[i] = next(state);
+    }
+    long[] rights = {next(state), next(state), next(state), next(state)};
+    for (int r = 1; r < 16; r++) {
+      for (int bit = 0; bit < 4; bit++) {
+        if ((r & 1 << bit) != 0) {
+          CASTLING[r] ^= rights[bit];
+        }
+      }
+    }
+    for (int col = 0; col < 8; col++) {
+      EN_PASSANT_COLUMN[col] = next(state);
+    }
+    SIDE = next(state);
+  }
+
+  private Zobrist() {
+  }
+
+  /**
+   * @param code piece code, color.ordinal() * 6 + type.ordinal()
+   * @param square square index, row * 8 + col
+   * @return the key of that piece on that square
+   */
+  public static long piece(int code, int square) {
+    return PIECE_SQUARE[code << 6 | square];
+  }
+
+  /**
+   * @param rights a combination of the Board castling bits
+   * @return the key of those castling rights
+   */
+  public static long castling(int rights) {
+    return CASTLING[rights];
+  }
+
+  /**
+   * @param square the en passant square, -1 for none
+   * @return the key of the en passant column, 0 for none
+   */
+  public static long enPassant(int square) {
+    return square < 0 ? 0 : EN_PASSANT_COLUMN[square & 7];
+  }
+
+  private static long next(long[] state) {
+    long z = (state[0] += 0x9E37_79B9_7F4A_7C15L);
+    z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+    return z ^ (z >>> 31);
+  }
+}
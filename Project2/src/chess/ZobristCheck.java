@@ -0,0 +1,112 @@
+package chess;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the driver class that checks the Zobrist keys and the TranspositionTable.
+ * First it walks the move tree of the perft positions and compares the incrementally updated
+ * key with a key computed from scratch after every makeMove and unmakeMove; it also checks that
+ * transpositions (the same position reached by different move orders) get the same key.
+ * Then several threads store and probe one small table at the same time, without locks. Every
+ * stored entry is a function of its key, so a probe that returns data of another key (a torn
+ * entry that passed the XOR check) is counted as corrupt. The counters are printed at the end.
+ */
+public class ZobristCheck {
+  public static void main(String[] args) throws InterruptedException {
+    String[] fens = {
+        Board.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+    };
+    long[] checked = new long[1];
+    for (String fen : fens) {
+      Board board = Board.fromFen(fen);
+      long key = board.getKey();
+      walk(board, 3, checked);
+      if (board.getKey() != key) {
+        throw new IllegalStateException("Key changed after the walk: " + fen);
+      }
+    }
+    System.out.println("Checked " + checked[0] + " incremental keys");
+
+    Board a = Board.startingPosition();
+    Board b = Board.startingPosition();
+    play(a, "g1f3", "g8f6", "b1c3");
+    play(b, "b1c3", "g8f6", "g1f3");
+    if (a.getKey() != b.getKey() || a.getKey() == Board.startingPosition().getKey()) {
+      throw new IllegalStateException("Transposition keys do not match");
+    }
+    System.out.println("Transposition keys match");
+
+    int threads = args.length > 0 ? Integer.parseInt(args[0])
+            : Math.max(2, Runtime.getRuntime().availableProcessors());
+    TranspositionTable table = new TranspositionTable(1);
+    AtomicLong corrupt = new AtomicLong();
+    Thread[] workers = new Thread[threads];
+    long start = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      long seed = t;
+      workers[t] = new Thread(() -> {
+        Random random = new Random(seed);
+        for (int i = 0; i < 2_000_000; i++) {
+          // a small key space so threads keep hitting the same buckets
+          long key = random.nextInt(200_000) * 0x9E37_79B9_7F4A_7C15L;
+          long data = table.probe(key);
+          if (data != TranspositionTable.NOT_FOUND && TranspositionTable.score(data)
+                  != (short) (key >>> 48)) {
+            corrupt.incrementAndGet();
+          }
+          table.store(key, (int) key & 0xFFFF, (short) (key >>> 48), (int) (key >>> 40) & 63,
+                  TranspositionTable.EXACT);
+        }
+      });
+      workers[t].start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    System.out.printf("%d threads, %d entries, %.0f ms: hits %d, misses %d, collisions %d,"
+                    + " corrupt %d%n", threads, table.capacity(),
+            (System.nanoTime() - start) / 1e6, table.hits(), table.misses(),
+            table.collisions(), corrupt.get());
+    if (corrupt.get() != 0) {
+      throw new IllegalStateException("The table returned data of another position");
+    }
+  }
+
+  private static void walk(Board board, int depth, long[] checked) {
+    MoveList moves = new MoveList();
+    MoveGenerator.generate(board, moves);
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      board.makeMove(move);
+      check(board);
+      if (depth > 1) {
+        walk(board, depth - 1, checked);
+      }
+      board.unmakeMove(move);
+      check(board);
+      checked[0] += 2;
+    }
+  }
+
+  private static void check(Board board) {
+    if (board.getKey() != board.computeKey()) {
+      throw new IllegalStateException("Incremental key is wrong in " + board.toFen());
+    }
+  }
+
+  private static void play(Board board, String... moves) {
+    MoveList list = new MoveList();
+    for (String text : moves) {
+      MoveGenerator.generate(board, list);
+      for (int i = 0; i < list.size(); i++) {
+        if (Move.toString(list.get(i)).equals(text)) {
+          board.makeMove(list.get(i));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package questions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This is the BatchGrader class, which grades a stream of submissions against a question set in
+ * parallel and counts, for every question, how many students answered it and how many got it
+ * right.
+ * Submissions are read in chunks; each chunk is graded by a worker thread with its own tallies,
+ * which are added up when the chunk is done, so the threads never share a counter. At most
+ * `window` chunks are in flight: the reader waits for the oldest one when the window is full, so
+ * memory stays bounded however many submissions arrive. Grades are handed to the consumer in
+ * submission order.
+ * For TrueFalse, MultipleChoice and MultipleSelect questions, whose answer method returns the
+ * same result for the same string and does nothing else, the result is remembered per distinct
+ * answer (up to 1024 per question), since a class answers many students with the same few
+ * strings. Every other question, Likert or any other implementation of Question, has answer
+ * called for every student, as before.
+ */
+public class BatchGrader implements AutoCloseable {
+  private static final int MAX_CACHED_ANSWERS = 1024;
+
+  private final Question[] questions;
+  // per question, answer -> correct; null for a question whose answer is always called
+  private final List<Map<String, Boolean>> results;
+  private final ExecutorService executor;
+  private final int chunkSize;
+  private final int window;
+
+  /**
+   * constructor of BatchGrader class, with one thread per processor, chunks of 1024 submissions
+   * and 4 chunks in flight per thread
+   * @param questions, the question set, in the order of the answers of a submission
+   * throw IllegalArgumentException if the question set is empty
+   */
+  public BatchGrader(List<? extends Question> questions) {
+    this(questions, Runtime.getRuntime().availableProcessors(), 1024,
+            4 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * constructor of BatchGrader class
+   * @param questions, the question set, in the order of the answers of a submission
+   * @param threads, number of worker threads
+   * @param chunkSize, number of submissions graded by one task
+   * @param window, the largest number of chunks in flight
+   * throw IllegalArgumentException if the question set is empty or a number is less than 1
+   */
+  public BatchGrader(List<? extends Question> questions, int threads, int chunkSize,
+                     int window) {
+    if (questions == null || questions.isEmpty()) {
+      throw new IllegalArgumentException("The question set is empty.");
+    }
+    if (threads < 1 || chunkSize < 1 || window < 1) {
+      throw new IllegalArgumentException("threads, chunkSize and window must be at least 1.");
+    }
+    this.questions = questions.toArray(new Question[0]);
+    this.results = new ArrayList<>();
+    for (Question question : this.questions) {
+      this.results.add(isPure(question) ? new ConcurrentHashMap<>() : null);
+    }
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "batch-grader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.chunkSize = chunkSize;
+    this.window = window;
+  }
+
+  /**
+   * Grade every submission, in parallel, and hand the grades over in submission order
+   * @param submissions, the submissions, read a window of chunks ahead of the consumer
+   * @param consumer, receives one grade per submission, on the calling thread
+   * @return the tallies per question and the speed of the run
+   */
+  public Report grade(Iterator<Submission> submissions, Consumer<Grade> consumer) {
+    ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>(window);
+    long[] correct = new long[questions.length];
+    long[] answered = new long[questions.length];
+    long count = 0;
+    long points = 0;
+    long start = System.nanoTime();
+    while (submissions.hasNext() || !inFlight.isEmpty()) {
+      if (submissions.hasNext() && inFlight.size() < window) {
+        Submission[] chunk = new Submission[chunkSize];
+        int size = 0;
+        while (size < chunkSize && submissions.hasNext()) {
+          chunk[size++] = submissions.next();
+        }
+        int length = size;
+        inFlight.add(executor.submit(() -> gradeChunk(chunk, length)));
+        continue;
+      }
+      Chunk chunk = await(inFlight.poll());
+      for (int q = 0; q < questions.length; q++) {
+        correct[q] += chunk.correct[q];
+        answered[q] += chunk.answered[q];
+      }
+      for (Grade grade : chunk.grades) {
+        count++;
+        points += grade.getScore();
+        consumer.accept(grade);
+      }
+    }
+    return new Report(count, points, correct, answered, System.nanoTime() - start);
+  }
+
+  /**
+   * Grade one submission on the calling thread
+   * @param submission, the answers of a student
+   * @return the grade
+   */
+  public Grade grade(Submission submission) {
+    boolean[] correct = new boolean[questions.length];
+    int score = 0;
+    for (int q = 0; q < questions.length; q++) {
+      String answer = submission.getAnswer(q);
+      correct[q] = answer != null && isCorrect(q, answer);
+      score += correct[q] ? 1 : 0;
+    }
+    return new Grade(submission.getStudentId(), score, correct);
+  }
+
+  /**
+   * stop the worker threads
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private Chunk gradeChunk(Submission[] submissions, int size) {
+    Chunk chunk = new Chunk(size, questions.length);
+    for (int i = 0; i < size; i++) {
+      Grade grade = grade(submissions[i]);
+      chunk.grades[i] = grade;
+      for (int q = 0; q < questions.length; q++) {
+        chunk.answered[q] += submissions[i].getAnswer(q) != null ? 1 : 0;
+        chunk.correct[q] += grade.isCorrect(q) ? 1 : 0;
+      }
+    }
+    return chunk;
+  }
+
+  private boolean isCorrect(int question, String answer) {
+    Map<String, Boolean> known = results.get(question);
+    if (known == null) {
+      return Question.CORRECT.equals(questions[question].answer(answer));
+    }
+    Boolean result = known.get(answer);
+    if (result == null) {
+      result = Question.CORRECT.equals(questions[question].answer(answer));
+      if (known.size() < MAX_CACHED_ANSWERS) {
+        known.put(answer, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * true for the question types known to answer without side effects, not their subclasses
+   */
+  private static boolean isPure(Question question) {
+    Class<?> type = question.getClass();
+    return type == TrueFalse.class || type == MultipleChoice.class
+            || type == MultipleSelect.class;
+  }
+
+  private static Chunk await(Future<Chunk> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for grades", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Grading failed", e.getCause());
+    }
+  }
+
+  /**
+   * the grades and tallies of one chunk of submissions
+   */
+  private static final class Chunk {
+    private final Grade[] grades;
+    private final int[] correct;
+    private final int[] answered;
+
+    private Chunk(int size, int questions) {
+      this.grades = new Grade[size];
+      this.correct = new int[questions];
+      this.answered = new int[questions];
+    }
+  }
+
+  /**
+   * This is the grade of one submission
+   */
+  public static final class Grade {
+    private final String studentId;
+    private final int score;
+    private final boolean[] correct;
+
+    private Grade(String studentId, int score, boolean[] correct) {
+      this.studentId = studentId;
+      this.score = score;
+      this.correct = correct;
+    }
+
+    /**
+     *
+     * @return the id of the student
+     */
+    public String getStudentId() {
+      return this.studentId;
+    }
+
+    /**
+     *
+     * @return the number of questions answered correctly
+     */
+    public int getScore() {
+      return this.score;
+    }
+
+    /**
+     *
+     * @return the number of questions of the set
+     */
+    public int getQuestionCount() {
+      return this.correct.length;
+    }
+
+    /**
+     * @param question, index of the question, starting at 0
+     * @return true if the question was answered correctly
+     */
+    public boolean isCorrect(int question) {
+      return this.correct[question];
+    }
+
+    /**
+     *
+     * @return e.g. "s1001: 17/20"
+     */
+    @Override
+    public String toString() {
+      return this.studentId + ": " + this.score + "/" + this.correct.length;
+    }
+  }
+
+  /**
+   * This is the summary of a grading run: tallies per question and speed
+   */
+  public static final class Report {
+    private final long submissions;
+    private final long points;
+    private final long[] correct;
+    private final long[] answered;
+    private final long nanos;
+
+    private Report(long submissions, long points, long[] correct, long[] answered, long nanos) {
+      this.submissions = submissions;
+      this.points = points;
+      this.correct = correct;
+      this.answered = answered;
+      this.nanos = nanos;
+    }
+
+    /**
+     *
+     * @return the number of submissions graded
+     */
+    public long getSubmissions() {
+      return this.submissions;
+    }
+
+    /**
+     * @param question, index of the question, starting at 0
+     * @return the number of students who answered the question correctly
+     */
+    public long getCorrect(int question) {
+      return this.correct[question];
+    }
+
+    /**
+     * @param question, index of the question, starting at 0
+     * @return the number of students who answered the question
+     */
+    public long getAnswered(int question) {
+      return this.answered[question];
+    }
+
+    /**
+     *
+     * @return the average score, in questions answered correctly
+     */
+    public double getAverageScore() {
+      return this.submissions == 0 ? 0 : (double) this.points / this.submissions;
+    }
+
+    /**
+     *
+     * @return submissions graded per second
+     */
+    public double getSubmissionsPerSecond() {
+      return this.submissions * 1e9 / Math.max(1, this.nanos);
+    }
+
+    /**
+     *
+     * @return the totals, then one line per question: number, correct, answered
+     */
+    @Override
+    public String toString() {
+      StringBuilder acc = new StringBuilder(String.format("%d submissions, average %.2f/%d, "
+              + "%.0f submissions/s", this.submissions, getAverageScore(), this.correct.length,
+              getSubmissionsPerSecond()));
+      for (int q = 0; q < this.correct.length; q++) {
+        acc.append(String.format("%nQ%d: %d correct of %d answered", q + 1, this.correct[q],
+                this.answered[q]));
+      }
+      return acc.toString();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package questions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This is the driver class of BatchGrader. It grades a stream of generated submissions to a set
+ * of 20 questions of the 4 types, first one answer at a time with Question.answer and then with
+ * BatchGrader on 1, 2, 4 ... threads, checks that every run gives the same grades and tallies,
+ * and prints the speed of each run. The submissions are generated as they are read, so none of
+ * the runs holds the whole stream.
+ * Argument: the number of submissions (default 1,000,000).
+ */
+public class BatchGraderDriver {
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    List<Question> questions = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      questions.add(new TrueFalse("Statement " + i, i % 2 == 0 ? "True" : "False"));
+      questions.add(new MultipleChoice("Choice " + i, String.valueOf(i % 4 + 1), "a", "b", "c",
+              "d"));
+      questions.add(new MultipleSelect("Select " + i, (i % 3 + 1) + " " + (i % 3 + 3), "a", "b",
+              "c", "d", "e"));
+      questions.add(new Likert("Opinion " + i));
+    }
+
+    // one answer at a time, the way grading was done before
+    long start = System.nanoTime();
+    long[] correct = new long[questions.size()];
+    long checksum = 0;
+    for (Iterator<Submission> it = submissions(count, questions.size()); it.hasNext(); ) {
+      Submission submission = it.next();
+      int score = 0;
+      for (int q = 0; q < questions.size(); q++) {
+        String answer = submission.getAnswer(q);
+        if (answer != null && Question.CORRECT.equals(questions.get(q).answer(answer))) {
+          correct[q]++;
+          score++;
+        }
+      }
+      checksum = checksum * 31 + score;
+    }
+    System.out.printf("one at a time: %.0f submissions/s%n",
+            count * 1e9 / (System.nanoTime() - start));
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+      try (BatchGrader grader = new BatchGrader(questions, threads, 1024, 4 * threads)) {
+        long[] sum = {0};
+        BatchGrader.Report report = grader.grade(submissions(count, questions.size()),
+            grade -> sum[0] = sum[0] * 31 + grade.getScore());
+        System.out.printf("%d threads: %.0f submissions/s, average %.2f%n", threads,
+                report.getSubmissionsPerSecond(), report.getAverageScore());
+        boolean same = sum[0] == checksum && report.getSubmissions() == count;
+        for (int q = 0; q < questions.size(); q++) {
+          same &= report.getCorrect(q) == correct[q];
+        }
+        if (!same) {
+          throw new IllegalStateException("Batch grades differ from one at a time grades");
+        }
+        if (threads == 1) {
+          System.out.println(report);
+        }
+      }
+    }
+  }
+
+  /**
+   * a generated stream of submissions, the same for the same count
+   */
+  private static Iterator<Submission> submissions(int count, int questions) {
+    Random random = new Random(5004);
+    String[] trueFalse = {"True", "False"};
+    String[] select = {"1 3", "3 1", "2 4", "1", "1 2 3", "3 5", "2 4 "};
+    return new Iterator<Submission>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < count;
+      }
+
+      @Override
+      public Submission next() {
+        if (next == count) {
+          throw new NoSuchElementException();
+        }
+        String[] answers = new String[questions];
+        for (int q = 0; q < questions; q++) {
+          if (random.nextInt(50) == 0) {
+            continue;
+          }
+          switch (q % 4) {
+            case 0:
+              answers[q] = trueFalse[random.nextInt(2)];
+              break;
+            case 1:
+              answers[q] = String.valueOf(random.nextInt(4) + 1);
+              break;
+            case 2:
+              answers[q] = select[random.nextInt(select.length)];
+              break;
+            default:
+              answers[q] = String.valueOf(random.nextInt(5) + 1);
+          }
+        }
+        return new Submission("s" + next++, answers);
+      }
+    };
+  }
+}
@@ -0,0 +1,72 @@
+package questions;
+
+import java.util.Arrays;
+
+/**
+ * This is the Submission class, the answers of one student to a question set, in the order of
+ * the questions. A missing answer is null.
+ */
+public class Submission {
+  private final String studentId;
+  private final String[] answers;
+
+  /**
+   * constructor of Submission class
+   * @param studentId, id of the student
+   * @param answers, one answer per question, in question order; null for an unanswered question
+   * throw IllegalArgumentException if studentId or answers is null
+   */
+  public Submission(String studentId, String... answers) {
+    if (studentId == null || answers == null) {
+      throw new IllegalArgumentException("A submission needs a student id and answers.");
+    }
+    this.studentId = studentId;
+    // copied, the caller may reuse its array while the submission waits to be graded
+    this.answers = answers.clone();
+  }
+
+  /**
+   * Read a submission from a comma separated line: the student id, then one answer per question;
+   * an empty field is an unanswered question, e.g. "s1001,True,3,,1 4,5"
+   * @param line, the line
+   * @return the submission
+   * throw IllegalArgumentException if the line is null or empty
+   */
+  public static Submission fromCsv(String line) {
+    if (line == null || line.isEmpty()) {
+      throw new IllegalArgumentException("The line is empty.");
+    }
+    String[] fields = line.split(",", -1);
+    String[] answers = Arrays.copyOfRange(fields, 1, fields.length);
+    for (int i = 0; i < answers.length; i++) {
+      if (answers[i].isEmpty()) {
+        answers[i] = null;
+      }
+    }
+    return new Submission(fields[0], answers);
+  }
+
+  /**
+   *
+   * @return the id of the student
+   */
+  public String getStudentId() {
+    return this.studentId;
+  }
+
+  /**
+   *
+   * @return the number of answers, unanswered questions included
+   */
+  public int size() {
+    return this.answers.length;
+  }
+
+  /**
+   * @param question, index of the question, starting at 0
+   * @return the answer to the question, null if it was not answered
+   */
+  public String getAnswer(int question) {
+    return question < this.answers.length ? this.answers[question] : null;
+  }
+}